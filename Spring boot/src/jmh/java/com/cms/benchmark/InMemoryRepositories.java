@@ -0,0 +1,186 @@
+package com.cms.benchmark;
+
+import com.cms.entities.*;
+import com.cms.repository.*;
+import com.cms.service.TimeSlotService;
+import com.cms.service.TimetableService;
+import com.cms.service.timetable.ConstraintTimetableSolver;
+import com.cms.service.timetable.TimetableEntryWriter;
+import com.cms.service.timetable.TimetableSolver;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Repository stand-ins backed by a SyntheticInstitution, wired into the generator services by hand.
+ * Only the repository methods the generators call are implemented; anything else fails loudly.
+ */
+public class InMemoryRepositories {
+
+    private final SyntheticInstitution institution;
+    private final Map<Long, List<TimetableEntry>> entriesByFaculty = new ConcurrentHashMap<>();
+    private final AtomicLong entryIds = new AtomicLong();
+
+    private final TimetableEntryRepository timetableEntryRepository;
+    private final FacultyCourseRepository facultyCourseRepository;
+    private final FacultyRepository facultyRepository;
+    private final TimeSlotRepository timeSlotRepository;
+    private final TimetableEntryWriter timetableEntryWriter;
+
+    public InMemoryRepositories(SyntheticInstitution institution) {
+        this.institution = institution;
+
+        Map<Long, Faculty> facultyById = institution.getFaculty().stream()
+                .collect(Collectors.toMap(Faculty::getId, f -> f));
+        Map<Long, List<FacultyCourse>> coursesByFaculty = institution.getFacultyCourses().stream()
+                .collect(Collectors.groupingBy(fc -> fc.getFaculty().getId()));
+        List<TimeSlot> nonBreakSlots = institution.getTimeSlots().stream()
+                .filter(slot -> !slot.getIsBreak())
+                .collect(Collectors.toList());
+
+        Map<String, Function<Object[], Object>> entryMethods = new HashMap<>();
+        entryMethods.put("findByFacultyId/1", args -> new ArrayList<>(entriesByFaculty.getOrDefault((Long) args[0], List.of())));
+        entryMethods.put("deleteByFacultyIdIn/1", args -> {
+            int removed = 0;
+            for (Object facultyId : (Collection<?>) args[0]) {
+                List<TimetableEntry> entries = entriesByFaculty.remove((Long) facultyId);
+                removed += entries == null ? 0 : entries.size();
+            }
+            return removed;
+        });
+        entryMethods.put("findSlotOccupancyExcludingFaculty/1", args -> slotRows(Set.of((Long) args[0])));
+        entryMethods.put("findSlotOccupancyExcludingFaculties/1", args -> slotRows(new HashSet<>((Collection<?>) args[0])));
+        entryMethods.put("findByBatchIdAndAcademicYearAndSemester/3", args -> allEntries().stream()
+                .filter(entry -> entry.getBatch().getId().equals(args[0]))
+                .collect(Collectors.toList()));
+        timetableEntryRepository = stub(TimetableEntryRepository.class, entryMethods);
+
+        Map<String, Function<Object[], Object>> facultyCourseMethods = new HashMap<>();
+        facultyCourseMethods.put("findByFacultyId/1", args -> coursesByFaculty.getOrDefault((Long) args[0], List.of()));
+        facultyCourseMethods.put("findAll/0", args -> institution.getFacultyCourses());
+        facultyCourseRepository = stub(FacultyCourseRepository.class, facultyCourseMethods);
+
+        Map<String, Function<Object[], Object>> facultyMethods = new HashMap<>();
+        facultyMethods.put("findById/1", args -> Optional.ofNullable(facultyById.get((Long) args[0])));
+        facultyRepository = stub(FacultyRepository.class, facultyMethods);
+
+        Map<String, Function<Object[], Object>> timeSlotMethods = new HashMap<>();
+        timeSlotMethods.put("count/0", args -> (long) institution.getTimeSlots().size());
+        timeSlotMethods.put("findAll/0", args -> institution.getTimeSlots());
+        timeSlotMethods.put("findAllByIsBreakFalseOrderByDayAscPeriodNumberAsc/0", args -> nonBreakSlots);
+        timeSlotRepository = stub(TimeSlotRepository.class, timeSlotMethods);
+
+        timetableEntryWriter = new InMemoryEntryWriter();
+        inject(timetableEntryWriter, "timetableEntryRepository", timetableEntryRepository);
+    }
+
+    /**
+     * Random-retry generator with the constraint solver registered as an alternative engine
+     */
+    public TimetableService timetableService(int parallelism) {
+        ConstraintTimetableSolver solver = new ConstraintTimetableSolver();
+        inject(solver, "maxNodes", 200_000L);
+
+        TimetableService service = new TimetableService();
+        inject(service, "timetableEntryRepository", timetableEntryRepository);
+        inject(service, "facultyCourseRepository", facultyCourseRepository);
+        inject(service, "facultyRepository", facultyRepository);
+        inject(service, "timeSlotRepository", timeSlotRepository);
+        inject(service, "timeSlotService", timeSlotService());
+        inject(service, "timetableEntryWriter", timetableEntryWriter);
+        inject(service, "timetableSolvers", List.<TimetableSolver>of(solver));
+        inject(service, "generationParallelism", parallelism);
+        inject(service, "defaultEngine", TimetableService.RANDOM_ENGINE);
+        service.initGenerationPool();
+        return service;
+    }
+
+    /**
+     * Genetic-algorithm generator
+     */
+    public com.cms.service.admin.TimetableService geneticTimetableService() {
+        com.cms.service.admin.TimetableService service = new com.cms.service.admin.TimetableService();
+        inject(service, "timetableEntryRepository", timetableEntryRepository);
+        inject(service, "facultyCourseRepository", facultyCourseRepository);
+        inject(service, "facultyRepository", facultyRepository);
+        inject(service, "timeSlotService", timeSlotService());
+        inject(service, "timetableEntryWriter", timetableEntryWriter);
+        return service;
+    }
+
+    public List<TimetableEntry> allEntries() {
+        List<TimetableEntry> entries = new ArrayList<>();
+        for (List<TimetableEntry> facultyEntries : entriesByFaculty.values()) {
+            entries.addAll(facultyEntries);
+        }
+        return entries;
+    }
+
+    public SyntheticInstitution getInstitution() {
+        return institution;
+    }
+
+    private TimeSlotService timeSlotService() {
+        TimeSlotService service = new TimeSlotService();
+        inject(service, "timeSlotRepository", timeSlotRepository);
+        return service;
+    }
+
+    /**
+     * Bulk writer whose inserts land in the in-memory entry map instead of JDBC
+     */
+    private class InMemoryEntryWriter extends TimetableEntryWriter {
+        @Override
+        public void insertAll(List<TimetableEntry> entries) {
+            for (TimetableEntry entry : entries) {
+                entry.setId(entryIds.incrementAndGet());
+                entriesByFaculty.computeIfAbsent(entry.getFaculty().getId(), k -> Collections.synchronizedList(new ArrayList<>())).add(entry);
+            }
+        }
+    }
+
+    private List<Object[]> slotRows(Set<?> excludedFaculty) {
+        List<Object[]> rows = new ArrayList<>();
+        for (TimetableEntry entry : allEntries()) {
+            if (!excludedFaculty.contains(entry.getFaculty().getId()) && !entry.getTimeSlot().getIsBreak()) {
+                rows.add(new Object[]{entry.getFaculty().getId(), entry.getBatch().getId(), entry.getCourse().getId(),
+                        entry.getTimeSlot().getDay(), entry.getTimeSlot().getPeriodNumber()});
+            }
+        }
+        return rows;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(Class<T> type, Map<String, Function<Object[], Object>> methods) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> "InMemory" + type.getSimpleName();
+                };
+            }
+            Object[] arguments = args == null ? new Object[0] : args;
+            Function<Object[], Object> handler = methods.get(method.getName() + "/" + arguments.length);
+            if (handler == null) {
+                throw new UnsupportedOperationException(type.getSimpleName() + "." + method.getName() + " is not available in benchmarks");
+            }
+            return handler.apply(arguments);
+        });
+    }
+
+    private static void inject(Object target, String fieldName, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), fieldName);
+        if (field == null) {
+            throw new IllegalStateException("No field " + fieldName + " on " + target.getClass().getName());
+        }
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -0,0 +1,123 @@
+package com.cms.benchmark;
+
+import com.cms.entities.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.*;
+
+/**
+ * Randomly generated but reproducible institution: faculty, batches, courses and teaching assignments.
+ * Each faculty teaches a fixed number of courses, each course to one or two batches.
+ */
+public class SyntheticInstitution {
+
+    private static final DayOfWeek[] DAYS = {
+            DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY,
+            DayOfWeek.THURSDAY, DayOfWeek.FRIDAY, DayOfWeek.SATURDAY
+    };
+
+    private static final int LAB_PERIODS = 3;
+    private static final int ACADEMIC_PERIODS = 4;
+    private static final int NON_ACADEMIC_PERIODS = 2;
+
+    private final List<TimeSlot> timeSlots = new ArrayList<>();
+    private final List<Faculty> faculty = new ArrayList<>();
+    private final List<Batch> batches = new ArrayList<>();
+    private final List<Course> courses = new ArrayList<>();
+    private final List<FacultyCourse> facultyCourses = new ArrayList<>();
+
+    public SyntheticInstitution(int facultyCount, int batchCount, int coursesPerFaculty,
+                                double labShare, double nonAcademicShare, long seed) {
+        Random random = new Random(seed);
+        createTimeSlots();
+
+        for (int b = 0; b < batchCount; b++) {
+            Batch batch = new Batch();
+            batch.setId((long) b + 1);
+            batch.setBatchName("Batch " + (b + 1));
+            batch.setDepartment("DEPT" + (b % 4));
+            batch.setSection(String.valueOf((char) ('A' + b % 3)));
+            batches.add(batch);
+        }
+
+        long assignmentId = 1;
+        for (int f = 0; f < facultyCount; f++) {
+            Faculty member = new Faculty();
+            member.setId((long) f + 1);
+            member.setName("Faculty " + (f + 1));
+            member.setDepartment("DEPT" + (f % 4));
+            faculty.add(member);
+
+            for (int c = 0; c < coursesPerFaculty; c++) {
+                Course course = createCourse(courses.size() + 1, random.nextDouble(), labShare, nonAcademicShare);
+                courses.add(course);
+
+                // Theory courses are often shared by two sections; labs and activities are per batch
+                int sections = course.getType() == Course.CourseType.ACADEMIC && random.nextBoolean() ? 2 : 1;
+                int firstBatch = random.nextInt(batchCount);
+                for (int s = 0; s < sections && s < batchCount; s++) {
+                    FacultyCourse assignment = new FacultyCourse(member, course, batches.get((firstBatch + s) % batchCount));
+                    assignment.setId(assignmentId++);
+                    facultyCourses.add(assignment);
+                }
+            }
+        }
+    }
+
+    private Course createCourse(int id, double draw, double labShare, double nonAcademicShare) {
+        Course course = new Course();
+        course.setId((long) id);
+        course.setCode("C" + id);
+        course.setTitle("Course " + id);
+        course.setSemesterNo(1 + id % 8);
+        if (draw < labShare) {
+            course.setType(Course.CourseType.LAB);
+            course.setContactPeriods(LAB_PERIODS);
+        } else if (draw < labShare + nonAcademicShare) {
+            course.setType(Course.CourseType.NON_ACADEMIC);
+            course.setContactPeriods(NON_ACADEMIC_PERIODS);
+        } else {
+            course.setType(Course.CourseType.ACADEMIC);
+            course.setContactPeriods(ACADEMIC_PERIODS);
+        }
+        return course;
+    }
+
+    // Same layout as TimeSlotService.initializeTimeSlots: eight periods and three breaks a day
+    private void createTimeSlots() {
+        long id = 1;
+        for (DayOfWeek day : DAYS) {
+            LocalTime start = LocalTime.of(9, 0);
+            for (int position = 0; position < 11; position++) {
+                boolean isBreak = position == 2 || position == 5 || position == 8;
+                int period = isBreak ? 0 : position + 1 - (position > 8 ? 3 : position > 5 ? 2 : position > 2 ? 1 : 0);
+                LocalTime end = start.plusMinutes(isBreak ? 10 : 50);
+                TimeSlot slot = new TimeSlot(day, period, start, end, isBreak);
+                slot.setId(id++);
+                timeSlots.add(slot);
+                start = end;
+            }
+        }
+    }
+
+    public List<TimeSlot> getTimeSlots() {
+        return timeSlots;
+    }
+
+    public List<Faculty> getFaculty() {
+        return faculty;
+    }
+
+    public List<Batch> getBatches() {
+        return batches;
+    }
+
+    public List<Course> getCourses() {
+        return courses;
+    }
+
+    public List<FacultyCourse> getFacultyCourses() {
+        return facultyCourses;
+    }
+}
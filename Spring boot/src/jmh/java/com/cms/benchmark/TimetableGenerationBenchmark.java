@@ -0,0 +1,105 @@
+package com.cms.benchmark;
+
+import com.cms.dto.TimetableEntryDTO;
+import com.cms.dto.TimetableGenerationDTO;
+import com.cms.entities.Faculty;
+import com.cms.service.TimetableService;
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-faculty generation with each engine. Every invocation regenerates the next faculty
+ * of the synthetic institution, so the rest of the timetable acts as fixed occupancy.
+ * Throughput and sample-time percentiles come from the benchmark modes; allocation rate from -prof gc.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimetableGenerationBenchmark {
+
+    @Param("10")
+    private int facultyCount;
+
+    @Param("8")
+    private int batchCount;
+
+    @Param("3")
+    private int coursesPerFaculty;
+
+    @Param("0.3")
+    private double labShare;
+
+    @Param("0.1")
+    private double nonAcademicShare;
+
+    @Param({"1", "4"})
+    private int parallelism;
+
+    private List<Faculty> faculty;
+    private TimetableService timetableService;
+    private com.cms.service.admin.TimetableService geneticTimetableService;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        quietLogging();
+        SyntheticInstitution institution = new SyntheticInstitution(facultyCount, batchCount, coursesPerFaculty,
+                labShare, nonAcademicShare, 42L);
+        InMemoryRepositories repositories = new InMemoryRepositories(institution);
+        faculty = institution.getFaculty();
+        timetableService = repositories.timetableService(parallelism);
+        geneticTimetableService = repositories.geneticTimetableService();
+
+        // Start from a complete timetable so every run sees realistic batch occupancy
+        for (Faculty member : faculty) {
+            timetableService.generateTimetable(request(member, TimetableService.RANDOM_ENGINE));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        timetableService.shutdownGenerationPool();
+    }
+
+    @Benchmark
+    public List<TimetableEntryDTO> randomGenerator() {
+        return timetableService.generateTimetable(request(nextFaculty(), TimetableService.RANDOM_ENGINE));
+    }
+
+    @Benchmark
+    public List<TimetableEntryDTO> constraintSolver() {
+        return timetableService.generateTimetable(request(nextFaculty(), "constraint"));
+    }
+
+    @Benchmark
+    public List<TimetableEntryDTO> geneticAlgorithm() {
+        return geneticTimetableService.generateTimetable(request(nextFaculty(), null));
+    }
+
+    private Faculty nextFaculty() {
+        Faculty member = faculty.get(next);
+        next = (next + 1) % faculty.size();
+        return member;
+    }
+
+    static TimetableGenerationDTO request(Faculty member, String engine) {
+        TimetableGenerationDTO dto = new TimetableGenerationDTO();
+        dto.setFacultyId(member.getId());
+        dto.setAcademicYear("2025-2026");
+        dto.setSemester("ODD");
+        dto.setEngine(engine);
+        return dto;
+    }
+
+    // Generator logging would otherwise dominate the measured time
+    static void quietLogging() {
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(Logger.ROOT_LOGGER_NAME)).setLevel(ch.qos.logback.classic.Level.WARN);
+    }
+}
@@ -0,0 +1,79 @@
+package com.cms.benchmark;
+
+import com.cms.entities.Faculty;
+import com.cms.entities.TimetableEntry;
+import com.cms.service.TimetableService;
+import com.cms.service.timetable.TimetableViolation;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * validateTimetable on its own, for one faculty's timetable and for the whole institution
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TimetableValidationBenchmark {
+
+    @Param({"10", "40"})
+    private int facultyCount;
+
+    // Batches grow with the faculty so every size keeps the load of 10 faculty on 8 batches and stays schedulable
+    @Param("1.25")
+    private double facultyPerBatch;
+
+    @Param("3")
+    private int coursesPerFaculty;
+
+    @Param("0.3")
+    private double labShare;
+
+    @Param("0.1")
+    private double nonAcademicShare;
+
+    private TimetableService timetableService;
+    private List<TimetableEntry> facultyEntries;
+    private List<TimetableEntry> institutionEntries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        TimetableGenerationBenchmark.quietLogging();
+        int batchCount = (int) Math.ceil(facultyCount / facultyPerBatch);
+        SyntheticInstitution institution = new SyntheticInstitution(facultyCount, batchCount, coursesPerFaculty,
+                labShare, nonAcademicShare, 42L);
+        InMemoryRepositories repositories = new InMemoryRepositories(institution);
+        timetableService = repositories.timetableService(1);
+
+        for (Faculty member : institution.getFaculty()) {
+            timetableService.generateTimetable(TimetableGenerationBenchmark.request(member, "constraint"));
+        }
+        institutionEntries = repositories.allEntries();
+        facultyEntries = new ArrayList<>();
+        for (TimetableEntry entry : institutionEntries) {
+            if (entry.getFaculty().getId().equals(institution.getFaculty().get(0).getId())) {
+                facultyEntries.add(entry);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        timetableService.shutdownGenerationPool();
+    }
+
+    @Benchmark
+    public List<TimetableViolation> validateFaculty() {
+        return timetableService.validateTimetable(facultyEntries);
+    }
+
+    @Benchmark
+    public List<TimetableViolation> validateInstitution() {
+        return timetableService.validateTimetable(institutionEntries);
+    }
+}
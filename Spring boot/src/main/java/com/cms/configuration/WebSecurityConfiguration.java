@@ -1,6 +1,7 @@
 package com.cms.configuration;
 
 import com.cms.filter.JwtAuthFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -29,6 +30,9 @@ public class WebSecurityConfiguration {
         http
             .csrf(csrf -> csrf.disable())
             .authorizeHttpRequests(authz -> authz
+                // Streamed downloads finish in an ASYNC dispatch; the request itself was authorized already
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                 // Public endpoints - no authentication required
                 .requestMatchers("/api/student/login").permitAll()
                 .requestMatchers("/api/email-actions/**").permitAll()
@@ -2,20 +2,21 @@ package com.cms.controller;
 
 import com.cms.dto.AttendanceDTO;
 import com.cms.dto.AttendancePercentageDTO;
+import com.cms.dto.AttendanceUploadReportDTO;
+import com.cms.dto.JobRunDTO;
 import com.cms.service.AttendanceService;
+import com.cms.service.AttendanceSweepService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.InputStreamResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/attendance")
@@ -24,19 +25,22 @@ public class AttendanceController {
     @Autowired
     private AttendanceService attendanceService;
 
+    @Autowired
+    private AttendanceSweepService attendanceSweepService;
+
     /**
      * Generate attendance template for faculty to fill
      */
     @GetMapping("/template")
     @PreAuthorize("hasRole('FACULTY')")
-    public ResponseEntity<InputStreamResource> generateAttendanceTemplate(
+    public ResponseEntity<StreamingResponseBody> generateAttendanceTemplate(
             @RequestParam Long facultyId,
             @RequestParam Long courseId,
             @RequestParam String batchName,
             @RequestParam(required = false) String department,
-            @RequestParam(required = false) String section) throws IOException {
+            @RequestParam(required = false) String section) {
         
-        ByteArrayInputStream template = attendanceService.generateAttendanceTemplate(
+        StreamingResponseBody template = attendanceService.generateAttendanceTemplate(
             facultyId, courseId, batchName, department, section);
         
         HttpHeaders headers = new HttpHeaders();
@@ -46,7 +50,7 @@ public class AttendanceController {
                 .ok()
                 .headers(headers)
                 .contentType(MediaType.parseMediaType("application/vnd.ms-excel"))
-                .body(new InputStreamResource(template));
+                .body(template);
     }
 
     /**
@@ -65,6 +69,22 @@ public class AttendanceController {
         return ResponseEntity.ok(processedAttendance);
     }
 
+    /**
+     * Upload filled attendance Excel file, keeping valid rows and reporting rejected ones
+     */
+    @PostMapping("/upload/report")
+    @PreAuthorize("hasRole('FACULTY')")
+    public ResponseEntity<AttendanceUploadReportDTO> uploadAttendanceWithReport(
+            @RequestParam Long facultyId,
+            @RequestParam(required = false) String department,
+            @RequestParam(required = false) String section,
+            @RequestParam("file") MultipartFile file) throws IOException {
+
+        AttendanceUploadReportDTO report = attendanceService.importAttendanceFromExcel(
+            facultyId, department, section, file);
+        return ResponseEntity.ok(report);
+    }
+
     /**
      * Get attendance records for a faculty's course and batch
      */
@@ -118,14 +138,14 @@ public class AttendanceController {
      */
     @GetMapping("/report")
     @PreAuthorize("hasRole('FACULTY')")
-    public ResponseEntity<InputStreamResource> generateAttendanceReport(
+    public ResponseEntity<StreamingResponseBody> generateAttendanceReport(
             @RequestParam Long facultyId,
             @RequestParam Long courseId,
             @RequestParam String batchName,
             @RequestParam(required = false) String department,
-            @RequestParam(required = false) String section) throws IOException {
+            @RequestParam(required = false) String section) {
         
-        ByteArrayInputStream report = attendanceService.generateAttendanceReport(
+        StreamingResponseBody report = attendanceService.generateAttendanceReport(
             facultyId, courseId, batchName, department, section);
         
         HttpHeaders headers = new HttpHeaders();
@@ -135,16 +155,26 @@ public class AttendanceController {
                 .ok()
                 .headers(headers)
                 .contentType(MediaType.parseMediaType("application/vnd.ms-excel"))
-                .body(new InputStreamResource(report));
+                .body(report);
     }
     
     /**
-     * Check if any student's attendance is below threshold and send notifications
+     * Start the below-threshold sweep in the background; poll the status endpoint for the outcome
      */
     @PostMapping("/check-and-notify")
     @PreAuthorize("hasRole('FACULTY') or hasRole('ADMIN')")
-    public ResponseEntity<Map<String, Object>> checkAttendanceAndNotify() {
-        Map<String, Object> result = attendanceService.checkAttendanceBelowThresholdAndNotify();
-        return ResponseEntity.ok(result);
+    public ResponseEntity<JobRunDTO> checkAttendanceAndNotify() {
+        JobRunDTO run = attendanceSweepService.trigger();
+        return ResponseEntity.accepted().body(run);
+    }
+
+    /**
+     * Status and duration of the latest sweep
+     */
+    @GetMapping("/check-and-notify/status")
+    @PreAuthorize("hasRole('FACULTY') or hasRole('ADMIN')")
+    public ResponseEntity<JobRunDTO> getAttendanceSweepStatus() {
+        JobRunDTO run = attendanceSweepService.getLastRun();
+        return ResponseEntity.ok(run);
     }
 }
\ No newline at end of file
@@ -6,7 +6,6 @@ import com.cms.entities.Faculty;
 import com.cms.entities.User;
 import com.cms.repository.FacultyRepository;
 import com.cms.repository.UserRepository;
-import com.cms.service.jwt.UserDetailsServiceImpl;
 import com.cms.utils.JwtUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -15,7 +14,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -29,9 +27,6 @@ public class AuthenticationController {
     @Autowired
     private AuthenticationManager authenticationManager;
 
-    @Autowired
-    private UserDetailsServiceImpl userDetailsService;
-
     @Autowired
     private JwtUtil jwtUtil;
 
@@ -60,15 +55,14 @@ public class AuthenticationController {
                 return ResponseEntity.badRequest().body("Authentication failed");
             }
 
-            // Load user details
-            final UserDetails userDetails = userDetailsService.loadUserByUsername(authenticationRequest.getEmail());
             User user = userRepository.findFirstByEmail(authenticationRequest.getEmail())
                     .orElseThrow(() -> new RuntimeException("User not found"));
 
             Faculty faculty = facultyRepository.findByUser(user).orElse(null);
             Long facultyId = (faculty != null) ? faculty.getId() : null;
+            Long studentId = (user.getStudent() != null) ? user.getStudent().getId() : null;
 
-            final String token = jwtUtil.generateToken(userDetails);
+            final String token = jwtUtil.generateToken(user, studentId, facultyId);
             logger.info("Token generated for user: {}, Role: {}, Faculty ID: {}",
                     authenticationRequest.getEmail(), user.getUserRole(), facultyId);
 
@@ -34,7 +34,7 @@ public class EmailActionController {
         
         Map<String, Object> response = new HashMap<>();
         try {
-            TokenData tokenData = emailTokenService.validateToken(token);
+            TokenData tokenData = emailTokenService.consumeToken(token);
             if (tokenData == null) {
                 logger.warn("Invalid or expired token: {}", token);
                 response.put("success", false);
@@ -47,7 +47,13 @@ public class EmailActionController {
             actionDTO.setComments(comment != null ? comment :
                 (tokenData.getAction() == Leave.LeaveStatus.APPROVED ? "Approved via email" : "Rejected via email"));
 
-            leaveService.updateLeaveStatus(tokenData.getLeaveId(), tokenData.getApproverId(), actionDTO);
+            try {
+                leaveService.updateLeaveStatus(tokenData.getLeaveId(), tokenData.getApproverId(), actionDTO);
+            } catch (RuntimeException e) {
+                // Let the link be used again once the problem is fixed
+                emailTokenService.releaseToken(token);
+                throw e;
+            }
 
             // Invalidate the token after use
             emailTokenService.invalidateToken(token);
@@ -1,8 +1,11 @@
 package com.cms.controller;
 
+import com.cms.dto.DepartmentTimetableGenerationDTO;
 import com.cms.dto.TimetableEntryDTO;
 import com.cms.dto.TimetableGenerationDTO;
+import com.cms.dto.TimetableGenerationJobDTO;
 import com.cms.service.TimeSlotService;
+import com.cms.service.TimetableGenerationJobService;
 import com.cms.service.TimetableService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -22,6 +25,9 @@ public class TimetableController {
     @Autowired
     private TimeSlotService timeSlotService;
 
+    @Autowired
+    private TimetableGenerationJobService timetableGenerationJobService;
+
     @PostMapping("/generate")
     @PreAuthorize("hasRole('FACULTY')")
     public ResponseEntity<List<TimetableEntryDTO>> generateTimetable(@RequestBody TimetableGenerationDTO dto) {
@@ -29,6 +35,20 @@ public class TimetableController {
         return ResponseEntity.ok(timetable);
     }
 
+    @PostMapping("/generate/department")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TimetableGenerationJobDTO> generateDepartmentTimetable(@RequestBody DepartmentTimetableGenerationDTO dto) {
+        TimetableGenerationJobDTO job = timetableGenerationJobService.submit(dto);
+        return ResponseEntity.accepted().body(job);
+    }
+
+    @GetMapping("/generate/jobs/{jobId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<TimetableGenerationJobDTO> getGenerationJob(@PathVariable String jobId) {
+        TimetableGenerationJobDTO job = timetableGenerationJobService.getJob(jobId);
+        return ResponseEntity.ok(job);
+    }
+
     @GetMapping("/faculty/{facultyId}")
     @PreAuthorize("hasRole('FACULTY') or hasRole('ADMIN')")
     public ResponseEntity<List<TimetableEntryDTO>> getFacultyTimetable(@PathVariable Long facultyId) {
@@ -0,0 +1,60 @@
+package com.cms.dto;
+
+public class AttendanceRowResultDTO {
+    private int rowNumber;
+    private Long studentId;
+    private Long courseId;
+    private String status;
+    private String reason;
+
+    public AttendanceRowResultDTO() {}
+
+    public AttendanceRowResultDTO(int rowNumber, Long studentId, Long courseId, String status, String reason) {
+        this.rowNumber = rowNumber;
+        this.studentId = studentId;
+        this.courseId = courseId;
+        this.status = status;
+        this.reason = reason;
+    }
+
+    // Getters and setters
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    public void setRowNumber(int rowNumber) {
+        this.rowNumber = rowNumber;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(Long courseId) {
+        this.courseId = courseId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public void setReason(String reason) {
+        this.reason = reason;
+    }
+}
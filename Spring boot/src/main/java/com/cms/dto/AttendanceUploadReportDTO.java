@@ -0,0 +1,64 @@
+package com.cms.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class AttendanceUploadReportDTO {
+    private int totalRows;
+    private int acceptedRows;
+    private int rejectedRows;
+    private int skippedRows;
+    private List<AttendanceRowResultDTO> rows = new ArrayList<>();
+    private List<AttendanceDTO> accepted = new ArrayList<>();
+
+    public AttendanceUploadReportDTO() {}
+
+    // Getters and setters
+    public int getTotalRows() {
+        return totalRows;
+    }
+
+    public void setTotalRows(int totalRows) {
+        this.totalRows = totalRows;
+    }
+
+    public int getAcceptedRows() {
+        return acceptedRows;
+    }
+
+    public void setAcceptedRows(int acceptedRows) {
+        this.acceptedRows = acceptedRows;
+    }
+
+    public int getRejectedRows() {
+        return rejectedRows;
+    }
+
+    public void setRejectedRows(int rejectedRows) {
+        this.rejectedRows = rejectedRows;
+    }
+
+    public int getSkippedRows() {
+        return skippedRows;
+    }
+
+    public void setSkippedRows(int skippedRows) {
+        this.skippedRows = skippedRows;
+    }
+
+    public List<AttendanceRowResultDTO> getRows() {
+        return rows;
+    }
+
+    public void setRows(List<AttendanceRowResultDTO> rows) {
+        this.rows = rows;
+    }
+
+    public List<AttendanceDTO> getAccepted() {
+        return accepted;
+    }
+
+    public void setAccepted(List<AttendanceDTO> accepted) {
+        this.accepted = accepted;
+    }
+}
@@ -0,0 +1,50 @@
+package com.cms.dto;
+
+public class DepartmentTimetableGenerationDTO {
+    // Leave empty to regenerate the timetable of every faculty in the institution
+    private String department;
+    private String academicYear;
+    private String semester;
+    // Optional generation engine ("random" or "constraint"); the configured default is used when empty
+    private String engine;
+
+    public DepartmentTimetableGenerationDTO() {}
+
+    public DepartmentTimetableGenerationDTO(String department, String academicYear, String semester) {
+        this.department = department;
+        this.academicYear = academicYear;
+        this.semester = semester;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
+    }
+
+    public String getAcademicYear() {
+        return academicYear;
+    }
+
+    public void setAcademicYear(String academicYear) {
+        this.academicYear = academicYear;
+    }
+
+    public String getSemester() {
+        return semester;
+    }
+
+    public void setSemester(String semester) {
+        this.semester = semester;
+    }
+
+    public String getEngine() {
+        return engine;
+    }
+
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+}
@@ -0,0 +1,126 @@
+package com.cms.dto;
+
+import java.time.LocalDateTime;
+
+public class JobRunDTO {
+    private String jobName;
+    private Long runId;
+    private String status;
+    private String node;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long durationMillis;
+    private int recordsProcessed;
+    private int notificationsQueued;
+    private Long checkpointStudentId;
+    private Long checkpointCourseId;
+    private int attempts;
+    private String message;
+
+    public JobRunDTO() {}
+
+    // Getters and setters
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public Long getRunId() {
+        return runId;
+    }
+
+    public void setRunId(Long runId) {
+        this.runId = runId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public void setNode(String node) {
+        this.node = node;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public Long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(Long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public int getRecordsProcessed() {
+        return recordsProcessed;
+    }
+
+    public void setRecordsProcessed(int recordsProcessed) {
+        this.recordsProcessed = recordsProcessed;
+    }
+
+    public int getNotificationsQueued() {
+        return notificationsQueued;
+    }
+
+    public void setNotificationsQueued(int notificationsQueued) {
+        this.notificationsQueued = notificationsQueued;
+    }
+
+    public Long getCheckpointStudentId() {
+        return checkpointStudentId;
+    }
+
+    public void setCheckpointStudentId(Long checkpointStudentId) {
+        this.checkpointStudentId = checkpointStudentId;
+    }
+
+    public Long getCheckpointCourseId() {
+        return checkpointCourseId;
+    }
+
+    public void setCheckpointCourseId(Long checkpointCourseId) {
+        this.checkpointCourseId = checkpointCourseId;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
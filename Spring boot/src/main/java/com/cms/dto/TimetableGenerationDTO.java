@@ -4,6 +4,8 @@ public class TimetableGenerationDTO {
     private Long facultyId;
     private String academicYear;
     private String semester;
+    // Optional generation engine ("random" or "constraint"); the configured default is used when empty
+    private String engine;
 
     public TimetableGenerationDTO() {}
 
@@ -36,5 +38,12 @@ public class TimetableGenerationDTO {
     public void setSemester(String semester) {
         this.semester = semester;
     }
-}
 
+    public String getEngine() {
+        return engine;
+    }
+
+    public void setEngine(String engine) {
+        this.engine = engine;
+    }
+}
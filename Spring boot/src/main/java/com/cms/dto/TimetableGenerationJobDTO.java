@@ -0,0 +1,117 @@
+package com.cms.dto;
+
+import java.time.LocalDateTime;
+
+public class TimetableGenerationJobDTO {
+    private String jobId;
+    private String department;
+    private String status;
+    private int totalFaculty;
+    private int processedFaculty;
+    private int failedFaculty;
+    private int generatedEntries;
+    private int remainingViolations;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long elapsedMillis;
+    private String message;
+
+    public TimetableGenerationJobDTO() {}
+
+    // Getters and setters
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public void setDepartment(String department) {
+        this.department = department;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public int getTotalFaculty() {
+        return totalFaculty;
+    }
+
+    public void setTotalFaculty(int totalFaculty) {
+        this.totalFaculty = totalFaculty;
+    }
+
+    public int getProcessedFaculty() {
+        return processedFaculty;
+    }
+
+    public void setProcessedFaculty(int processedFaculty) {
+        this.processedFaculty = processedFaculty;
+    }
+
+    public int getFailedFaculty() {
+        return failedFaculty;
+    }
+
+    public void setFailedFaculty(int failedFaculty) {
+        this.failedFaculty = failedFaculty;
+    }
+
+    public int getGeneratedEntries() {
+        return generatedEntries;
+    }
+
+    public void setGeneratedEntries(int generatedEntries) {
+        this.generatedEntries = generatedEntries;
+    }
+
+    public int getRemainingViolations() {
+        return remainingViolations;
+    }
+
+    public void setRemainingViolations(int remainingViolations) {
+        this.remainingViolations = remainingViolations;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -0,0 +1,134 @@
+package com.cms.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Latest attendance record of each (student, course) pair, kept up to date on every upload so
+ * percentage lookups read one row per course instead of sorting the attendance history.
+ * Ids are plain columns rather than associations so deleting a student, course or faculty never
+ * has to go through this table first.
+ */
+@Entity
+@Table(name = "attendance_summary",
+       uniqueConstraints = {
+           @UniqueConstraint(name = "uk_attendance_summary_student_course", columnNames = {"student_id", "course_id"})
+       },
+       indexes = {
+           @Index(name = "idx_attendance_summary_percentage", columnList = "attendance_percentage")
+       })
+public class AttendanceSummary {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "course_id", nullable = false)
+    private Long courseId;
+
+    @Column(name = "faculty_id", nullable = false)
+    private Long facultyId;
+
+    @Column(name = "attendance_id", nullable = false)
+    private Long attendanceId;
+
+    @Column(name = "batch_name", nullable = false)
+    private String batchName;
+
+    @Column(name = "semester_no", nullable = false)
+    private Integer semesterNo;
+
+    @Column(name = "attendance_percentage", nullable = false)
+    private Double attendancePercentage;
+
+    @Column(name = "attendance_date", nullable = false)
+    private String attendanceDate;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Getters and setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public Long getStudentId() {
+        return studentId;
+    }
+
+    public void setStudentId(Long studentId) {
+        this.studentId = studentId;
+    }
+
+    public Long getCourseId() {
+        return courseId;
+    }
+
+    public void setCourseId(Long courseId) {
+        this.courseId = courseId;
+    }
+
+    public Long getFacultyId() {
+        return facultyId;
+    }
+
+    public void setFacultyId(Long facultyId) {
+        this.facultyId = facultyId;
+    }
+
+    public Long getAttendanceId() {
+        return attendanceId;
+    }
+
+    public void setAttendanceId(Long attendanceId) {
+        this.attendanceId = attendanceId;
+    }
+
+    public String getBatchName() {
+        return batchName;
+    }
+
+    public void setBatchName(String batchName) {
+        this.batchName = batchName;
+    }
+
+    public Integer getSemesterNo() {
+        return semesterNo;
+    }
+
+    public void setSemesterNo(Integer semesterNo) {
+        this.semesterNo = semesterNo;
+    }
+
+    public Double getAttendancePercentage() {
+        return attendancePercentage;
+    }
+
+    public void setAttendancePercentage(Double attendancePercentage) {
+        this.attendancePercentage = attendancePercentage;
+    }
+
+    public String getAttendanceDate() {
+        return attendanceDate;
+    }
+
+    public void setAttendanceDate(String attendanceDate) {
+        this.attendanceDate = attendanceDate;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
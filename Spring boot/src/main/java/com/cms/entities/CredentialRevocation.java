@@ -0,0 +1,51 @@
+package com.cms.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Tokens of a user issued with a credential version below minVersion are no longer accepted.
+ * Rows only matter for one token lifetime after revokedAt, see TokenRevocationService.
+ */
+@Entity
+@Table(name = "credential_revocations", indexes = {
+        @Index(name = "idx_credential_revocations_revoked_at", columnList = "revoked_at")
+})
+public class CredentialRevocation {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "min_version", nullable = false)
+    private Long minVersion;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    // Getters and setters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Long getMinVersion() {
+        return minVersion;
+    }
+
+    public void setMinVersion(Long minVersion) {
+        this.minVersion = minVersion;
+    }
+
+    public LocalDateTime getRevokedAt() {
+        return revokedAt;
+    }
+
+    public void setRevokedAt(LocalDateTime revokedAt) {
+        this.revokedAt = revokedAt;
+    }
+}
@@ -0,0 +1,179 @@
+package com.cms.entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One execution of a background job with its progress checkpoint.
+ * A run left RUNNING or FAILED is picked up again by the next execution from its checkpoint.
+ */
+@Entity
+@Table(name = "job_runs", indexes = {
+    @Index(name = "idx_job_runs_job_name", columnList = "job_name")
+})
+public class JobRun {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "job_name", nullable = false, length = 64)
+    private String jobName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RunStatus status;
+
+    private String node;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    // Start of the current attempt; startedAt stays at the first one
+    @Column(name = "attempt_started_at")
+    private LocalDateTime attemptStartedAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "duration_millis")
+    private Long durationMillis;
+
+    // Last (student, course) pair handled; the next chunk starts after it
+    @Column(name = "checkpoint_student_id")
+    private Long checkpointStudentId;
+
+    @Column(name = "checkpoint_course_id")
+    private Long checkpointCourseId;
+
+    @Column(name = "records_processed")
+    private int recordsProcessed;
+
+    @Column(name = "notifications_queued")
+    private int notificationsQueued;
+
+    private int attempts;
+
+    @Column(length = 1000)
+    private String message;
+
+    public enum RunStatus {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+
+    // Getters and setters
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getJobName() {
+        return jobName;
+    }
+
+    public void setJobName(String jobName) {
+        this.jobName = jobName;
+    }
+
+    public RunStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(RunStatus status) {
+        this.status = status;
+    }
+
+    public String getNode() {
+        return node;
+    }
+
+    public void setNode(String node) {
+        this.node = node;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getAttemptStartedAt() {
+        return attemptStartedAt;
+    }
+
+    public void setAttemptStartedAt(LocalDateTime attemptStartedAt) {
+        this.attemptStartedAt = attemptStartedAt;
+    }
+
+    public LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public void setFinishedAt(LocalDateTime finishedAt) {
+        this.finishedAt = finishedAt;
+    }
+
+    public Long getDurationMillis() {
+        return durationMillis;
+    }
+
+    public void setDurationMillis(Long durationMillis) {
+        this.durationMillis = durationMillis;
+    }
+
+    public Long getCheckpointStudentId() {
+        return checkpointStudentId;
+    }
+
+    public void setCheckpointStudentId(Long checkpointStudentId) {
+        this.checkpointStudentId = checkpointStudentId;
+    }
+
+    public Long getCheckpointCourseId() {
+        return checkpointCourseId;
+    }
+
+    public void setCheckpointCourseId(Long checkpointCourseId) {
+        this.checkpointCourseId = checkpointCourseId;
+    }
+
+    public int getRecordsProcessed() {
+        return recordsProcessed;
+    }
+
+    public void setRecordsProcessed(int recordsProcessed) {
+        this.recordsProcessed = recordsProcessed;
+    }
+
+    public int getNotificationsQueued() {
+        return notificationsQueued;
+    }
+
+    public void setNotificationsQueued(int notificationsQueued) {
+        this.notificationsQueued = notificationsQueued;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -1,7 +1,11 @@
 package com.cms.filter;
 
+import com.cms.enums.UserRole;
+import com.cms.service.jwt.CmsUserDetails;
+import com.cms.service.jwt.TokenRevocationService;
 import com.cms.service.jwt.UserDetailsServiceImpl;
 import com.cms.utils.JwtUtil;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,7 +13,9 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
@@ -17,6 +23,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
 
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
@@ -29,6 +36,13 @@ public class JwtAuthFilter extends OncePerRequestFilter {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    // Authenticate self-contained tokens from their claims instead of loading the user
+    @Value("${jwt.stateless:true}")
+    private boolean stateless;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
@@ -61,25 +75,46 @@ public class JwtAuthFilter extends OncePerRequestFilter {
         }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
-
-            // Validate token including credential version check
-            if (jwtUtil.validateToken(jwt, userDetails)) {
-                UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+            Claims claims = jwtUtil.extractClaims(jwt);
+            if (stateless && jwtUtil.isSelfContained(claims) && tokenRevocationService.isLoaded()) {
+                // Signature and expiry are already verified; only revocation is left to check
+                Long userId = ((Number) claims.get(JwtUtil.CLAIM_USER_ID)).longValue();
+                long credentialVersion = ((Number) claims.get(JwtUtil.CLAIM_CREDENTIAL_VERSION)).longValue();
+                if (tokenRevocationService.isRevoked(userId, credentialVersion)) {
+                    logger.warn("Revoked JWT token for user: {}", username);
+                    response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid JWT token or credentials have changed.");
+                    return;
+                }
+                UserRole role = UserRole.valueOf(claims.get(JwtUtil.CLAIM_ROLE).toString());
+                UserDetails userDetails = new CmsUserDetails(userId, username, "",
+                        Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name())), credentialVersion);
+                authenticate(request, userDetails);
                 logger.info("Authentication successful for user: {}", username);
             } else {
-                logger.warn("Invalid JWT token for user: {}", username);
-                response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid JWT token or credentials have changed.");
-                return;
+                UserDetails userDetails = this.userDetailsService.loadUserForToken(username);
+
+                // Validate token including credential version check
+                if (jwtUtil.validateToken(jwt, userDetails)) {
+                    authenticate(request, userDetails);
+                    logger.info("Authentication successful for user: {}", username);
+                } else {
+                    logger.warn("Invalid JWT token for user: {}", username);
+                    response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Invalid JWT token or credentials have changed.");
+                    return;
+                }
             }
         }
 
         chain.doFilter(request, response);
     }
     
+    private void authenticate(HttpServletRequest request, UserDetails userDetails) {
+        UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
+                userDetails, null, userDetails.getAuthorities());
+        authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        SecurityContextHolder.getContext().setAuthentication(authToken);
+    }
+
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
         String path = request.getRequestURI();
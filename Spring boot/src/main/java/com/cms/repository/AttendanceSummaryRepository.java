@@ -0,0 +1,51 @@
+package com.cms.repository;
+
+import com.cms.entities.AttendanceSummary;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AttendanceSummaryRepository extends JpaRepository<AttendanceSummary, Long> {
+
+    // Latest percentage per course for one student: student id, name, dno, course id, code, title, semester, faculty id, name, percentage
+    @Query("SELECT st.id, st.name, st.dno, c.id, c.code, c.title, c.semesterNo, f.id, f.name, s.attendancePercentage " +
+           "FROM AttendanceSummary s JOIN Student st ON st.id = s.studentId JOIN Course c ON c.id = s.courseId " +
+           "JOIN Faculty f ON f.id = s.facultyId " +
+           "WHERE s.studentId = :studentId AND (:semesterNo IS NULL OR c.semesterNo = :semesterNo) ORDER BY c.id")
+    List<Object[]> findCoursePercentagesByStudentId(@Param("studentId") Long studentId, @Param("semesterNo") Integer semesterNo);
+
+    // Latest records below the threshold in (student, course) order after a keyset position, reachable students only:
+    // student id, name, email, course id, code, title, faculty name, percentage
+    @Query("SELECT st.id, st.name, u.email, c.id, c.code, c.title, f.name, s.attendancePercentage " +
+           "FROM AttendanceSummary s JOIN Student st ON st.id = s.studentId JOIN st.user u " +
+           "JOIN Course c ON c.id = s.courseId JOIN Faculty f ON f.id = s.facultyId " +
+           "WHERE s.attendancePercentage < :threshold AND u.email IS NOT NULL " +
+           "AND (s.studentId > :afterStudentId OR (s.studentId = :afterStudentId AND s.courseId > :afterCourseId)) " +
+           "ORDER BY s.studentId, s.courseId")
+    List<Object[]> findBelowThresholdAfter(@Param("threshold") double threshold,
+                                           @Param("afterStudentId") Long afterStudentId,
+                                           @Param("afterCourseId") Long afterCourseId,
+                                           Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM AttendanceSummary s WHERE s.studentId = :studentId")
+    int deleteByStudentId(@Param("studentId") Long studentId);
+
+    @Modifying
+    @Query("DELETE FROM AttendanceSummary s WHERE s.courseId = :courseId")
+    int deleteByCourseId(@Param("courseId") Long courseId);
+
+    @Modifying
+    @Query("DELETE FROM AttendanceSummary s WHERE s.facultyId = :facultyId")
+    int deleteByFacultyId(@Param("facultyId") Long facultyId);
+
+    @Modifying
+    @Query("DELETE FROM AttendanceSummary s WHERE s.batchName = :batchName")
+    int deleteByBatchName(@Param("batchName") String batchName);
+}
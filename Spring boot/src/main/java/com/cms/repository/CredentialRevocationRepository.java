@@ -0,0 +1,26 @@
+package com.cms.repository;
+
+import com.cms.entities.CredentialRevocation;
+
+import jakarta.transaction.Transactional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CredentialRevocationRepository extends JpaRepository<CredentialRevocation, Long> {
+
+    @Query("SELECT r.userId, r.minVersion, r.revokedAt FROM CredentialRevocation r WHERE r.revokedAt > :since")
+    List<Object[]> findRevokedSince(@Param("since") LocalDateTime since);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM CredentialRevocation r WHERE r.revokedAt <= :before")
+    int deleteRevokedBefore(@Param("before") LocalDateTime before);
+}
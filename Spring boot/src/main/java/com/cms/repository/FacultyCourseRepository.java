@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -14,11 +15,18 @@ public interface FacultyCourseRepository extends JpaRepository<FacultyCourse, Lo
     Optional<FacultyCourse> findByFacultyIdAndCourseIdAndBatchId(Long facultyId, Long courseId, Long batchId);
 
     List<FacultyCourse> findByFacultyId(Long facultyId);
+
+    // All teaching assignments of a department, used by department-wide timetable generation
+    List<FacultyCourse> findByFacultyDepartment(String department);
     
  // In FacultyCourseRepository.java:
 
  // Add this method:
  List<FacultyCourse> findAllByFacultyIdAndCourseId(Long facultyId, Long courseId);
+
+    // Which of the given courses the faculty is assigned to, checked once per upload
+    @Query("SELECT DISTINCT fc.course.id FROM FacultyCourse fc WHERE fc.faculty.id = :facultyId AND fc.course.id IN :courseIds")
+    List<Long> findAssignedCourseIds(@Param("facultyId") Long facultyId, @Param("courseIds") Collection<Long> courseIds);
     
     // Update to return the count of deleted entries
     @Modifying
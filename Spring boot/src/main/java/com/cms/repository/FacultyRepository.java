@@ -24,4 +24,8 @@ public interface FacultyRepository extends JpaRepository<Faculty, Long> {
 	
 	 // Add this method to find faculty by department
     List<Faculty> findByDepartment(String department);
+
+    // Columns shown in the substitute search (id, name, department, designation, email), without loading entities
+    @Query("SELECT f.id, f.name, f.department, f.designation, u.email FROM Faculty f LEFT JOIN f.user u ORDER BY f.id")
+    List<Object[]> findAvailabilityRows();
 }
@@ -0,0 +1,13 @@
+package com.cms.repository;
+
+import com.cms.entities.JobRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface JobRunRepository extends JpaRepository<JobRun, Long> {
+
+    Optional<JobRun> findFirstByJobNameOrderByIdDesc(String jobName);
+}
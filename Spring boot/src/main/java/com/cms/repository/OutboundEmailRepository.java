@@ -0,0 +1,57 @@
+package com.cms.repository;
+
+import com.cms.entities.OutboundEmail;
+import com.cms.entities.OutboundEmail.MailStatus;
+
+import jakarta.transaction.Transactional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboundEmailRepository extends JpaRepository<OutboundEmail, Long> {
+
+    @Query("SELECT e.id FROM OutboundEmail e WHERE e.status = com.cms.entities.OutboundEmail.MailStatus.PENDING " +
+           "AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt")
+    List<Long> findDueIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Moves a due PENDING row to SENDING; only one worker on one node can win the update
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundEmail e SET e.status = com.cms.entities.OutboundEmail.MailStatus.SENDING, e.claimedAt = :now " +
+           "WHERE e.id = :id AND e.status = com.cms.entities.OutboundEmail.MailStatus.PENDING AND e.nextAttemptAt <= :now")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundEmail e SET e.status = com.cms.entities.OutboundEmail.MailStatus.SENT, e.sentAt = :now, " +
+           "e.attempts = e.attempts + 1, e.lastError = NULL WHERE e.id IN :ids")
+    int markAllSent(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundEmail e SET e.status = :status, e.attempts = e.attempts + 1, e.nextAttemptAt = :nextAttemptAt, " +
+           "e.lastError = :error WHERE e.id = :id")
+    int markFailed(@Param("id") Long id, @Param("status") MailStatus status,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt, @Param("error") String error);
+
+    // Rows whose worker died mid-send become deliverable again
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboundEmail e SET e.status = com.cms.entities.OutboundEmail.MailStatus.PENDING " +
+           "WHERE e.status = com.cms.entities.OutboundEmail.MailStatus.SENDING AND e.claimedAt < :before")
+    int releaseStale(@Param("before") LocalDateTime before);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM OutboundEmail e WHERE e.status = com.cms.entities.OutboundEmail.MailStatus.SENT AND e.sentAt < :before")
+    int deleteSentBefore(@Param("before") LocalDateTime before);
+}
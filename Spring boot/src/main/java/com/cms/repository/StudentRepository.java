@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +21,10 @@ public interface StudentRepository extends JpaRepository<Student, Long> {
     @Query("SELECT s FROM Student s LEFT JOIN FETCH s.user")
     List<Student> findAllWithUsers();
 
+    // Bulk lookup for attendance uploads; users are fetched too because low-attendance mails need them
+    @Query("SELECT s FROM Student s LEFT JOIN FETCH s.user WHERE s.id IN :ids")
+    List<Student> findAllWithUsersByIdIn(@Param("ids") Collection<Long> ids);
+
     List<Student> findByNameContainingIgnoreCase(String name);
 
     Optional<Student> findByUser(User user);
@@ -28,6 +28,12 @@ public interface SubstituteRequestRepository extends JpaRepository<SubstituteReq
     @Query("SELECT sr FROM SubstituteRequest sr WHERE sr.substitute.id = :facultyId AND sr.requestDate = :date")
     List<SubstituteRequest> findBySubstituteIdAndDate(@Param("facultyId") Long facultyId, @Param("date") LocalDate date);
     
+    // Faculty already approved as substitute for the period on the date
+    @Query("SELECT DISTINCT sr.substitute.id FROM SubstituteRequest sr JOIN sr.timetableEntry te JOIN te.timeSlot ts " +
+           "WHERE sr.requestDate = :date AND ts.periodNumber = :periodNumber " +
+           "AND sr.status = com.cms.entities.SubstituteRequest.RequestStatus.APPROVED")
+    List<Long> findApprovedSubstituteIds(@Param("date") LocalDate date, @Param("periodNumber") Integer periodNumber);
+
     @Query("SELECT sr FROM SubstituteRequest sr WHERE sr.requester.id = :facultyId AND sr.requestDate = :date")
     List<SubstituteRequest> findByRequesterIdAndDate(@Param("facultyId") Long facultyId, @Param("date") LocalDate date);
 
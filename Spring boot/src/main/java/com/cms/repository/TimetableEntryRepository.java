@@ -12,6 +12,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.DayOfWeek;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -46,6 +47,11 @@ public interface TimetableEntryRepository extends JpaRepository<TimetableEntry,
     @Transactional
     @Query("DELETE FROM TimetableEntry te WHERE te.faculty.id = :facultyId")
     int deleteByFacultyId(@Param("facultyId") Long facultyId);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TimetableEntry te WHERE te.faculty.id IN :facultyIds")
+    int deleteByFacultyIdIn(@Param("facultyIds") Collection<Long> facultyIds);
     
     // Delete timetable entries based on course ID
     @Modifying
@@ -91,6 +97,26 @@ public interface TimetableEntryRepository extends JpaRepository<TimetableEntry,
     // Find all entries for a specific course
     List<TimetableEntry> findByCourseId(Long courseId);
     
+    // Faculty with a regular class in the given slot
+    @Query("SELECT DISTINCT te.faculty.id FROM TimetableEntry te JOIN te.timeSlot ts WHERE ts.day = :day AND ts.periodNumber = :periodNumber AND ts.isBreak = false")
+    List<Long> findFacultyIdsBusyAt(@Param("day") DayOfWeek day, @Param("periodNumber") Integer periodNumber);
+
+    // Faculty teaching any course of the batch
+    @Query("SELECT DISTINCT te.faculty.id FROM TimetableEntry te WHERE te.batch.id = :batchId")
+    List<Long> findFacultyIdsByBatchId(@Param("batchId") Long batchId);
+
+    // Slot occupancy (faculty id, batch id, course id, day, period) of every other faculty, used to seed the in-memory grid
+    @Query("SELECT te.faculty.id, te.batch.id, te.course.id, ts.day, ts.periodNumber FROM TimetableEntry te JOIN te.timeSlot ts WHERE te.faculty.id <> :facultyId AND ts.isBreak = false")
+    List<Object[]> findSlotOccupancyExcludingFaculty(@Param("facultyId") Long facultyId);
+
+    // Same projection for a whole scheduling run that regenerates several faculty at once
+    @Query("SELECT te.faculty.id, te.batch.id, te.course.id, ts.day, ts.periodNumber FROM TimetableEntry te JOIN te.timeSlot ts WHERE te.faculty.id NOT IN :facultyIds AND ts.isBreak = false")
+    List<Object[]> findSlotOccupancyExcludingFaculties(@Param("facultyIds") Collection<Long> facultyIds);
+
+    // Same projection for the current timetable of one faculty
+    @Query("SELECT te.faculty.id, te.batch.id, te.course.id, ts.day, ts.periodNumber FROM TimetableEntry te JOIN te.timeSlot ts WHERE te.faculty.id = :facultyId AND ts.isBreak = false")
+    List<Object[]> findSlotOccupancyByFacultyId(@Param("facultyId") Long facultyId);
+
     // Find all entries with faculty conflicts (same faculty, day, period)
     @Query("SELECT te FROM TimetableEntry te JOIN te.timeSlot ts WHERE te.faculty.id = :facultyId AND ts.day = :day AND ts.periodNumber = :periodNumber GROUP BY ts.id HAVING COUNT(te) > 1")
     List<TimetableEntry> findFacultyConflicts(@Param("facultyId") Long facultyId, @Param("day") DayOfWeek day, @Param("periodNumber") Integer periodNumber);
@@ -1,6 +1,8 @@
 package com.cms.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.cms.entities.User;
@@ -19,4 +21,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
   
 	Optional<User> findFirstByEmail(String email);
 
+    // Login data only, without the student and faculty associations: id, email, password, role, credential version
+    @Query("SELECT u.id, u.email, u.password, u.userRole, u.credentialVersion FROM User u WHERE u.email = :email ORDER BY u.id")
+    List<Object[]> findCredentialsByEmail(@Param("email") String email);
+
 }
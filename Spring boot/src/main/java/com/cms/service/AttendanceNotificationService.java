@@ -0,0 +1,197 @@
+package com.cms.service;
+
+import com.cms.service.mail.MailQueueService;
+import com.cms.service.mail.MailTemplate;
+import com.cms.service.mail.MailTemplateService;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Low-attendance alerts.
+ * Notices are rendered and written to the durable mail queue before enqueue returns, so a caller
+ * that checkpoints afterwards never skips an alert; the mail workers deliver them from there.
+ * Inside a transaction the queued rows commit with it, so a rolled back upload sends nothing.
+ */
+@Service
+public class AttendanceNotificationService {
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceNotificationService.class);
+
+    @Autowired
+    private EmailService emailService;
+
+    @Autowired
+    private MailQueueService mailQueueService;
+
+    @Autowired
+    private MailTemplateService mailTemplateService;
+
+    @Value("${attendance.threshold:75.0}")
+    private double attendanceThreshold;
+
+    @Value("${spring.mail.enabled:true}")
+    private boolean mailEnabled;
+
+    private final AtomicInteger runCounter = new AtomicInteger();
+
+    private volatile NotificationRun lastRun;
+
+    /**
+     * Write notices to the mail queue and return the run that counted them.
+     * A notice that cannot be rendered is counted as failed; a queue write that fails is rethrown.
+     */
+    public NotificationRun enqueue(List<LowAttendanceNotice> notices) {
+        NotificationRun run = new NotificationRun(runCounter.incrementAndGet(), notices.size());
+        if (notices.isEmpty()) {
+            return run;
+        }
+        if (!mailEnabled) {
+            logger.warn("Email sending is disabled, {} attendance notifications dropped", notices.size());
+            return run;
+        }
+        lastRun = run;
+        run.startedNanos = System.nanoTime();
+
+        // One template lookup per call; each notice only fills in its variables
+        MailTemplate template = mailTemplateService.get("low-attendance");
+        Map<String, Object> variables = new HashMap<>();
+        variables.put("threshold", attendanceThreshold);
+        for (LowAttendanceNotice notice : notices) {
+            MimeMessage message;
+            try {
+                variables.put("studentName", notice.getStudentName());
+                variables.put("courseCode", notice.getCourseCode());
+                variables.put("courseTitle", notice.getCourseTitle());
+                variables.put("facultyName", notice.getFacultyName());
+                variables.put("percentage", notice.getPercentage());
+
+                message = emailService.createMimeMessage();
+                MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+                helper.setTo(notice.getEmail());
+                helper.setSubject("Low Attendance Alert - " + notice.getCourseCode());
+                template.renderInto(helper, variables);
+            } catch (Exception e) {
+                run.failed.incrementAndGet();
+                logger.warn("Could not build attendance notification for {}: {}", notice.getEmail(), e.getMessage());
+                continue;
+            }
+            mailQueueService.enqueue(message);
+            run.stored.incrementAndGet();
+        }
+        run.finishedNanos = System.nanoTime();
+        logger.info("Attendance notification run {}: {} stored in the mail queue, {} failed in {} ms ({} msg/s stored)",
+                run.getRunId(), run.getStored(), run.getFailed(), run.getElapsedMillis(),
+                String.format("%.1f", run.getStoredPerSecond()));
+        return run;
+    }
+
+    /**
+     * The most recently started run, or null before the first one
+     */
+    public NotificationRun getLastRun() {
+        return lastRun;
+    }
+
+    /**
+     * Everything one alert needs, copied out of the entities so sending never touches the session
+     */
+    public static class LowAttendanceNotice {
+        private final String email;
+        private final String studentName;
+        private final String courseCode;
+        private final String courseTitle;
+        private final String facultyName;
+        private final double percentage;
+
+        public LowAttendanceNotice(String email, String studentName, String courseCode, String courseTitle,
+                                   String facultyName, double percentage) {
+            this.email = email;
+            this.studentName = studentName;
+            this.courseCode = courseCode;
+            this.courseTitle = courseTitle;
+            this.facultyName = facultyName;
+            this.percentage = percentage;
+        }
+
+        public String getEmail() {
+            return email;
+        }
+
+        public String getStudentName() {
+            return studentName;
+        }
+
+        public String getCourseCode() {
+            return courseCode;
+        }
+
+        public String getCourseTitle() {
+            return courseTitle;
+        }
+
+        public String getFacultyName() {
+            return facultyName;
+        }
+
+        public double getPercentage() {
+            return percentage;
+        }
+    }
+
+    /**
+     * Outcome of one enqueue call; delivery itself is tracked by the mail queue
+     */
+    public static class NotificationRun {
+        private final int runId;
+        private final int queued;
+        private final AtomicInteger stored = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile long startedNanos;
+        private volatile long finishedNanos;
+
+        private NotificationRun(int runId, int queued) {
+            this.runId = runId;
+            this.queued = queued;
+        }
+
+        public int getRunId() {
+            return runId;
+        }
+
+        public int getQueued() {
+            return queued;
+        }
+
+        // Notices written to the outbound mail queue
+        public int getStored() {
+            return stored.get();
+        }
+
+        // Notices that could not be rendered into a message
+        public int getFailed() {
+            return failed.get();
+        }
+
+        public long getElapsedMillis() {
+            if (startedNanos == 0) {
+                return 0;
+            }
+            long end = finishedNanos != 0 ? finishedNanos : System.nanoTime();
+            return (end - startedNanos) / 1_000_000;
+        }
+
+        public double getStoredPerSecond() {
+            long elapsed = getElapsedMillis();
+            return elapsed == 0 ? 0 : getStored() * 1000.0 / elapsed;
+        }
+    }
+}
@@ -2,23 +2,25 @@ package com.cms.service;
 
 import com.cms.dto.AttendanceDTO;
 import com.cms.dto.AttendancePercentageDTO;
+import com.cms.dto.AttendanceRowResultDTO;
+import com.cms.dto.AttendanceUploadReportDTO;
 import com.cms.entities.*;
 import com.cms.repository.*;
+import com.cms.service.attendance.AttendanceWriter;
+import com.cms.service.excel.ExcelRow;
+import com.cms.service.excel.ExcelRowReader;
+import com.cms.service.excel.StreamingSheetWriter;
 
-import jakarta.mail.internet.MimeMessage;
 
-import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.MimeMessageHelper;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.SimpleDateFormat;
@@ -27,6 +29,11 @@ import java.util.stream.Collectors;
 
 @Service
 public class AttendanceService {
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceService.class);
+
+    private static final String ROW_ACCEPTED = "ACCEPTED";
+    private static final String ROW_REJECTED = "REJECTED";
+    private static final String ROW_SKIPPED = "SKIPPED";
 
     @Autowired
     private AttendanceRepository attendanceRepository;
@@ -46,20 +53,31 @@ public class AttendanceService {
     @Autowired
     private FacultyCourseRepository facultyCourseRepository;
     
-    @Autowired
-    private EmailService emailService;
-    
     @Autowired
     private UserRepository userRepository;
+
+    @Autowired
+    private AttendanceWriter attendanceWriter;
+
+    @Autowired
+    private AttendanceSummaryService attendanceSummaryService;
+
+    @Autowired
+    private AttendanceNotificationService attendanceNotificationService;
     
     @Value("${attendance.threshold:75.0}")
     private double attendanceThreshold;
 
+    // Rows an Excel export keeps in memory before flushing to its temp file
+    @Value("${attendance.export.row-window:100}")
+    private int exportRowWindow;
+
     /**
-     * Generate an Excel template for attendance recording
+     * Generate an Excel template for attendance recording.
+     * Lookups and validation run immediately; the returned body writes the workbook when the response is sent.
      */
-    public ByteArrayInputStream generateAttendanceTemplate(Long facultyId, Long courseId, String batchName, 
-                                                          String department, String section) throws IOException {
+    public StreamingResponseBody generateAttendanceTemplate(Long facultyId, Long courseId, String batchName, 
+                                                           String department, String section) {
         // Validate faculty, course, and batch
         Faculty faculty = facultyRepository.findById(facultyId)
                 .orElseThrow(() -> new RuntimeException("Faculty not found"));
@@ -99,162 +117,169 @@ public class AttendanceService {
             }
         }
 
-        // Create workbook and sheet
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Attendance");
-
-        // Create header row
-        Row headerRow = sheet.createRow(0);
-        headerRow.createCell(0).setCellValue("Student ID");
-        headerRow.createCell(1).setCellValue("Student Name");
-        headerRow.createCell(2).setCellValue("Student Roll No");
-        headerRow.createCell(3).setCellValue("Course ID");
-        headerRow.createCell(4).setCellValue("Course Code");
-        headerRow.createCell(5).setCellValue("Batch");
-        headerRow.createCell(6).setCellValue("Semester No");
-        headerRow.createCell(7).setCellValue("Total Periods");
-        headerRow.createCell(8).setCellValue("Periods Attended");
-        headerRow.createCell(9).setCellValue("Date (YYYY-MM-DD)");
-        headerRow.createCell(10).setCellValue("Department");
-        headerRow.createCell(11).setCellValue("Section");
-
-        // Fill student data
-        int rowNum = 1;
-        for (Student student : students) {
-            Row row = sheet.createRow(rowNum++);
-            row.createCell(0).setCellValue(student.getId());
-            row.createCell(1).setCellValue(student.getName());
-            row.createCell(2).setCellValue(student.getDno());
-            row.createCell(3).setCellValue(course.getId());
-            row.createCell(4).setCellValue(course.getCode());
-            row.createCell(5).setCellValue(batchName);
-            row.createCell(6).setCellValue(course.getSemesterNo());
-            row.createCell(7).setCellValue(""); // Total periods to be filled by faculty
-            row.createCell(8).setCellValue(""); // Periods attended to be filled by faculty
-            
-            // Set current date as default
-            SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
-            row.createCell(9).setCellValue(dateFormat.format(new Date()));
-            
-            // Add department and section
-            row.createCell(10).setCellValue(student.getDepartment());
-            row.createCell(11).setCellValue(student.getSection() != null ? student.getSection() : "");
-        }
-
-        // Auto-size columns
-        for (int i = 0; i < 12; i++) {
-            sheet.autoSizeColumn(i);
-        }
-
-        // Write to output stream
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        workbook.write(outputStream);
-        workbook.close();
-
-        return new ByteArrayInputStream(outputStream.toByteArray());
+        // Rows are written to the response as the workbook is streamed out
+        String[] columns = {"Student ID", "Student Name", "Student Roll No", "Course ID", "Course Code", "Batch",
+                           "Semester No", "Total Periods", "Periods Attended", "Date (YYYY-MM-DD)", "Department", "Section"};
+        // Current date as default
+        String today = new SimpleDateFormat("yyyy-MM-dd").format(new Date());
+        List<Student> templateStudents = students;
+
+        return out -> {
+            try (StreamingSheetWriter writer = new StreamingSheetWriter("Attendance", columns, false, exportRowWindow)) {
+                for (Student student : templateStudents) {
+                    writer.addRow(
+                        student.getId(),
+                        student.getName(),
+                        student.getDno(),
+                        course.getId(),
+                        course.getCode(),
+                        batchName,
+                        course.getSemesterNo(),
+                        "", // Total periods to be filled by faculty
+                        "", // Periods attended to be filled by faculty
+                        today,
+                        student.getDepartment(),
+                        student.getSection() != null ? student.getSection() : "");
+                }
+                writer.writeTo(out);
+            }
+        };
     }
 
     /**
-     * Process attendance data from uploaded Excel file
+     * Process attendance data from uploaded Excel file.
+     * All-or-nothing: the first row that refers to an unknown student or course, or to a course the
+     * faculty does not teach, fails the whole upload.
      */
     @Transactional
     public List<AttendanceDTO> processAttendanceFromExcel(Long facultyId, String department, 
                                                          String section, MultipartFile file) throws IOException {
-        Faculty faculty = facultyRepository.findById(facultyId)
-                .orElseThrow(() -> new RuntimeException("Faculty not found"));
+        return ingestAttendance(facultyId, department, section, file, true).getAccepted();
+    }
 
-        List<Attendance> attendanceList = new ArrayList<>();
+    /**
+     * Import attendance from an uploaded Excel file, keeping every valid row and reporting
+     * for each spreadsheet row whether it was accepted, rejected or skipped and why
+     */
+    @Transactional
+    public AttendanceUploadReportDTO importAttendanceFromExcel(Long facultyId, String department,
+                                                               String section, MultipartFile file) throws IOException {
+        return ingestAttendance(facultyId, department, section, file, false);
+    }
 
-        try (InputStream is = file.getInputStream();
-             Workbook workbook = new XSSFWorkbook(is)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            Iterator<Row> rows = sheet.iterator();
+    private AttendanceUploadReportDTO ingestAttendance(Long facultyId, String department, String section,
+                                                       MultipartFile file, boolean failOnRejectedRow) throws IOException {
+        Faculty faculty = facultyRepository.findById(facultyId)
+                .orElseThrow(() -> new RuntimeException("Faculty not found"));
 
-            // Skip header row
-            if (rows.hasNext()) {
-                rows.next();
-            }
+        // Read the whole sheet first so every referenced id is known before touching the database
+        List<AttendanceRow> rows = new ArrayList<>();
+        Set<Long> studentIds = new HashSet<>();
+        Set<Long> courseIds = new HashSet<>();
 
-            while (rows.hasNext()) {
-                Row currentRow = rows.next();
-                
+        // Rows are streamed one at a time; the header row is skipped
+        try (InputStream is = file.getInputStream()) {
+            ExcelRowReader.read(is, 1, currentRow -> {
                 // Skip empty rows
-                if (isRowEmpty(currentRow)) {
-                    continue;
+                if (!currentRow.hasCell(0)) {
+                    return;
                 }
 
-                // Extract data from Excel
-                Long studentId = getLongCellValue(currentRow.getCell(0));
-                Long courseId = getLongCellValue(currentRow.getCell(3));
-                String batchName = getStringCellValue(currentRow.getCell(5));
-                Integer semesterNo = getIntegerCellValue(currentRow.getCell(6));
-                Integer totalPeriods = getIntegerCellValue(currentRow.getCell(7));
-                Integer periodsAttended = getIntegerCellValue(currentRow.getCell(8));
-                String date = getStringCellValue(currentRow.getCell(9));
-                String studentDepartment = getStringCellValue(currentRow.getCell(10));
-                String studentSection = getStringCellValue(currentRow.getCell(11));
-
-                // Validate required fields
-                if (studentId == null || courseId == null || batchName == null || 
-                    semesterNo == null || totalPeriods == null || periodsAttended == null) {
-                    continue; // Skip invalid rows
+                AttendanceRow row = new AttendanceRow();
+                row.rowNumber = currentRow.getRowNumber();
+                row.studentId = currentRow.getLong(0);
+                row.courseId = currentRow.getLong(3);
+                row.batchName = getStringCellValue(currentRow, 5);
+                row.semesterNo = currentRow.getInteger(6);
+                row.totalPeriods = currentRow.getInteger(7);
+                row.periodsAttended = currentRow.getInteger(8);
+                row.date = getStringCellValue(currentRow, 9);
+                row.department = getStringCellValue(currentRow, 10);
+                row.section = getStringCellValue(currentRow, 11);
+                rows.add(row);
+
+                if (row.hasRequiredFields() && row.matches(department, section)) {
+                    studentIds.add(row.studentId);
+                    courseIds.add(row.courseId);
                 }
+            });
+        }
 
-                // Apply department filter if provided
-                if (department != null && !department.isEmpty() && 
-                    !department.equalsIgnoreCase(studentDepartment)) {
-                    continue;
-                }
-                
-                // Apply section filter if provided
-                if (section != null && !section.isEmpty() && 
-                    !section.equalsIgnoreCase(studentSection)) {
-                    continue;
-                }
+        // One IN query each for students (with their users, needed for notifications), courses and assignments
+        Map<Long, Student> students = studentIds.isEmpty() ? Map.of() : studentRepository.findAllWithUsersByIdIn(studentIds)
+                .stream().collect(Collectors.toMap(Student::getId, s -> s));
+        Map<Long, Course> courses = courseIds.isEmpty() ? Map.of() : courseRepository.findAllById(courseIds)
+                .stream().collect(Collectors.toMap(Course::getId, c -> c));
+        Set<Long> assignedCourseIds = courseIds.isEmpty() ? Set.of()
+                : new HashSet<>(facultyCourseRepository.findAssignedCourseIds(facultyId, courseIds));
 
-                // Fetch entities
-                Student student = studentRepository.findById(studentId)
-                        .orElseThrow(() -> new RuntimeException("Student not found with ID: " + studentId));
-                
-                Course course = courseRepository.findById(courseId)
-                        .orElseThrow(() -> new RuntimeException("Course not found with ID: " + courseId));
-                
-                // With this:
-                List<FacultyCourse> facultyCourses = facultyCourseRepository
-                        .findAllByFacultyIdAndCourseId(facultyId, courseId);
-
-                if (facultyCourses.isEmpty()) {
-                    throw new RuntimeException("Faculty is not assigned to this course");
-                }
+        AttendanceUploadReportDTO report = new AttendanceUploadReportDTO();
+        List<Attendance> attendanceList = new ArrayList<>();
+        for (AttendanceRow row : rows) {
+            if (!row.hasRequiredFields()) {
+                report.getRows().add(row.result(ROW_SKIPPED, "Missing required fields"));
+                continue;
+            }
+            if (!row.matches(department, section)) {
+                report.getRows().add(row.result(ROW_SKIPPED, "Outside the selected department or section"));
+                continue;
+            }
 
-                // Create attendance record
-                Attendance attendance = new Attendance();
-                attendance.setStudent(student);
-                attendance.setCourse(course);
-                attendance.setFaculty(faculty);
-                attendance.setBatchName(batchName);
-                attendance.setSemesterNo(semesterNo);
-                attendance.setTotalPeriods(totalPeriods);
-                attendance.setPeriodsAttended(periodsAttended);
-                attendance.setDate(date);
-                
-                // Calculate attendance percentage
-                attendance.calculateAttendancePercentage();
-                
-                attendanceList.add(attendance);
+            Student student = students.get(row.studentId);
+            Course course = courses.get(row.courseId);
+            String rejection = null;
+            if (student == null) {
+                rejection = "Student not found with ID: " + row.studentId;
+            } else if (course == null) {
+                rejection = "Course not found with ID: " + row.courseId;
+            } else if (!assignedCourseIds.contains(row.courseId)) {
+                rejection = "Faculty is not assigned to this course";
+            } else if (row.date == null || row.date.isBlank()) {
+                rejection = "Date is required";
+            }
+            if (rejection != null) {
+                if (failOnRejectedRow) {
+                    throw new RuntimeException(rejection);
+                }
+                report.getRows().add(row.result(ROW_REJECTED, rejection));
+                continue;
             }
+
+            // Create attendance record
+            Attendance attendance = new Attendance();
+            attendance.setStudent(student);
+            attendance.setCourse(course);
+            attendance.setFaculty(faculty);
+            attendance.setBatchName(row.batchName);
+            attendance.setSemesterNo(row.semesterNo);
+            attendance.setTotalPeriods(row.totalPeriods);
+            attendance.setPeriodsAttended(row.periodsAttended);
+            attendance.setDate(row.date);
+            
+            // Calculate attendance percentage
+            attendance.calculateAttendancePercentage();
+            
+            attendanceList.add(attendance);
+            report.getRows().add(row.result(ROW_ACCEPTED, null));
         }
 
-        // Save all attendance records
-        List<Attendance> savedAttendance = attendanceRepository.saveAll(attendanceList);
+        // Write all accepted records in JDBC batches and fold them into the per-course summary
+        attendanceWriter.insertAll(attendanceList);
+        attendanceSummaryService.recordLatest(attendanceList);
         
         // Check for attendance below threshold and send notifications
-        checkAndNotifyLowAttendance(savedAttendance);
+        checkAndNotifyLowAttendance(attendanceList);
         
-        // Convert to DTOs
-        return savedAttendance.stream()
+        report.setAccepted(attendanceList.stream()
                 .map(this::convertToDTO)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+        report.setTotalRows(rows.size());
+        report.setAcceptedRows(attendanceList.size());
+        report.setRejectedRows((int) report.getRows().stream().filter(r -> ROW_REJECTED.equals(r.getStatus())).count());
+        report.setSkippedRows((int) report.getRows().stream().filter(r -> ROW_SKIPPED.equals(r.getStatus())).count());
+        logger.info("Attendance upload by faculty {}: {} rows, {} accepted, {} rejected, {} skipped", facultyId,
+                report.getTotalRows(), report.getAcceptedRows(), report.getRejectedRows(), report.getSkippedRows());
+        return report;
     }
 
     /**
@@ -297,10 +322,11 @@ public class AttendanceService {
     }
 
     /**
-     * Generate attendance report Excel for a course and batch with optional filters
+     * Generate attendance report Excel for a course and batch with optional filters.
+     * Records are loaded and filtered immediately; the returned body writes the workbook when the response is sent.
      */
-    public ByteArrayInputStream generateAttendanceReport(Long facultyId, Long courseId, 
-                                                       String batchName, String department, String section) throws IOException {
+    public StreamingResponseBody generateAttendanceReport(Long facultyId, Long courseId, 
+                                                        String batchName, String department, String section) {
         List<Attendance> attendanceList = attendanceRepository
                 .findByFacultyIdAndCourseIdAndBatchName(facultyId, courseId, batchName);
         
@@ -340,58 +366,30 @@ public class AttendanceService {
             }
         }
 
-        // Create workbook and sheet
-        Workbook workbook = new XSSFWorkbook();
-        Sheet sheet = workbook.createSheet("Attendance Report");
-
-        // Create styles
-        CellStyle headerStyle = workbook.createCellStyle();
-        Font headerFont = workbook.createFont();
-        headerFont.setBold(true);
-        headerStyle.setFont(headerFont);
-
-        // Create header row
-        Row headerRow = sheet.createRow(0);
         String[] columns = {"Student ID", "Student Name", "Roll No", "Department", "Section", "Course Code", "Batch", 
                            "Semester", "Total Periods", "Periods Attended", "Attendance %", "Date"};
-        
-        for (int i = 0; i < columns.length; i++) {
-            Cell cell = headerRow.createCell(i);
-            cell.setCellValue(columns[i]);
-            cell.setCellStyle(headerStyle);
-        }
-
-        // Fill data rows
-        int rowNum = 1;
-        for (Attendance attendance : attendanceList) {
-            Row row = sheet.createRow(rowNum++);
-            
-            row.createCell(0).setCellValue(attendance.getStudent().getId());
-            row.createCell(1).setCellValue(attendance.getStudent().getName());
-            row.createCell(2).setCellValue(attendance.getStudent().getDno());
-            row.createCell(3).setCellValue(attendance.getStudent().getDepartment());
-            row.createCell(4).setCellValue(attendance.getStudent().getSection() != null ? 
-                                          attendance.getStudent().getSection() : "");
-            row.createCell(5).setCellValue(attendance.getCourse().getCode());
-            row.createCell(6).setCellValue(attendance.getBatchName());
-            row.createCell(7).setCellValue(attendance.getSemesterNo());
-            row.createCell(8).setCellValue(attendance.getTotalPeriods());
-            row.createCell(9).setCellValue(attendance.getPeriodsAttended());
-            row.createCell(10).setCellValue(String.format("%.2f%%", attendance.getAttendancePercentage()));
-            row.createCell(11).setCellValue(attendance.getDate());
-        }
-
-        // Auto-size columns
-        for (int i = 0; i < columns.length; i++) {
-            sheet.autoSizeColumn(i);
-        }
-
-        // Write to output stream
-        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
-        workbook.write(outputStream);
-        workbook.close();
-
-        return new ByteArrayInputStream(outputStream.toByteArray());
+        List<Attendance> reportRows = attendanceList;
+
+        return out -> {
+            try (StreamingSheetWriter writer = new StreamingSheetWriter("Attendance Report", columns, true, exportRowWindow)) {
+                for (Attendance attendance : reportRows) {
+                    writer.addRow(
+                        attendance.getStudent().getId(),
+                        attendance.getStudent().getName(),
+                        attendance.getStudent().getDno(),
+                        attendance.getStudent().getDepartment(),
+                        attendance.getStudent().getSection() != null ? attendance.getStudent().getSection() : "",
+                        attendance.getCourse().getCode(),
+                        attendance.getBatchName(),
+                        attendance.getSemesterNo(),
+                        attendance.getTotalPeriods(),
+                        attendance.getPeriodsAttended(),
+                        String.format("%.2f%%", attendance.getAttendancePercentage()),
+                        attendance.getDate());
+                }
+                writer.writeTo(out);
+            }
+        };
     }
 
     // The rest of the methods remain unchanged
@@ -409,202 +407,71 @@ public class AttendanceService {
     }
     
     /**
-     * Get attendance percentage for a student across all courses
+     * Get attendance percentage for a student across all courses, read from the attendance summary
      */
     public List<AttendancePercentageDTO> getStudentAttendancePercentageByCourses(Long studentId, Integer semesterNo) {
-        Student student = studentRepository.findById(studentId)
-                .orElseThrow(() -> new RuntimeException("Student not found"));
-        
-        // Get all courses for the student based on semester if provided
-        List<Course> courses;
-        if (semesterNo != null) {
-            courses = courseRepository.findBySemesterNo(semesterNo);
-        } else {
-            courses = courseRepository.findAll();
-        }
-        
-        List<AttendancePercentageDTO> result = new ArrayList<>();
-        
-        for (Course course : courses) {
-            // Get latest attendance record for this course
-            List<Attendance> attendanceRecords = attendanceRepository
-                    .findByStudentIdAndCourseIdOrderByDateDesc(studentId, course.getId());
-            
-            if (!attendanceRecords.isEmpty()) {
-                Attendance latestAttendance = attendanceRecords.get(0);
-                
-                AttendancePercentageDTO dto = new AttendancePercentageDTO();
-                dto.setStudentId(student.getId());
-                dto.setStudentName(student.getName());
-                dto.setStudentDno(student.getDno());
-                dto.setCourseId(course.getId());
-                dto.setCourseCode(course.getCode());
-                dto.setCourseTitle(course.getTitle());
-                dto.setFacultyId(latestAttendance.getFaculty().getId());
-                dto.setFacultyName(latestAttendance.getFaculty().getName());
-                dto.setSemesterNo(course.getSemesterNo());
-                dto.setAttendancePercentage(latestAttendance.getAttendancePercentage());
-                dto.setIsBelowThreshold(latestAttendance.getAttendancePercentage() < attendanceThreshold);
-                
-                result.add(dto);
-            }
-        }
-        
-        return result;
+        return attendanceSummaryService.getCoursePercentages(studentId, semesterNo);
     }
     
     /**
-     * Check attendance below threshold and send notifications
+     * Check attendance below threshold and queue notifications
      */
     private void checkAndNotifyLowAttendance(List<Attendance> attendanceList) {
+        List<AttendanceNotificationService.LowAttendanceNotice> notices = new ArrayList<>();
         for (Attendance attendance : attendanceList) {
             if (attendance.getAttendancePercentage() < attendanceThreshold) {
                 // Get student email from user
                 User user = attendance.getStudent().getUser();
                 if (user != null && user.getEmail() != null) {
-                    sendLowAttendanceNotification(
-                        attendance.getStudent(),
-                        attendance.getCourse(),
-                        attendance.getFaculty(),
+                    notices.add(new AttendanceNotificationService.LowAttendanceNotice(
+                        user.getEmail(),
+                        attendance.getStudent().getName(),
+                        attendance.getCourse().getCode(),
+                        attendance.getCourse().getTitle(),
+                        attendance.getFaculty().getName(),
                         attendance.getAttendancePercentage()
-                    );
+                    ));
                 }
             }
         }
+        attendanceNotificationService.enqueue(notices);
     }
     
-    /**
-     * Send notification for low attendance
-     */
-    private void sendLowAttendanceNotification(Student student, Course course, Faculty faculty, double percentage) {
-        User user = student.getUser();
-        if (user == null || user.getEmail() == null) {
-            return;
-        }
-        
-        String subject = "Low Attendance Alert - " + course.getCode();
-        String body = "<p>Dear " + student.getName() + ",</p>"
-                + "<p>This is to inform you that your attendance in <strong>" + course.getTitle() 
-                + " (" + course.getCode() + ")</strong> has fallen below the required threshold.</p>"
-                + "<p><strong>Current Attendance:</strong> " + String.format("%.2f%%", percentage) + "</p>"
-                + "<p><strong>Required Attendance:</strong> " + attendanceThreshold + "%</p>"
-                + "<p><strong>Faculty:</strong> " + faculty.getName() + "</p>"
-                + "<p>Please improve your attendance to avoid any academic penalties.</p>"
-                + "<p>Thank you.</p>"
-                + "<p>With Regards,</p>"
-                + "<p>College Management System</p>";
-        
-        try {
-            MimeMessage message = emailService.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            
-            helper.setTo(user.getEmail());
-            helper.setSubject(subject);
-            helper.setText(body, true);
-            
-            emailService.sendEmail(message);
-        } catch (Exception e) {
-            // Log error but don't stop the process
-            System.err.println("Failed to send attendance notification: " + e.getMessage());
-        }
-    }
-    
-    /**
-     * Scheduled task to check attendance and send notifications
-     * Runs daily at midnight
-     */
-    @Scheduled(cron = "0 0 0 * * ?")
-    public void scheduledAttendanceCheck() {
-        checkAttendanceBelowThresholdAndNotify();
+    // Missing cells are null so required-field checks treat them as absent
+    private String getStringCellValue(ExcelRow row, int column) {
+        return row.hasCell(column) ? row.getString(column) : null;
     }
-    
+
     /**
-     * Check all students' attendance and send notifications for those below threshold
+     * Raw values of one spreadsheet row of an attendance upload
      */
-    @Transactional(readOnly = true)
-    public Map<String, Object> checkAttendanceBelowThresholdAndNotify() {
-        List<Student> students = studentRepository.findAll();
-        int notificationsSent = 0;
-        List<Map<String, Object>> notifiedStudents = new ArrayList<>();
-        
-        for (Student student : students) {
-            List<AttendancePercentageDTO> attendancePercentages = getStudentAttendancePercentageByCourses(student.getId(), null);
-            
-            for (AttendancePercentageDTO dto : attendancePercentages) {
-                if (dto.getIsBelowThreshold()) {
-                    // Get course and faculty
-                    Course course = courseRepository.findById(dto.getCourseId())
-                            .orElseThrow(() -> new RuntimeException("Course not found"));
-                    
-                    Faculty faculty = facultyRepository.findById(dto.getFacultyId())
-                            .orElseThrow(() -> new RuntimeException("Faculty not found"));
-                    
-                    // Send notification
-                    sendLowAttendanceNotification(student, course, faculty, dto.getAttendancePercentage());
-                    notificationsSent++;
-                    
-                    Map<String, Object> notifiedInfo = new HashMap<>();
-                    notifiedInfo.put("studentId", student.getId());
-                    notifiedInfo.put("studentName", student.getName());
-                    notifiedInfo.put("courseCode", course.getCode());
-                    notifiedInfo.put("percentage", dto.getAttendancePercentage());
-                    notifiedStudents.add(notifiedInfo);
-                }
-            }
-        }
-        
-        Map<String, Object> result = new HashMap<>();
-        result.put("notificationsSent", notificationsSent);
-        result.put("notifiedStudents", notifiedStudents);
-        
-        return result;
-    }
-
-    // Helper methods for cell value extraction
-    private boolean isRowEmpty(Row row) {
-        if (row == null) {
-            return true;
-        }
-        if (row.getCell(0) == null) {
-            return true;
+    private static class AttendanceRow {
+        private int rowNumber;
+        private Long studentId;
+        private Long courseId;
+        private String batchName;
+        private Integer semesterNo;
+        private Integer totalPeriods;
+        private Integer periodsAttended;
+        private String date;
+        private String department;
+        private String section;
+
+        private boolean hasRequiredFields() {
+            return studentId != null && courseId != null && batchName != null &&
+                   semesterNo != null && totalPeriods != null && periodsAttended != null;
         }
-        return false;
-    }
-
-    private String getStringCellValue(Cell cell) {
-        if (cell == null) {
-            return null;
-        }
-        
-        DataFormatter formatter = new DataFormatter();
-        return formatter.formatCellValue(cell);
-    }
 
-    private Long getLongCellValue(Cell cell) {
-        if (cell == null) {
-            return null;
-        }
-        
-        try {
-            DataFormatter formatter = new DataFormatter();
-            String value = formatter.formatCellValue(cell);
-            return Long.parseLong(value);
-        } catch (NumberFormatException e) {
-            return null;
+        // Department and section filters of the upload request, ignored when not provided
+        private boolean matches(String departmentFilter, String sectionFilter) {
+            if (departmentFilter != null && !departmentFilter.isEmpty() && !departmentFilter.equalsIgnoreCase(department)) {
+                return false;
+            }
+            return sectionFilter == null || sectionFilter.isEmpty() || sectionFilter.equalsIgnoreCase(section);
         }
-    }
 
-    private Integer getIntegerCellValue(Cell cell) {
-        if (cell == null) {
-            return null;
-        }
-        
-        try {
-            DataFormatter formatter = new DataFormatter();
-            String value = formatter.formatCellValue(cell);
-            return Integer.parseInt(value);
-        } catch (NumberFormatException e) {
-            return null;
+        private AttendanceRowResultDTO result(String status, String reason) {
+            return new AttendanceRowResultDTO(rowNumber, studentId, courseId, status, reason);
         }
     }
 
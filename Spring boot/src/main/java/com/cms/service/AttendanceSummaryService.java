@@ -0,0 +1,166 @@
+package com.cms.service;
+
+import com.cms.dto.AttendancePercentageDTO;
+import com.cms.entities.Attendance;
+import com.cms.repository.AttendanceSummaryRepository;
+import com.cms.repository.StudentRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Maintains attendance_summary, the latest attendance record per (student, course).
+ * "Latest" means the greatest date string, with later uploads winning ties, which is the record
+ * the old per-course ORDER BY date DESC lookup returned.
+ */
+@Service
+public class AttendanceSummaryService {
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceSummaryService.class);
+
+    // Columns are assigned left to right, so attendance_date has to be compared before it is overwritten
+    private static final String UPSERT_SQL =
+            "INSERT INTO attendance_summary (student_id, course_id, faculty_id, attendance_id, batch_name, semester_no, "
+                    + "attendance_percentage, attendance_date, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) "
+                    + "ON DUPLICATE KEY UPDATE "
+                    + "faculty_id = IF(VALUES(attendance_date) >= attendance_date, VALUES(faculty_id), faculty_id), "
+                    + "attendance_id = IF(VALUES(attendance_date) >= attendance_date, VALUES(attendance_id), attendance_id), "
+                    + "batch_name = IF(VALUES(attendance_date) >= attendance_date, VALUES(batch_name), batch_name), "
+                    + "semester_no = IF(VALUES(attendance_date) >= attendance_date, VALUES(semester_no), semester_no), "
+                    + "attendance_percentage = IF(VALUES(attendance_date) >= attendance_date, VALUES(attendance_percentage), attendance_percentage), "
+                    + "updated_at = IF(VALUES(attendance_date) >= attendance_date, VALUES(updated_at), updated_at), "
+                    + "attendance_date = IF(VALUES(attendance_date) >= attendance_date, VALUES(attendance_date), attendance_date)";
+
+    // Adds the latest record of every (student, course) pair that has attendance but no summary row;
+    // MySQL only allows the target table in the FROM clause here, hence the anti-join
+    private static final String BACKFILL_SQL =
+            "INSERT INTO attendance_summary (student_id, course_id, faculty_id, attendance_id, batch_name, semester_no, "
+                    + "attendance_percentage, attendance_date, updated_at) "
+                    + "SELECT a.student_id, a.course_id, a.faculty_id, a.id, a.batch_name, a.semester_no, "
+                    + "a.attendance_percentage, a.date, NOW() FROM attendance a "
+                    + "LEFT JOIN attendance_summary s ON s.student_id = a.student_id AND s.course_id = a.course_id "
+                    + "WHERE s.id IS NULL AND a.id = (SELECT a2.id FROM attendance a2 WHERE a2.student_id = a.student_id "
+                    + "AND a2.course_id = a.course_id ORDER BY a2.date DESC, a2.id DESC LIMIT 1)";
+
+    @Autowired
+    private AttendanceSummaryRepository attendanceSummaryRepository;
+
+    @Autowired
+    private StudentRepository studentRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${attendance.threshold:75.0}")
+    private double attendanceThreshold;
+
+    @Value("${attendance.persistence.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Populate the summary once for databases that had attendance before the table existed
+     */
+    @PostConstruct
+    public void backfillIfEmpty() {
+        try {
+            Long rows = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM attendance_summary", Long.class);
+            if (rows != null && rows == 0) {
+                int added = jdbcTemplate.update(BACKFILL_SQL);
+                logger.info("Backfilled attendance summary with {} rows", added);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not backfill attendance summary: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Fold newly inserted attendance records into the summary; records need their generated ids
+     */
+    @Transactional
+    public void recordLatest(List<Attendance> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(UPSERT_SQL, records, Math.max(1, batchSize), (ps, attendance) -> {
+            ps.setLong(1, attendance.getStudent().getId());
+            ps.setLong(2, attendance.getCourse().getId());
+            ps.setLong(3, attendance.getFaculty().getId());
+            ps.setLong(4, attendance.getId());
+            ps.setString(5, attendance.getBatchName());
+            ps.setInt(6, attendance.getSemesterNo());
+            ps.setDouble(7, attendance.getAttendancePercentage());
+            ps.setString(8, attendance.getDate());
+            ps.setTimestamp(9, now);
+        });
+    }
+
+    /**
+     * Latest attendance percentage of a student in every course, optionally limited to one semester
+     */
+    @Transactional(readOnly = true)
+    public List<AttendancePercentageDTO> getCoursePercentages(Long studentId, Integer semesterNo) {
+        List<Object[]> rows = attendanceSummaryRepository.findCoursePercentagesByStudentId(studentId, semesterNo);
+        if (rows.isEmpty() && !studentRepository.existsById(studentId)) {
+            throw new RuntimeException("Student not found");
+        }
+
+        List<AttendancePercentageDTO> result = new ArrayList<>(rows.size());
+        for (Object[] row : rows) {
+            AttendancePercentageDTO dto = new AttendancePercentageDTO();
+            dto.setStudentId((Long) row[0]);
+            dto.setStudentName((String) row[1]);
+            dto.setStudentDno((String) row[2]);
+            dto.setCourseId((Long) row[3]);
+            dto.setCourseCode((String) row[4]);
+            dto.setCourseTitle((String) row[5]);
+            dto.setSemesterNo((Integer) row[6]);
+            dto.setFacultyId((Long) row[7]);
+            dto.setFacultyName((String) row[8]);
+            dto.setAttendancePercentage((Double) row[9]);
+            dto.setIsBelowThreshold((Double) row[9] < attendanceThreshold);
+            result.add(dto);
+        }
+        return result;
+    }
+
+    // Removal hooks for the bulk attendance deletes elsewhere; pairs whose latest record is gone
+    // fall back to their previous record through the backfill
+
+    @Transactional
+    public void removeStudent(Long studentId) {
+        attendanceSummaryRepository.deleteByStudentId(studentId);
+    }
+
+    @Transactional
+    public void removeCourse(Long courseId) {
+        attendanceSummaryRepository.deleteByCourseId(courseId);
+    }
+
+    /**
+     * Call after the faculty's attendance rows were deleted
+     */
+    @Transactional
+    public void removeFaculty(Long facultyId) {
+        attendanceSummaryRepository.deleteByFacultyId(facultyId);
+        jdbcTemplate.update(BACKFILL_SQL);
+    }
+
+    /**
+     * Call after the batch's attendance rows were deleted
+     */
+    @Transactional
+    public void removeBatch(String batchName) {
+        attendanceSummaryRepository.deleteByBatchName(batchName);
+        jdbcTemplate.update(BACKFILL_SQL);
+    }
+}
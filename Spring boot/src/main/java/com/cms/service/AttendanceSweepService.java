@@ -0,0 +1,242 @@
+package com.cms.service;
+
+import com.cms.dto.JobRunDTO;
+import com.cms.entities.JobRun;
+import com.cms.repository.AttendanceSummaryRepository;
+import com.cms.repository.JobRunRepository;
+import com.cms.service.job.JobLockService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Low-attendance sweep as a background job.
+ * The sweep runs on its own thread under the job_locks lease, so only one node works at a time.
+ * Records are read in (student, course) keyset order a chunk at a time and the position is saved
+ * on the job_runs row after each chunk; a run that died halfway continues from there on the next
+ * execution instead of starting over, so at most one chunk of alerts is repeated.
+ */
+@Service
+public class AttendanceSweepService {
+    private static final Logger logger = LoggerFactory.getLogger(AttendanceSweepService.class);
+
+    public static final String JOB_NAME = "attendance-sweep";
+
+    @Autowired
+    private AttendanceSummaryRepository attendanceSummaryRepository;
+
+    @Autowired
+    private JobRunRepository jobRunRepository;
+
+    @Autowired
+    private JobLockService jobLockService;
+
+    @Autowired
+    private AttendanceNotificationService attendanceNotificationService;
+
+    @Value("${attendance.threshold:75.0}")
+    private double attendanceThreshold;
+
+    @Value("${attendance.sweep.chunk-size:500}")
+    private int chunkSize;
+
+    // Renewed after every chunk, so it only has to outlast one chunk
+    @Value("${attendance.sweep.lock-lease-seconds:600}")
+    private long lockLeaseSeconds;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    private final ExecutorService sweepExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "attendance-sweep");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Nightly run; the scheduler thread only hands the sweep over to the sweep executor
+     */
+    @Scheduled(cron = "${attendance.sweep.cron:0 0 0 * * ?}")
+    public void scheduledSweep() {
+        trigger();
+    }
+
+    /**
+     * Start a sweep in the background unless this node is already running one
+     */
+    public JobRunDTO trigger() {
+        if (!running.compareAndSet(false, true)) {
+            return getLastRun();
+        }
+        try {
+            sweepExecutor.execute(() -> {
+                try {
+                    runSweep();
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+
+        JobRunDTO queued = new JobRunDTO();
+        queued.setJobName(JOB_NAME);
+        queued.setStatus("QUEUED");
+        queued.setNode(jobLockService.getNodeId());
+        return queued;
+    }
+
+    /**
+     * Status, duration and progress of the latest sweep on any node
+     */
+    public JobRunDTO getLastRun() {
+        JobRun run = jobRunRepository.findFirstByJobNameOrderByIdDesc(JOB_NAME)
+                .orElseThrow(() -> new RuntimeException("The attendance sweep has not run yet"));
+        return convertToDTO(run);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        sweepExecutor.shutdownNow();
+        sweepExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void runSweep() {
+        Duration lease = Duration.ofSeconds(lockLeaseSeconds);
+        if (!jobLockService.tryAcquire(JOB_NAME, lease)) {
+            logger.info("Attendance sweep skipped, another node holds the lock");
+            return;
+        }
+
+        JobRun run = null;
+        long start = System.nanoTime();
+        try {
+            run = startOrResume();
+            long afterStudentId = run.getCheckpointStudentId() != null ? run.getCheckpointStudentId() : 0L;
+            long afterCourseId = run.getCheckpointCourseId() != null ? run.getCheckpointCourseId() : 0L;
+            int size = Math.max(1, chunkSize);
+            long queryNanos = 0;
+
+            List<Object[]> rows;
+            do {
+                long queryStart = System.nanoTime();
+                rows = attendanceSummaryRepository.findBelowThresholdAfter(attendanceThreshold, afterStudentId,
+                        afterCourseId, PageRequest.of(0, size));
+                queryNanos += System.nanoTime() - queryStart;
+                if (rows.isEmpty()) {
+                    break;
+                }
+
+                List<AttendanceNotificationService.LowAttendanceNotice> notices = new ArrayList<>(rows.size());
+                for (Object[] row : rows) {
+                    // student id, name, email, course id, code, title, faculty name, percentage
+                    notices.add(new AttendanceNotificationService.LowAttendanceNotice(
+                            (String) row[2], (String) row[1], (String) row[4], (String) row[5], (String) row[6],
+                            (Double) row[7]));
+                }
+                // The alerts are in the mail queue before the checkpoint moves past them
+                AttendanceNotificationService.NotificationRun notificationRun = attendanceNotificationService.enqueue(notices);
+
+                Object[] last = rows.get(rows.size() - 1);
+                afterStudentId = (Long) last[0];
+                afterCourseId = (Long) last[3];
+                run.setCheckpointStudentId(afterStudentId);
+                run.setCheckpointCourseId(afterCourseId);
+                run.setRecordsProcessed(run.getRecordsProcessed() + rows.size());
+                run.setNotificationsQueued(run.getNotificationsQueued() + notificationRun.getStored());
+                run = jobRunRepository.save(run);
+
+                if (!jobLockService.extend(JOB_NAME, lease)) {
+                    throw new RuntimeException("Attendance sweep lost its lock");
+                }
+            } while (rows.size() == size);
+
+            long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+            run.setStatus(JobRun.RunStatus.COMPLETED);
+            run.setFinishedAt(LocalDateTime.now());
+            run.setDurationMillis(accumulated(run) + elapsedMillis);
+            run.setMessage(null);
+            jobRunRepository.save(run);
+            logger.info("Attendance sweep run {} completed: {} records, {} alerts queued in {} ms (query {} ms)",
+                    run.getId(), run.getRecordsProcessed(), run.getNotificationsQueued(), elapsedMillis,
+                    queryNanos / 1_000_000);
+        } catch (Exception e) {
+            logger.error("Attendance sweep failed: {}", e.getMessage(), e);
+            if (run != null) {
+                run.setStatus(JobRun.RunStatus.FAILED);
+                run.setFinishedAt(LocalDateTime.now());
+                run.setDurationMillis(accumulated(run) + (System.nanoTime() - start) / 1_000_000);
+                run.setMessage(e.getMessage());
+                jobRunRepository.save(run);
+            }
+        } finally {
+            jobLockService.release(JOB_NAME);
+        }
+    }
+
+    // Continue an unfinished run from its checkpoint, otherwise open a new one
+    private JobRun startOrResume() {
+        JobRun run = jobRunRepository.findFirstByJobNameOrderByIdDesc(JOB_NAME)
+                .filter(previous -> previous.getStatus() != JobRun.RunStatus.COMPLETED)
+                .orElse(null);
+        if (run != null) {
+            logger.info("Resuming attendance sweep run {} after student {} course {}", run.getId(),
+                    run.getCheckpointStudentId(), run.getCheckpointCourseId());
+        } else {
+            run = new JobRun();
+            run.setJobName(JOB_NAME);
+            run.setStartedAt(LocalDateTime.now());
+        }
+        run.setStatus(JobRun.RunStatus.RUNNING);
+        run.setNode(jobLockService.getNodeId());
+        run.setAttemptStartedAt(LocalDateTime.now());
+        run.setFinishedAt(null);
+        run.setAttempts(run.getAttempts() + 1);
+        return jobRunRepository.save(run);
+    }
+
+    // Working time of earlier attempts; a crashed attempt never recorded its share
+    private static long accumulated(JobRun run) {
+        return run.getDurationMillis() != null ? run.getDurationMillis() : 0L;
+    }
+
+    // Rows written before attempts were timed on their own only have the first start
+    private static LocalDateTime attemptStart(JobRun run) {
+        return run.getAttemptStartedAt() != null ? run.getAttemptStartedAt() : run.getStartedAt();
+    }
+
+    private JobRunDTO convertToDTO(JobRun run) {
+        JobRunDTO dto = new JobRunDTO();
+        dto.setJobName(run.getJobName());
+        dto.setRunId(run.getId());
+        dto.setStatus(run.getStatus().name());
+        dto.setNode(run.getNode());
+        dto.setStartedAt(run.getStartedAt());
+        dto.setFinishedAt(run.getFinishedAt());
+        dto.setDurationMillis(run.getStatus() == JobRun.RunStatus.RUNNING
+                ? accumulated(run) + Duration.between(attemptStart(run), LocalDateTime.now()).toMillis()
+                : run.getDurationMillis());
+        dto.setRecordsProcessed(run.getRecordsProcessed());
+        dto.setNotificationsQueued(run.getNotificationsQueued());
+        dto.setCheckpointStudentId(run.getCheckpointStudentId());
+        dto.setCheckpointCourseId(run.getCheckpointCourseId());
+        dto.setAttempts(run.getAttempts());
+        dto.setMessage(run.getMessage());
+        return dto;
+    }
+}
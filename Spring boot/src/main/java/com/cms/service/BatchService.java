@@ -24,6 +24,9 @@ public class BatchService {
     
     @Autowired
     private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private AttendanceSummaryService attendanceSummaryService;
     
     @Autowired
     private  FacultyCourseRepository facultyCourseRepository;
@@ -64,6 +67,7 @@ public class BatchService {
 
         // Delete related attendance records
         attendanceRepository.deleteByBatchName(batch.getBatchName());
+        attendanceSummaryService.removeBatch(batch.getBatchName());
 
         // Delete related faculty-course mappings
         facultyCourseRepository.deleteByBatchId(id);
@@ -33,6 +33,9 @@ public class CourseService {
 
     @Autowired
     private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private AttendanceSummaryService attendanceSummaryService;
     
     @Autowired
     private ExcelService excelService;
@@ -157,6 +160,7 @@ public class CourseService {
     public void deleteCourse(Long courseId) {
     	facultyCourseRepository.deleteByCourseId(courseId);
         attendanceRepository.deleteByCourseId(courseId);
+        attendanceSummaryService.removeCourse(courseId);
         timetableEntryRepository.deleteByCourseId(courseId);
         courseRepository.deleteById(courseId);
     }
@@ -5,16 +5,21 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.MailException;
-import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.MailPreparationException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 import com.cms.entities.Leave;
+import com.cms.service.mail.MailQueueService;
+import com.cms.service.mail.MailTemplateService;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 
+import java.util.HashMap;
+import java.util.Map;
+
 @Service
 public class EmailService {
     private static final Logger logger = LoggerFactory.getLogger(EmailService.class);
@@ -24,6 +29,12 @@ public class EmailService {
     
     @Autowired
     private EmailTokenService emailTokenService;
+
+    @Autowired
+    private MailQueueService mailQueueService;
+
+    @Autowired
+    private MailTemplateService mailTemplateService;
     
     @Value("${spring.mail.enabled:true}")
     private boolean mailEnabled;
@@ -62,21 +73,18 @@ public class EmailService {
             }
             helper.setSubject(subject);
             
-            String htmlBody = "<p>Dear " + approverName + ",</p>"
-                    + "<p>A leave request has been submitted by " + senderName + " with the following details:</p>"
-                    + "<p><strong>Subject:</strong> " + subject + "</p>"
-                    + "<p><strong>Reason:</strong> " + body + "</p>"
-                    + "<p><strong>Leave Period:</strong> " + fromDate + " to " + toDate + "</p>"
-                    + "<p><a href='" + approveUrl + "' style='padding: 10px; background: green; color: white; text-decoration: none;'>Approve</a>"
-                    + " &nbsp; "
-                    + "<a href='" + rejectUrl + "' style='padding: 10px; background: red; color: white; text-decoration: none;'>Reject</a></p>"
-                    + "<p>Thank you.</p>"
-                    +"<p>With Regards,</p>"
-                    +"<p>CMS.</p>";
-            
-            helper.setText(htmlBody, true);
-            mailSender.send(message);
-            logger.info("Leave approval email sent successfully to: {}", to);
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("approverName", approverName);
+            variables.put("senderName", senderName);
+            variables.put("subject", subject);
+            variables.put("reason", body);
+            variables.put("fromDate", fromDate);
+            variables.put("toDate", toDate);
+            variables.put("approveUrl", approveUrl);
+            variables.put("rejectUrl", rejectUrl);
+            mailTemplateService.get("leave-request").renderInto(helper, variables);
+            mailQueueService.enqueue(message);
+            logger.info("Leave approval email queued for: {}", to);
             return true;
         } catch (MailException | MessagingException e) {
             logger.error("Failed to send email to: {}. Error: {}", to, e.getMessage(), e);
@@ -101,17 +109,15 @@ public class EmailService {
             }
             helper.setSubject(subject);
             
-            String htmlBody = "<p>Dear " + senderName + ",</p>"
-                    + "<p>Your leave request for the period <strong>" + fromDate + " to " + toDate + "</strong> has been updated by " + approverName + ":</p>"
-                    + "<p><strong>Status:</strong> " + body + "</p>"
-                    + "<p>If you have any questions, please contact " + approverName + ".</p>"
-                    + "<p>Thank you.</p>"
-                    +"<p>With Regards,</p>"
-                    +"<p>CMS.</p>";
-            
-            helper.setText(htmlBody, true);
-            mailSender.send(message);
-            logger.info("Leave status update email sent successfully to: {}", to);
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("senderName", senderName);
+            variables.put("approverName", approverName);
+            variables.put("status", body);
+            variables.put("fromDate", fromDate);
+            variables.put("toDate", toDate);
+            mailTemplateService.get("leave-status").renderInto(helper, variables);
+            mailQueueService.enqueue(message);
+            logger.info("Leave status update email queued for: {}", to);
             return true;
         } catch (MailException | MessagingException e) {
             logger.error("Failed to send leave status update email to: {}. Error: {}", to, e.getMessage(), e);
@@ -123,13 +129,18 @@ public class EmailService {
      * Send OTP email for password change
      */
     public void sendOtpEmail(String toEmail, String otp) {
-        SimpleMailMessage message = new SimpleMailMessage();
-        message.setTo(toEmail);
-        message.setSubject("Password Change OTP");
-        message.setText("Your OTP for password change is: " + otp + 
-                        "\nThis OTP will expire in 10 minutes.");
+        MimeMessage message = mailSender.createMimeMessage();
+        try {
+            MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+            helper.setTo(toEmail);
+            helper.setSubject("Password Change OTP");
+            helper.setText("Your OTP for password change is: " + otp + 
+                           "\nThis OTP will expire in 10 minutes.");
+        } catch (MessagingException e) {
+            throw new MailPreparationException("Could not build OTP email", e);
+        }
         
-        mailSender.send(message);
+        mailQueueService.enqueue(message);
     }
     
     /**
@@ -140,7 +151,7 @@ public class EmailService {
     }
     
     /**
-     * Send an email message
+     * Queue an email message for delivery by the mail workers
      */
     public void sendEmail(MimeMessage message) {
         if (!mailEnabled) {
@@ -148,7 +159,7 @@ public class EmailService {
             return;
         }
         
-        mailSender.send(message);
+        mailQueueService.enqueue(message);
     }
 
     /**
@@ -217,30 +228,24 @@ public class EmailService {
             }
             helper.setSubject(subject);
             
-            String htmlBody = "<p>Dear " + substituteName + ",</p>"
-                    + "<p>A substitute request has been submitted by " + senderName + " with the following details:</p>"
-                    + "<p><strong>Subject:</strong> " + subject + "</p>"
-                    + "<p><strong>Details:</strong> " + body.replace("\n", "<br/>") + "</p>"
-                    + "<p><strong>Date:</strong> " + requestDate + "</p>"
-                    + "<p><strong>Time:</strong> " + periodInfo + "</p>"
-                    + "<p>Can you substitute for this class?</p>"
-                    + "<p><a href='" + approveUrl + "' style='padding: 10px; background: green; color: white; text-decoration: none;'>Accept</a>"
-                    + " &nbsp; "
-                    + "<a href='" + rejectUrl + "' style='padding: 10px; background: red; color: white; text-decoration: none;'>Decline</a></p>"
-                    + "<p>Thank you.</p>"
-                    + "<p>With Regards,</p>"
-                    + "<p>CMS.</p>";
-            
-            helper.setText(htmlBody, true);
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("substituteName", substituteName);
+            variables.put("senderName", senderName);
+            variables.put("subject", subject);
+            variables.put("detailLines", body.split("\n", -1));
+            variables.put("requestDate", requestDate);
+            variables.put("periodInfo", periodInfo);
+            variables.put("approveUrl", approveUrl);
+            variables.put("rejectUrl", rejectUrl);
+            mailTemplateService.get("substitute-request").renderInto(helper, variables);
             
             // Log before sending
             System.out.println("DEBUG: About to send email to: " + to);
             logger.info("About to send email to: {}", to);
             
             try {
-                mailSender.send(message);
-                System.out.println("DEBUG: Substitute request email sent successfully to: " + to);
-                logger.info("Substitute request email sent successfully to: {}", to);
+                mailQueueService.enqueue(message);
+                logger.info("Substitute request email queued for: {}", to);
                 return true;
             } catch (MailException e) {
                 System.out.println("DEBUG: MailException while sending email: " + e.getMessage());
@@ -305,24 +310,21 @@ public class EmailService {
             }
             helper.setSubject(subject);
             
-            String htmlBody = "<p>Dear " + requesterName + ",</p>"
-                    + "<p>Your substitute request for the class on <strong>" + requestDate + "</strong> at <strong>" + periodInfo + "</strong> has been updated:</p>"
-                    + "<p><strong>Status:</strong> " + statusInfo + "</p>"
-                    + "<p>Response from: " + substituteName + "</p>"
-                    + "<p>Thank you.</p>"
-                    + "<p>With Regards,</p>"
-                    + "<p>CMS.</p>";
-            
-            helper.setText(htmlBody, true);
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("requesterName", requesterName);
+            variables.put("substituteName", substituteName);
+            variables.put("statusInfo", statusInfo);
+            variables.put("requestDate", requestDate);
+            variables.put("periodInfo", periodInfo);
+            mailTemplateService.get("substitute-status").renderInto(helper, variables);
             
             // Log before sending
             System.out.println("DEBUG: About to send status update email to: " + to);
             logger.info("About to send status update email to: {}", to);
             
             try {
-                mailSender.send(message);
-                System.out.println("DEBUG: Substitute status update email sent successfully to: " + to);
-                logger.info("Substitute status update email sent successfully to: {}", to);
+                mailQueueService.enqueue(message);
+                logger.info("Substitute status update email queued for: {}", to);
                 return true;
             } catch (MailException e) {
                 System.out.println("DEBUG: MailException while sending status update email: " + e.getMessage());
@@ -364,18 +366,13 @@ public class EmailService {
             helper.setFrom(defaultFromEmail);
             helper.setSubject(subject);
             
-            String htmlBody = "<p>Dear " + userName + ",</p>"
-                    + "<p>You have requested to reset your password for the College Management System.</p>"
-                    + "<p>Your One-Time Password (OTP) for password reset is: <strong>" + otp + "</strong></p>"
-                    + "<p>This OTP will expire in 10 minutes.</p>"
-                    + "<p>If you did not request this password reset, please ignore this email or contact the system administrator.</p>"
-                    + "<p>Thank you.</p>"
-                    + "<p>With Regards,</p>"
-                    + "<p>College Management System</p>";
-            
-            helper.setText(htmlBody, true);
-            mailSender.send(message);
-            logger.info("OTP email sent successfully to: {}", to);
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("userName", userName);
+            variables.put("otp", otp);
+            variables.put("expiryMinutes", 10);
+            mailTemplateService.get("password-reset-otp").renderInto(helper, variables);
+            mailQueueService.enqueue(message);
+            logger.info("OTP email queued for: {}", to);
             return true;
         } catch (MailException | MessagingException e) {
             logger.error("Failed to send OTP email to: {}. Error: {}", to, e.getMessage(), e);
@@ -1,275 +1,382 @@
 package com.cms.service;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import com.cms.entities.Leave;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 
+import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.Comparator;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Tokens behind the approve/reject links in leave and substitute request emails.
+ * Leave tokens are SHA-256 digests that only exist in a bounded in-memory cache; substitute
+ * tokens are signed JWTs whose verified claims are cached until they expire. Approve and reject
+ * links of the same request share a single-use marker, so once either link was used both are
+ * refused with one map lookup instead of another signature check and database round trip.
+ */
 @Service
 public class EmailTokenService {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(EmailTokenService.class);
-    
+
     @Value("${app.token.secret:defaultSecretKey}")
     private String tokenSecret;
-    
+
     @Value("${app.token.expiry:24}")
     private int tokenExpiryHours;
-    
-    private final Map<String, TokenData> tokenCache = new HashMap<>();
 
-    private byte[] secret;
-    
-    private int expiration;
-    
+    // Upper bound for each of the token, validated-token and used-marker maps
+    @Value("${app.token.cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<String, TokenData> tokenCache = new ConcurrentHashMap<>();
+
+    // Verified substitute tokens, so a link hit repeatedly is only parsed once
+    private final Map<String, SubstituteTokenData> validatedTokens = new ConcurrentHashMap<>();
+
+    // Requests whose link was used, mapped to the time the marker can be dropped (all links expired)
+    private final Map<String, Long> usedMarkers = new ConcurrentHashMap<>();
+
+    private SecretKey signingKey;
+
+    private JwtParser parser;
+
+    private long expiration;
+
     @jakarta.annotation.PostConstruct
     public void init() {
-        System.out.println("DEBUG: Initializing EmailTokenService");
-        logger.info("Initializing EmailTokenService");
-        
-        // Initialize the secret key from the tokenSecret property
-        this.secret = tokenSecret.getBytes();
-        
+        byte[] secret = tokenSecret.getBytes(StandardCharsets.UTF_8);
+        // Built once; a key HS512 cannot use is reported here rather than on every email
+        try {
+            SecretKey key = new SecretKeySpec(secret, SignatureAlgorithm.HS512.getJcaName());
+            SignatureAlgorithm.HS512.assertValidSigningKey(key);
+            this.signingKey = key;
+            this.parser = Jwts.parserBuilder().setSigningKey(key).build();
+        } catch (Exception e) {
+            logger.error("app.token.secret is not usable for HS512, substitute email links are disabled: {}", e.getMessage());
+        }
+
         // Set expiration time in milliseconds (hours to milliseconds)
-        this.expiration = tokenExpiryHours * 60 * 60 * 1000;
-        
-        System.out.println("DEBUG: EmailTokenService initialized with secret length: " + 
-                          (secret != null ? secret.length : 0) + 
-                          ", expiration: " + expiration + " ms");
-        logger.info("EmailTokenService initialized with secret length: {}, expiration: {} ms", 
-                   (secret != null ? secret.length : 0), expiration);
+        this.expiration = tokenExpiryHours * 60L * 60 * 1000;
+
+        logger.info("EmailTokenService initialized with secret length: {}, expiration: {} ms", secret.length, expiration);
     }
-    
+
     /**
      * Generate a token for substitute request approval/rejection
      */
     public String generateSubstituteToken(Long requestId, boolean approve) {
-        System.out.println("DEBUG: Generating substitute token for requestId: " + requestId + ", approve: " + approve);
-        logger.info("Generating substitute token for requestId: {}, approve: {}", requestId, approve);
-        
-        // Ensure secret is initialized
-        if (secret == null) {
-            System.out.println("DEBUG: Secret is null, initializing from tokenSecret");
-            logger.warn("Secret key is null, initializing from tokenSecret property");
-            secret = tokenSecret.getBytes();
-            
-            if (secret == null || secret.length == 0) {
-                System.out.println("DEBUG: Failed to initialize secret key, tokenSecret is null or empty");
-                logger.error("Failed to initialize secret key, tokenSecret is null or empty");
-                return null;
-            }
-        }
-        
-        // Ensure expiration is initialized
-        if (expiration == 0) {
-            System.out.println("DEBUG: Expiration is 0, initializing from tokenExpiryHours");
-            logger.warn("Expiration is 0, initializing from tokenExpiryHours property");
-            expiration = tokenExpiryHours * 60 * 60 * 1000;
-        }
-        
+        logger.debug("Generating substitute token for requestId: {}, approve: {}", requestId, approve);
         try {
             Map<String, Object> claims = new HashMap<>();
             claims.put("type", "substitute");
             claims.put("requestId", requestId);
             claims.put("approve", approve);
-            
-            String token = createToken(claims);
-            System.out.println("DEBUG: Generated token: " + token);
-            logger.info("Generated token successfully");
-            return token;
+            return createToken(claims);
         } catch (Exception e) {
-            System.out.println("DEBUG: Error generating token: " + e.getMessage());
-            e.printStackTrace();
             logger.error("Error generating token: {}", e.getMessage(), e);
             return null;
         }
     }
-    
+
     /**
      * Validate a substitute token and return the request ID
      */
     public Long validateSubstituteToken(String token) {
-        System.out.println("DEBUG: Validating substitute token: " + token);
-        logger.info("Validating substitute token");
-        
-        try {
-            Claims claims = getAllClaimsFromToken(token);
-            
-            // Check if token is expired
-            if (claims.getExpiration().before(new Date())) {
-                System.out.println("DEBUG: Token is expired");
-                logger.warn("Token is expired");
-                return null;
-            }
-            
-            // Check if token is for substitute requests
-            String type = claims.get("type", String.class);
-            if (!"substitute".equals(type)) {
-                System.out.println("DEBUG: Token is not for substitute requests, type: " + type);
-                logger.warn("Token is not for substitute requests, type: {}", type);
-                return null;
-            }
-            
-            // Return the request ID
-            Long requestId = claims.get("requestId", Long.class);
-            System.out.println("DEBUG: Token validated successfully, requestId: " + requestId);
-            logger.info("Token validated successfully, requestId: {}", requestId);
-            return requestId;
-        } catch (Exception e) {
-            System.out.println("DEBUG: Error validating token: " + e.getMessage());
-            e.printStackTrace();
-            logger.error("Error validating token: {}", e.getMessage(), e);
+        SubstituteTokenData data = getSubstituteTokenData(token);
+        if (data == null) {
+            return null;
+        }
+        if (isUsed(substituteMarker(data.requestId))) {
+            logger.warn("Substitute request {} was already handled through an email link", data.requestId);
             return null;
         }
+        return data.requestId;
     }
-    
+
     /**
-     * Check if the token is for approval (true) or rejection (false)
+     * Validate a substitute token and mark its request as handled; inside a transaction the mark
+     * is withdrawn again if the transaction rolls back
      */
-    public Boolean isApprovalToken(String token) {
-        try {
-            Claims claims = getAllClaimsFromToken(token);
-            return claims.get("approve", Boolean.class);
-        } catch (Exception e) {
-            logger.error("Error checking if token is for approval: {}", e.getMessage(), e);
+    public Long consumeSubstituteToken(String token) {
+        SubstituteTokenData data = getSubstituteTokenData(token);
+        if (data == null) {
+            return null;
+        }
+        String marker = substituteMarker(data.requestId);
+        if (!markUsed(marker, data.expiresAt)) {
+            logger.warn("Substitute request {} was already handled through an email link", data.requestId);
             return null;
         }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        usedMarkers.remove(marker);
+                    }
+                }
+            });
+        }
+        return data.requestId;
+    }
+
+    /**
+     * Check if the token is for approval (true) or rejection (false)
+     */
+    public Boolean isApprovalToken(String token) {
+        SubstituteTokenData data = getSubstituteTokenData(token);
+        return data != null ? data.approve : null;
     }
 
     // Helper methods
     private String createToken(Map<String, Object> claims) {
-        System.out.println("DEBUG: Creating token with claims: " + claims);
-        
-        if (secret == null || secret.length == 0) {
-            System.out.println("DEBUG: Secret key is null or empty in createToken");
-            logger.error("Secret key is null or empty in createToken");
+        if (signingKey == null) {
             throw new IllegalStateException("Secret key cannot be null or empty");
         }
-        
         return Jwts.builder()
                 .setClaims(claims)
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(SignatureAlgorithm.HS512, secret)
+                .signWith(signingKey, SignatureAlgorithm.HS512)
                 .compact();
     }
 
-    private Claims getAllClaimsFromToken(String token) {
-        if (secret == null || secret.length == 0) {
-            System.out.println("DEBUG: Secret key is null or empty in getAllClaimsFromToken");
-            logger.error("Secret key is null or empty in getAllClaimsFromToken");
-            throw new IllegalStateException("Secret key cannot be null or empty");
+    // Verified claims of a substitute token, from the cache when it was seen before
+    private SubstituteTokenData getSubstituteTokenData(String token) {
+        long now = System.currentTimeMillis();
+        SubstituteTokenData cached = validatedTokens.get(token);
+        if (cached != null) {
+            if (cached.expiresAt > now) {
+                return cached;
+            }
+            validatedTokens.remove(token, cached);
+            logger.warn("Token is expired");
+            return null;
         }
-        
-        return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
-    }
 
-    private <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = getAllClaimsFromToken(token);
-        return claimsResolver.apply(claims);
+        if (parser == null) {
+            logger.error("Secret key is not initialized, cannot validate substitute token");
+            return null;
+        }
+        try {
+            // Signature and expiry are checked by the parser
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            String type = claims.get("type", String.class);
+            if (!"substitute".equals(type)) {
+                logger.warn("Token is not for substitute requests, type: {}", type);
+                return null;
+            }
+            SubstituteTokenData data = new SubstituteTokenData(claims.get("requestId", Long.class),
+                    Boolean.TRUE.equals(claims.get("approve", Boolean.class)), claims.getExpiration().getTime());
+            if (validatedTokens.size() >= Math.max(1, maxSize)) {
+                validatedTokens.values().removeIf(entry -> entry.expiresAt <= now);
+                evictEarliest(validatedTokens, entry -> entry.expiresAt);
+            }
+            validatedTokens.put(token, data);
+            return data;
+        } catch (Exception e) {
+            logger.warn("Invalid substitute token: {}", e.getMessage());
+            return null;
+        }
     }
-    
+
     public String generateToken(Long leaveId, Long approverId, Leave.LeaveStatus action) {
+        logger.debug("Generating token for leaveId: {}, approverId: {}, action: {}", leaveId, approverId, action);
+        LocalDateTime expiryTime = LocalDateTime.now().plusHours(tokenExpiryHours);
         try {
-            System.out.println("DEBUG: Generating token for leaveId: " + leaveId + ", approverId: " + approverId + ", action: " + action);
-            logger.info("Generating token for leaveId: {}, approverId: {}, action: {}", leaveId, approverId, action);
-            
-            String tokenData = leaveId + ":" + approverId + ":" + action + ":" + 
-                               LocalDateTime.now().plusHours(tokenExpiryHours) + ":" + tokenSecret;
-            
+            String tokenData = leaveId + ":" + approverId + ":" + action + ":" + expiryTime + ":" + tokenSecret;
+
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(tokenData.getBytes());
+            byte[] hash = digest.digest(tokenData.getBytes(StandardCharsets.UTF_8));
             String token = Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
-            
+
             // Store token data in cache
-            tokenCache.put(token, new TokenData(leaveId, approverId, action, 
-                                               LocalDateTime.now().plusHours(tokenExpiryHours)));
-            
-            System.out.println("DEBUG: Generated token: " + token);
-            logger.info("Generated token successfully");
+            if (tokenCache.size() >= Math.max(1, maxSize)) {
+                LocalDateTime now = LocalDateTime.now();
+                tokenCache.values().removeIf(data -> data.getExpiryTime().isBefore(now));
+                if (tokenCache.size() >= Math.max(1, maxSize)) {
+                    logger.warn("Email action token cache is full, dropping the links that expire first");
+                    evictEarliest(tokenCache, TokenData::getExpiryTime);
+                }
+            }
+            tokenCache.put(token, new TokenData(leaveId, approverId, action, expiryTime));
             return token;
         } catch (NoSuchAlgorithmException e) {
-            System.out.println("DEBUG: Error generating token: " + e.getMessage());
-            e.printStackTrace();
             logger.error("Error generating token: {}", e.getMessage(), e);
             throw new RuntimeException("Error generating token", e);
         }
     }
-    
+
     public TokenData validateToken(String token) {
-        System.out.println("DEBUG: Validating token: " + token);
-        logger.info("Validating token");
-        
         TokenData data = tokenCache.get(token);
-        
+
         if (data == null) {
-            System.out.println("DEBUG: Token not found in cache");
             logger.warn("Token not found in cache");
             return null;
         }
-        
+
         if (data.getExpiryTime().isBefore(LocalDateTime.now())) {
-            System.out.println("DEBUG: Token is expired");
             logger.warn("Token is expired");
-            tokenCache.remove(token);
+            tokenCache.remove(token, data);
             return null;
         }
-        
-        System.out.println("DEBUG: Token validated successfully");
-        logger.info("Token validated successfully");
+
+        if (isUsed(leaveMarker(data))) {
+            logger.warn("Leave {} was already handled through an email link", data.getLeaveId());
+            return null;
+        }
+
         return data;
     }
-    
+
+    /**
+     * Validate a leave token and mark its leave as handled, so a concurrent or replayed click of
+     * either link is refused; call releaseToken if the action then fails
+     */
+    public TokenData consumeToken(String token) {
+        TokenData data = validateToken(token);
+        if (data == null) {
+            return null;
+        }
+        if (!markUsed(leaveMarker(data), System.currentTimeMillis() + expiration)) {
+            logger.warn("Leave {} was already handled through an email link", data.getLeaveId());
+            return null;
+        }
+        return data;
+    }
+
+    /**
+     * Withdraw the mark set by consumeToken so the link can be tried again
+     */
+    public void releaseToken(String token) {
+        TokenData data = tokenCache.get(token);
+        if (data != null) {
+            usedMarkers.remove(leaveMarker(data));
+        }
+    }
+
     public void invalidateToken(String token) {
-        System.out.println("DEBUG: Invalidating token: " + token);
-        logger.info("Invalidating token");
-        tokenCache.remove(token);
+        TokenData data = tokenCache.remove(token);
+        if (data != null) {
+            markUsed(leaveMarker(data), System.currentTimeMillis() + expiration);
+        }
+    }
+
+    /**
+     * Drop expired tokens and markers that no live link can refer to any more
+     */
+    @Scheduled(fixedDelayString = "${app.token.cache.purge-interval-ms:600000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        LocalDateTime nowTime = LocalDateTime.now();
+        tokenCache.values().removeIf(data -> data.getExpiryTime().isBefore(nowTime));
+        validatedTokens.values().removeIf(data -> data.expiresAt <= now);
+        usedMarkers.values().removeIf(until -> until <= now);
+    }
+
+    private boolean isUsed(String marker) {
+        Long until = usedMarkers.get(marker);
+        return until != null && until > System.currentTimeMillis();
+    }
+
+    // True if this call set the marker; a marker outlives every link of its request
+    private boolean markUsed(String marker, long until) {
+        long now = System.currentTimeMillis();
+        if (usedMarkers.size() >= Math.max(1, maxSize)) {
+            usedMarkers.values().removeIf(expiry -> expiry <= now);
+        }
+        Long previous = usedMarkers.putIfAbsent(marker, until);
+        if (previous == null) {
+            return true;
+        }
+        // An expired marker can be taken over
+        return previous <= now && usedMarkers.replace(marker, previous, until);
+    }
+
+    // Remove the tenth of the entries that expire first
+    private static <V, C extends Comparable<C>> void evictEarliest(Map<String, V> map, Function<V, C> expiry) {
+        int target = Math.max(1, map.size() / 10);
+        List<Map.Entry<String, V>> entries = new ArrayList<>(map.entrySet());
+        entries.sort(Comparator.comparing(entry -> expiry.apply(entry.getValue())));
+        for (int i = 0; i < target && i < entries.size(); i++) {
+            map.remove(entries.get(i).getKey(), entries.get(i).getValue());
+        }
     }
-    
+
+    private static String leaveMarker(TokenData data) {
+        return "leave:" + data.getLeaveId() + ":" + data.getApproverId();
+    }
+
+    private static String substituteMarker(Long requestId) {
+        return "substitute:" + requestId;
+    }
+
+    private static final class SubstituteTokenData {
+        private final Long requestId;
+        private final boolean approve;
+        private final long expiresAt;
+
+        private SubstituteTokenData(Long requestId, boolean approve, long expiresAt) {
+            this.requestId = requestId;
+            this.approve = approve;
+            this.expiresAt = expiresAt;
+        }
+    }
+
     public static class TokenData {
         private final Long leaveId;
         private final Long approverId;
         private final Leave.LeaveStatus action;
         private final LocalDateTime expiryTime;
-        
+
         public TokenData(Long leaveId, Long approverId, Leave.LeaveStatus action, LocalDateTime expiryTime) {
             this.leaveId = leaveId;
             this.approverId = approverId;
             this.action = action;
             this.expiryTime = expiryTime;
         }
-        
+
         public Long getLeaveId() {
             return leaveId;
         }
-        
+
         public Long getApproverId() {
             return approverId;
         }
-        
+
         public Leave.LeaveStatus getAction() {
             return action;
         }
-        
+
         public LocalDateTime getExpiryTime() {
             return expiryTime;
         }
     }
 }
-
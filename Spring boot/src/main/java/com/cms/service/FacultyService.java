@@ -15,6 +15,7 @@ import com.cms.repository.AttendanceRepository;
 import com.cms.repository.FacultyCourseRepository;
 import com.cms.repository.TimetableEntryRepository;
 import com.cms.repository.UserRepository;
+import com.cms.service.jwt.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -37,6 +38,9 @@ public class FacultyService {
     @Autowired
     private AttendanceRepository attendanceRepository;
 
+    @Autowired
+    private AttendanceSummaryService attendanceSummaryService;
+
     
     @Autowired
     private SubstituteRequestRepository substituteRequestRepository;
@@ -52,6 +56,9 @@ public class FacultyService {
 
     @Autowired
     private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
     
     @Autowired 
     private LeaveRepository leaveRepository;
@@ -94,6 +101,8 @@ public class FacultyService {
             // Only update password if it's different
             if (!passwordEncoder.matches(request.getMobileNo(), user.getPassword())) {
                 user.setPassword(passwordEncoder.encode(request.getMobileNo()));
+                user.incrementCredentialVersion();
+                userDetailsService.credentialsChanged(user, null);
             }
             
             userRepository.save(user);
@@ -134,8 +143,16 @@ public class FacultyService {
         faculty.setMobileNo(request.getMobileNo());
 
         user.setName(request.getName());
+        String previousEmail = user.getEmail();
+        // Only a changed email or mobile number (the password) invalidates existing logins
+        boolean credentialsChanged = !request.getEmail().equals(previousEmail)
+                || !passwordEncoder.matches(request.getMobileNo(), user.getPassword());
         user.setEmail(request.getEmail());
         user.setPassword(passwordEncoder.encode(request.getMobileNo()));
+        if (credentialsChanged) {
+            user.incrementCredentialVersion();
+            userDetailsService.credentialsChanged(user, previousEmail);
+        }
 
         userRepository.save(user);
         return facultyRepository.save(faculty);
@@ -162,6 +179,7 @@ public class FacultyService {
 
         // Step 4: Delete attendance records for the faculty (NEW STEP)
         attendanceRepository.deleteByFacultyId(faculty.getId());
+        attendanceSummaryService.removeFaculty(faculty.getId());
 
         // Step 5: Delete related timetable entries
         timetableEntryRepository.deleteByFaculty(faculty);
@@ -171,6 +189,7 @@ public class FacultyService {
 
         // Step 7: Delete associated user record
         userRepository.delete(user);
+        userDetailsService.userRemoved(user);
     }
 
 
@@ -1,117 +1,82 @@
 package com.cms.service;
 
+import com.cms.service.otp.OtpStore;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.security.SecureRandom;
-import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.Duration;
 
 @Service
 public class OtpService {
 
-    // Store OTPs with expiration time (in a real application, this should be in a database or cache)
-    private final Map<String, OtpData> otpMap = new HashMap<>();
-    
+    // Key prefix for admin password reset OTPs
+    private static final String ADMIN_PASSWORD_RESET_PREFIX = "admin_pwd_reset:";
+
     // OTP expiration time in minutes
     private static final int OTP_EXPIRY_MINUTES = 1;
-    
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    // Memory or JDBC store, see otp.store
+    @Autowired
+    private OtpStore otpStore;
+
+    // Wrong codes tried before an OTP is discarded
+    @Value("${otp.max-attempts:5}")
+    private int maxAttempts;
+
     /**
      * Generate a new OTP for the given email
      */
     public String generateOtp(String email) {
-        String otp = generateRandomOtp();
-        LocalDateTime expiryTime = LocalDateTime.now().plusMinutes(OTP_EXPIRY_MINUTES);
-        otpMap.put(email, new OtpData(otp, expiryTime));
-        return otp;
+        return store(email);
     }
-    
+
     /**
      * Validate the OTP for the given email
      */
     public boolean validateOtp(String email, String otp) {
-        OtpData otpData = otpMap.get(email);
-        if (otpData == null) {
-            return false;
-        }
-        
-        // Check if OTP is expired
-        if (LocalDateTime.now().isAfter(otpData.expiryTime)) {
-            otpMap.remove(email);
-            return false;
-        }
-        
-        return otpData.otp.equals(otp);
+        return otpStore.verify(email, otp, maxAttempts, false);
     }
-    
+
     /**
      * Clear the OTP for the given email
      */
     public void clearOtp(String email) {
-        otpMap.remove(email);
+        otpStore.remove(email);
     }
-    
+
     /**
-     * Generate a random 6-digit OTP
+     * Generate a new OTP specifically for admin password reset
      */
-    private String generateRandomOtp() {
-        SecureRandom random = new SecureRandom();
-        int otp = 100000 + random.nextInt(800000); // 6-digit OTP
-        return String.valueOf(otp);
+    public String generateAdminPasswordResetOtp(String email) {
+        return store(ADMIN_PASSWORD_RESET_PREFIX + email);
     }
-    
+
     /**
-     * Inner class to store OTP data with expiration time
+     * Validate the OTP specifically for admin password reset; a valid OTP is removed to prevent reuse
      */
-    private static class OtpData {
-        private final String otp;
-        private final LocalDateTime expiryTime;
-        
-        public OtpData(String otp, LocalDateTime expiryTime) {
-            this.otp = otp;
-            this.expiryTime = expiryTime;
-        }
+    public boolean validateAdminPasswordResetOtp(String email, String otp) {
+        return otpStore.verify(ADMIN_PASSWORD_RESET_PREFIX + email, otp, maxAttempts, true);
     }
-    /**
-     * Generate a new OTP specifically for admin password reset
-     */
-    public String generateAdminPasswordResetOtp(String email) {
+
+    private String store(String key) {
         String otp = generateRandomOtp();
-        LocalDateTime expiryTime = LocalDateTime.now().plusMinutes(OTP_EXPIRY_MINUTES);
-        
-        // Use a specific key format for admin password resets
-        String key = "admin_pwd_reset:" + email;
-        otpMap.put(key, new OtpData(otp, expiryTime));
-        
+        if (!otpStore.put(key, otp, Duration.ofMinutes(OTP_EXPIRY_MINUTES))) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS, "Too many pending OTPs, please try again later");
+        }
         return otp;
     }
 
     /**
-     * Validate the OTP specifically for admin password reset
+     * Generate a random 6-digit OTP
      */
-    public boolean validateAdminPasswordResetOtp(String email, String otp) {
-        String key = "admin_pwd_reset:" + email;
-        OtpData otpData = otpMap.get(key);
-        
-        if (otpData == null) {
-            return false;
-        }
-        
-        // Check if OTP is expired
-        if (LocalDateTime.now().isAfter(otpData.expiryTime)) {
-            otpMap.remove(key);
-            return false;
-        }
-        
-        // Check if OTP matches
-        boolean isValid = otpData.otp.equals(otp);
-        
-        // If valid, remove the OTP to prevent reuse
-        if (isValid) {
-            otpMap.remove(key);
-        }
-        
-        return isValid;
+    private String generateRandomOtp() {
+        int otp = 100000 + RANDOM.nextInt(800000); // 6-digit OTP
+        return String.valueOf(otp);
     }
 }
-
@@ -8,6 +8,7 @@ import com.cms.repository.AttendanceRepository;
 import com.cms.repository.StudentLeaveRepository;
 import com.cms.repository.StudentRepository;
 import com.cms.repository.UserRepository;
+import com.cms.service.jwt.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -42,6 +43,12 @@ public class StudentService {
     
     @Autowired
     private AttendanceRepository attendanceRepository;
+
+    @Autowired
+    private AttendanceSummaryService attendanceSummaryService;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
     
     /**
      * Get student by email
@@ -131,6 +138,8 @@ public class StudentService {
                 if (student.getUser().getPassword() != null && !student.getUser().getPassword().isEmpty() && 
                     !passwordEncoder.matches(student.getUser().getPassword(), existingUser.getPassword())) {
                     existingUser.setPassword(passwordEncoder.encode(student.getUser().getPassword()));
+                    existingUser.incrementCredentialVersion();
+                    userDetailsService.credentialsChanged(existingUser, null);
                 }
                 
                 userRepository.save(existingUser);
@@ -184,17 +193,27 @@ public class StudentService {
 
         User user = student.getUser();
         user.setName(updatedStudent.getName());
+        String previousEmail = user.getEmail();
+        boolean credentialsChanged = false;
         
         if (updatedStudent.getUser() != null) {
-            if (updatedStudent.getUser().getEmail() != null) {
+            if (updatedStudent.getUser().getEmail() != null
+                    && !updatedStudent.getUser().getEmail().equals(previousEmail)) {
                 user.setEmail(updatedStudent.getUser().getEmail());
+                credentialsChanged = true;
             }
             
             if (updatedStudent.getUser().getPassword() != null) {
                 user.setPassword(passwordEncoder.encode(updatedStudent.getUser().getPassword()));
+                credentialsChanged = true;
             }
         }
 
+        if (credentialsChanged) {
+            // Invalidates tokens and cached logins that still carry the old email or password
+            user.incrementCredentialVersion();
+            userDetailsService.credentialsChanged(user, previousEmail);
+        }
         userRepository.save(user);
         return studentRepository.save(student);
     }
@@ -211,6 +230,7 @@ public class StudentService {
 
         // Step 2: Delete attendance records
         attendanceRepository.deleteByStudentId(id);
+        attendanceSummaryService.removeStudent(id);
 
         // Step 3: Break relationship before deleting student
         student.setUser(null);
@@ -222,6 +242,7 @@ public class StudentService {
         // Step 5: Delete user record (if exists)
         if (user != null) {
             userRepository.delete(user);
+            userDetailsService.userRemoved(user);
         }
     }
 
@@ -158,8 +158,8 @@ public class SubstituteRequestService {
      */
     @Transactional
     public SubstituteRequestDTO processRequestByToken(String token, boolean approved) {
-        // Validate token and get request ID
-        Long requestId = emailTokenService.validateSubstituteToken(token);
+        // Validate token, get request ID and mark the request's links as used
+        Long requestId = emailTokenService.consumeSubstituteToken(token);
         if (requestId == null) {
             throw new RuntimeException("Invalid or expired token");
         }
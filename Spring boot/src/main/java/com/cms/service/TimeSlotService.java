@@ -2,24 +2,61 @@ package com.cms.service;
 
 import com.cms.entities.TimeSlot;
 import com.cms.repository.TimeSlotRepository;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.DayOfWeek;
 import java.time.LocalTime;
-import java.util.List;
+import java.util.*;
 
+/**
+ * Owns the weekly time slot grid. The rows never change after initializeTimeSlots, so they are
+ * held in an immutable in-memory registry and all lookups are answered from it.
+ */
 @Service
 public class TimeSlotService {
 
     @Autowired
     private TimeSlotRepository timeSlotRepository;
 
+    private volatile Registry registry;
+
+    @PostConstruct
+    public void loadRegistry() {
+        reloadTimeSlots();
+    }
+
+    /**
+     * Re-read every slot from the database; only needed after the slot rows were written
+     */
+    public synchronized void reloadTimeSlots() {
+        registry = new Registry(timeSlotRepository.findAll());
+    }
+
+    private Registry registry() {
+        Registry current = registry;
+        if (current == null) {
+            synchronized (this) {
+                if (registry == null) {
+                    reloadTimeSlots();
+                }
+                current = registry;
+            }
+        }
+        return current;
+    }
+
     @Transactional
     public void initializeTimeSlots() {
         // Check if time slots are already initialized
+        if (!registry().all.isEmpty()) {
+            return;
+        }
         if (timeSlotRepository.count() > 0) {
+            // Rows were created after the registry was loaded, e.g. by another node
+            reloadTimeSlots();
             return;
         }
 
@@ -61,21 +98,104 @@ public class TimeSlotService {
             // 8th period – 3.50pm to 4.40pm
             timeSlotRepository.save(new TimeSlot(day, 8, LocalTime.of(15, 50), LocalTime.of(16, 40), false));
         }
+        reloadTimeSlots();
     }
 
+    // Lists are fresh copies because callers shuffle and sort them in place
+
     public List<TimeSlot> getAllTimeSlots() {
-        return timeSlotRepository.findAll();
+        return new ArrayList<>(registry().all);
     }
 
     public List<TimeSlot> getTimeSlotsByDay(DayOfWeek day) {
-        return timeSlotRepository.findByDayOrderByPeriodNumber(day);
+        return new ArrayList<>(registry().byDay.getOrDefault(day, List.of()));
     }
 
     public List<TimeSlot> getNonBreakTimeSlotsByDay(DayOfWeek day) {
-        return timeSlotRepository.findByDayAndIsBreakFalseOrderByPeriodNumber(day);
+        return new ArrayList<>(registry().nonBreakByDay.getOrDefault(day, List.of()));
     }
 
     public List<TimeSlot> getAllNonBreakTimeSlots() {
-        return timeSlotRepository.findAllByIsBreakFalseOrderByDayAscPeriodNumberAsc();
+        return new ArrayList<>(registry().nonBreak);
+    }
+
+    /**
+     * Teaching slot for a day and period, if the grid has one
+     */
+    public Optional<TimeSlot> findTimeSlot(DayOfWeek day, int periodNumber) {
+        return Optional.ofNullable(registry().byDayAndPeriod.get(day, periodNumber));
+    }
+
+    public Optional<TimeSlot> findTimeSlotById(Long id) {
+        return Optional.ofNullable(registry().byId.get(id));
+    }
+
+    /**
+     * Immutable snapshot of the slot table with (day, period) and id indexes
+     */
+    private static final class Registry {
+        private final List<TimeSlot> all;
+        private final List<TimeSlot> nonBreak;
+        private final Map<DayOfWeek, List<TimeSlot>> byDay;
+        private final Map<DayOfWeek, List<TimeSlot>> nonBreakByDay;
+        private final Map<Long, TimeSlot> byId;
+        private final DayPeriodIndex byDayAndPeriod;
+
+        private Registry(List<TimeSlot> slots) {
+            Map<DayOfWeek, List<TimeSlot>> days = new EnumMap<>(DayOfWeek.class);
+            Map<DayOfWeek, List<TimeSlot>> nonBreakDays = new EnumMap<>(DayOfWeek.class);
+            Map<Long, TimeSlot> ids = new HashMap<>();
+            List<TimeSlot> teaching = new ArrayList<>();
+            DayPeriodIndex index = new DayPeriodIndex();
+            for (TimeSlot slot : slots) {
+                days.computeIfAbsent(slot.getDay(), k -> new ArrayList<>()).add(slot);
+                ids.put(slot.getId(), slot);
+                if (!Boolean.TRUE.equals(slot.getIsBreak())) {
+                    teaching.add(slot);
+                    nonBreakDays.computeIfAbsent(slot.getDay(), k -> new ArrayList<>()).add(slot);
+                    index.put(slot);
+                }
+            }
+            // Same orderings the repository queries used; day is stored as a string column
+            Comparator<TimeSlot> byPeriod = Comparator.comparing(TimeSlot::getPeriodNumber);
+            teaching.sort(Comparator.comparing((TimeSlot slot) -> slot.getDay().name()).thenComparing(byPeriod));
+            days.values().forEach(list -> list.sort(byPeriod));
+            nonBreakDays.values().forEach(list -> list.sort(byPeriod));
+
+            this.all = List.copyOf(slots);
+            this.nonBreak = List.copyOf(teaching);
+            this.byDay = freeze(days);
+            this.nonBreakByDay = freeze(nonBreakDays);
+            this.byId = Map.copyOf(ids);
+            this.byDayAndPeriod = index;
+        }
+
+        private static Map<DayOfWeek, List<TimeSlot>> freeze(Map<DayOfWeek, List<TimeSlot>> source) {
+            Map<DayOfWeek, List<TimeSlot>> frozen = new EnumMap<>(DayOfWeek.class);
+            source.forEach((day, list) -> frozen.put(day, List.copyOf(list)));
+            return Collections.unmodifiableMap(frozen);
+        }
+    }
+
+    /**
+     * Array lookup of teaching slots by day (1-7) and period number
+     */
+    private static final class DayPeriodIndex {
+        private static final int MAX_PERIOD = 16;
+        private final TimeSlot[] slots = new TimeSlot[8 * (MAX_PERIOD + 1)];
+
+        private void put(TimeSlot slot) {
+            Integer period = slot.getPeriodNumber();
+            if (period != null && period >= 0 && period <= MAX_PERIOD) {
+                slots[slot.getDay().getValue() * (MAX_PERIOD + 1) + period] = slot;
+            }
+        }
+
+        private TimeSlot get(DayOfWeek day, int period) {
+            if (day == null || period < 0 || period > MAX_PERIOD) {
+                return null;
+            }
+            return slots[day.getValue() * (MAX_PERIOD + 1) + period];
+        }
     }
 }
@@ -0,0 +1,286 @@
+package com.cms.service;
+
+import com.cms.dto.DepartmentTimetableGenerationDTO;
+import com.cms.dto.TimetableGenerationJobDTO;
+import com.cms.entities.Course;
+import com.cms.entities.Faculty;
+import com.cms.entities.FacultyCourse;
+import com.cms.entities.TimetableEntry;
+import com.cms.repository.FacultyCourseRepository;
+import com.cms.repository.TimetableEntryRepository;
+import com.cms.service.timetable.TimetableEntryWriter;
+import com.cms.service.timetable.TimetableOccupancy;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Regenerates the timetable of a whole department (or the institution) in one run.
+ * All teaching assignments are loaded once, every faculty is solved against a shared
+ * in-memory grid and the result is written in a single transaction.
+ */
+@Service
+public class TimetableGenerationJobService {
+    private static final Logger logger = LoggerFactory.getLogger(TimetableGenerationJobService.class);
+
+    @Autowired
+    private TimetableService timetableService;
+
+    @Autowired
+    private TimeSlotService timeSlotService;
+
+    @Autowired
+    private FacultyCourseRepository facultyCourseRepository;
+
+    @Autowired
+    private TimetableEntryRepository timetableEntryRepository;
+
+    @Autowired
+    private TimetableEntryWriter timetableEntryWriter;
+
+    // Finished jobs stay queryable this long
+    @Value("${timetable.jobs.retention-minutes:60}")
+    private long retentionMinutes;
+
+    // Upper bound on finished jobs kept for status requests
+    @Value("${timetable.jobs.max-retained:100}")
+    private int maxRetainedJobs;
+
+    private final Map<String, JobState> jobs = new ConcurrentHashMap<>();
+
+    // Department runs rewrite large parts of the timetable, so they are executed one at a time
+    private final ExecutorService jobExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "timetable-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Queue a department-wide generation and return its initial status
+     */
+    public TimetableGenerationJobDTO submit(DepartmentTimetableGenerationDTO dto) {
+        if (dto.getAcademicYear() == null || dto.getSemester() == null) {
+            throw new RuntimeException("Academic year and semester are required");
+        }
+        String department = dto.getDepartment() == null || dto.getDepartment().isBlank() ? null : dto.getDepartment().trim();
+
+        purgeFinishedJobs();
+        JobState job = new JobState(UUID.randomUUID().toString(), department);
+        jobs.put(job.jobId, job);
+        jobExecutor.submit(() -> run(job, dto.getEngine(), dto.getAcademicYear(), dto.getSemester()));
+
+        logger.info("Queued timetable generation job {} for {}", job.jobId, department == null ? "all departments" : department);
+        return job.toDTO();
+    }
+
+    /**
+     * Current status of a generation job
+     */
+    public TimetableGenerationJobDTO getJob(String jobId) {
+        purgeFinishedJobs();
+        JobState job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Timetable generation job not found");
+        }
+        return job.toDTO();
+    }
+
+    private void run(JobState job, String engine, String academicYear, String semester) {
+        job.start();
+        try {
+            timeSlotService.initializeTimeSlots();
+
+            // Load every teaching assignment of the scope once
+            List<FacultyCourse> facultyCourses = job.department == null
+                    ? facultyCourseRepository.findAll()
+                    : facultyCourseRepository.findByFacultyDepartment(job.department);
+            if (facultyCourses.isEmpty()) {
+                throw new RuntimeException("No courses assigned to faculty in the selected scope");
+            }
+
+            Map<Long, List<FacultyCourse>> coursesByFaculty = facultyCourses.stream()
+                    .collect(Collectors.groupingBy(fc -> fc.getFaculty().getId(), LinkedHashMap::new, Collectors.toList()));
+            List<Long> facultyOrder = orderMostConstrainedFirst(coursesByFaculty);
+            job.totalFaculty = facultyOrder.size();
+
+            // Everything outside the scope stays in place and is treated as fixed
+            TimetableOccupancy occupancy = TimetableOccupancy.fromSlotRows(
+                    timetableEntryRepository.findSlotOccupancyExcludingFaculties(coursesByFaculty.keySet()));
+
+            List<TimetableEntry> generatedEntries = new ArrayList<>();
+            Set<Long> replacedFaculty = new LinkedHashSet<>(coursesByFaculty.keySet());
+            for (Long facultyId : facultyOrder) {
+                List<FacultyCourse> assignments = coursesByFaculty.get(facultyId);
+                Faculty faculty = assignments.get(0).getFaculty();
+
+                List<TimetableEntry> entries = timetableService.generateEntries(
+                        engine, faculty, assignments, academicYear, semester, occupancy);
+                if (entries.isEmpty()) {
+                    // Keep the current timetable of this faculty and let the remaining faculty work around it
+                    keepExistingTimetable(facultyId, occupancy);
+                    replacedFaculty.remove(facultyId);
+                    job.failedFaculty++;
+                    logger.warn("Job {}: could not generate a timetable for faculty {}, keeping the existing one",
+                            job.jobId, faculty.getName());
+                } else {
+                    occupancy.placeAll(entries);
+                    generatedEntries.addAll(entries);
+                }
+
+                job.processedFaculty++;
+                job.generatedEntries = generatedEntries.size();
+                logger.info("Job {}: {}/{} faculty scheduled", job.jobId, job.processedFaculty, job.totalFaculty);
+            }
+
+            job.remainingViolations = timetableService.validateTimetable(generatedEntries).size();
+
+            timetableEntryWriter.replace(replacedFaculty, generatedEntries);
+            job.complete();
+            logger.info("Job {} completed: {} entries for {} faculty in {} ms",
+                    job.jobId, generatedEntries.size(), job.totalFaculty, job.elapsedMillis());
+        } catch (Exception e) {
+            job.fail(e.getMessage());
+            logger.error("Job {} failed: {}", job.jobId, e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Seed the grid with the persisted entries of a faculty that could not be regenerated.
+     * Faculty solved earlier in the run did not see these slots, so a clash fails the job before anything is written.
+     */
+    private void keepExistingTimetable(Long facultyId, TimetableOccupancy occupancy) {
+        List<Object[]> rows = timetableEntryRepository.findSlotOccupancyByFacultyId(facultyId);
+        for (Object[] row : rows) {
+            DayOfWeek day = (DayOfWeek) row[3];
+            int period = (Integer) row[4];
+            if (occupancy.isFacultyBusy((Long) row[0], day, period) || occupancy.isBatchBusy((Long) row[1], day, period)) {
+                throw new RuntimeException("Existing timetable of faculty " + facultyId
+                        + " clashes with the regenerated timetables at " + day + " period " + period);
+            }
+        }
+        for (Object[] row : rows) {
+            occupancy.place((Long) row[0], (Long) row[1], (Long) row[2], (DayOfWeek) row[3], (Integer) row[4]);
+        }
+    }
+
+    /**
+     * Drop finished jobs past the retention period, then the oldest ones beyond the cap
+     */
+    private void purgeFinishedJobs() {
+        long cutoff = System.nanoTime() - TimeUnit.MINUTES.toNanos(retentionMinutes);
+        jobs.values().removeIf(job -> job.finishNanos != 0 && job.finishNanos - cutoff < 0);
+
+        List<JobState> finished = jobs.values().stream()
+                .filter(job -> job.finishNanos != 0)
+                .sorted(Comparator.comparingLong(job -> job.finishNanos))
+                .collect(Collectors.toList());
+        for (int i = 0; i < finished.size() - Math.max(0, maxRetainedJobs); i++) {
+            jobs.remove(finished.get(i).jobId);
+        }
+    }
+
+    private List<Long> orderMostConstrainedFirst(Map<Long, List<FacultyCourse>> coursesByFaculty) {
+        // Faculty with more lab blocks and more contact periods are placed first; ids break ties deterministically
+        Comparator<Map.Entry<Long, List<FacultyCourse>>> byLabs = Comparator.comparingLong(e -> e.getValue().stream()
+                .filter(fc -> fc.getCourse().getType() == Course.CourseType.LAB)
+                .count());
+        Comparator<Map.Entry<Long, List<FacultyCourse>>> byPeriods = Comparator.comparingInt(e -> e.getValue().stream()
+                .mapToInt(fc -> fc.getCourse().getContactPeriods())
+                .sum());
+
+        return coursesByFaculty.entrySet().stream()
+                .sorted(byLabs.reversed()
+                        .thenComparing(byPeriods.reversed())
+                        .thenComparing(Map.Entry::getKey))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        jobExecutor.shutdownNow();
+        jobExecutor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Mutable progress of a job; written by the job thread and read by status requests
+     */
+    private static class JobState {
+        private final String jobId;
+        private final String department;
+        private volatile String status = "QUEUED";
+        private volatile int totalFaculty;
+        private volatile int processedFaculty;
+        private volatile int failedFaculty;
+        private volatile int generatedEntries;
+        private volatile int remainingViolations;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile long startNanos;
+        private volatile long finishNanos;
+        private volatile String message;
+
+        private JobState(String jobId, String department) {
+            this.jobId = jobId;
+            this.department = department;
+        }
+
+        private void start() {
+            startedAt = LocalDateTime.now();
+            startNanos = System.nanoTime();
+            status = "RUNNING";
+        }
+
+        private void complete() {
+            finish("COMPLETED", "Timetable generated for " + (processedFaculty - failedFaculty) + " of " + totalFaculty + " faculty");
+        }
+
+        private void fail(String reason) {
+            finish("FAILED", reason);
+        }
+
+        private void finish(String finalStatus, String finalMessage) {
+            finishNanos = System.nanoTime();
+            finishedAt = LocalDateTime.now();
+            message = finalMessage;
+            status = finalStatus;
+        }
+
+        private long elapsedMillis() {
+            if (startNanos == 0) {
+                return 0;
+            }
+            long end = finishNanos != 0 ? finishNanos : System.nanoTime();
+            return TimeUnit.NANOSECONDS.toMillis(end - startNanos);
+        }
+
+        private TimetableGenerationJobDTO toDTO() {
+            TimetableGenerationJobDTO dto = new TimetableGenerationJobDTO();
+            dto.setJobId(jobId);
+            dto.setDepartment(department);
+            dto.setStatus(status);
+            dto.setTotalFaculty(totalFaculty);
+            dto.setProcessedFaculty(processedFaculty);
+            dto.setFailedFaculty(failedFaculty);
+            dto.setGeneratedEntries(generatedEntries);
+            dto.setRemainingViolations(remainingViolations);
+            dto.setStartedAt(startedAt);
+            dto.setFinishedAt(finishedAt);
+            dto.setElapsedMillis(elapsedMillis());
+            dto.setMessage(message);
+            return dto;
+        }
+    }
+}
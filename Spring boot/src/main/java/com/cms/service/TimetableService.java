@@ -4,14 +4,29 @@ import com.cms.dto.TimetableEntryDTO;
 import com.cms.dto.TimetableGenerationDTO;
 import com.cms.entities.*;
 import com.cms.repository.*;
+import com.cms.service.timetable.IncrementalTimetableValidator;
+import com.cms.service.timetable.TimetableEntryWriter;
+import com.cms.service.timetable.TimetableOccupancy;
+import com.cms.service.timetable.TimetableSolver;
+import com.cms.service.timetable.TimetableValidator;
+import com.cms.service.timetable.TimetableViolation;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.DayOfWeek;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 
 @Service
@@ -39,13 +54,53 @@ public class TimetableService {
     @Autowired
     private TimeSlotService timeSlotService;
 
+    @Autowired
+    private TimetableEntryWriter timetableEntryWriter;
+
     // Maximum number of labs allowed per batch per day
-    private static final int MAX_LABS_PER_DAY = 2;
+    public static final int MAX_LABS_PER_DAY = 2;
     // Maximum number of attempts for timetable generation
     private static final int MAX_GENERATION_ATTEMPTS = 10;
     // Maximum recursion depth for faculty schedule adjustments
     private static final int MAX_RECURSION_DEPTH = 5;
 
+    // Number of generation attempts run concurrently (1 keeps the sequential search)
+    @Value("${timetable.generation.parallelism:1}")
+    private int generationParallelism;
+
+    private ForkJoinPool generationPool;
+
+    // Engine used when a request does not name one: "random" (retry and repair) or any registered solver
+    @Value("${timetable.generation.engine:random}")
+    private String defaultEngine;
+
+    public static final String RANDOM_ENGINE = "random";
+
+    @Autowired
+    private List<TimetableSolver> timetableSolvers;
+
+    private final Map<String, TimetableSolver> solversByName = new HashMap<>();
+
+    @PostConstruct
+    public void initGenerationPool() {
+        for (TimetableSolver solver : timetableSolvers) {
+            solversByName.put(solver.getName(), solver);
+        }
+
+        int parallelism = Math.min(Math.max(generationParallelism, 1), MAX_GENERATION_ATTEMPTS);
+        if (parallelism > 1) {
+            generationPool = new ForkJoinPool(parallelism);
+            logger.info("Parallel timetable search enabled with {} workers", parallelism);
+        }
+    }
+
+    @PreDestroy
+    public void shutdownGenerationPool() {
+        if (generationPool != null) {
+            generationPool.shutdownNow();
+        }
+    }
+
     @Transactional
     public List<TimetableEntryDTO> generateTimetable(TimetableGenerationDTO dto) {
         // Initialize time slots if not already done
@@ -61,16 +116,15 @@ public class TimetableService {
             throw new RuntimeException("No courses assigned to faculty");
         }
 
-        // Clear existing timetable entries for this faculty
-        List<TimetableEntry> existingEntries = timetableEntryRepository.findByFacultyId(dto.getFacultyId());
-        timetableEntryRepository.deleteAll(existingEntries);
+        // Load every other faculty's slots once; all slot checks below are answered from memory
+        TimetableOccupancy persistedOccupancy = loadPersistedOccupancy(dto.getFacultyId());
 
-        // Generate new timetable with constraint handling
-        List<TimetableEntry> generatedEntries = generateTimetableWithConstraints(faculty, facultyCourses, dto.getAcademicYear(), dto.getSemester());
+        // Generate new timetable with the requested engine
+        List<TimetableEntry> generatedEntries = generateEntries(dto.getEngine(), faculty, facultyCourses, dto.getAcademicYear(), dto.getSemester(), persistedOccupancy);
         
-        // Save the generated entries
+        // Replace this faculty's existing entries with the generated ones in bulk
         if (!generatedEntries.isEmpty()) {
-            timetableEntryRepository.saveAll(generatedEntries);
+            timetableEntryWriter.replace(List.of(faculty.getId()), generatedEntries);
         } else {
             throw new RuntimeException("Failed to generate a valid timetable after multiple attempts");
         }
@@ -79,80 +133,86 @@ public class TimetableService {
         return convertToDTO(generatedEntries);
     }
 
-    private List<TimetableEntry> generateTimetableWithConstraints(Faculty faculty, List<FacultyCourse> facultyCourses, String academicYear, String semester) {
-        List<TimetableEntry> bestEntries = new ArrayList<>();
-        int bestViolationCount = Integer.MAX_VALUE;
-        
-        // Try multiple times to generate a valid timetable
-        for (int attempt = 0; attempt < MAX_GENERATION_ATTEMPTS; attempt++) {
-            logger.info("Timetable generation attempt {}/{}", attempt + 1, MAX_GENERATION_ATTEMPTS);
-            
-            // Generate a timetable
-            List<TimetableEntry> entries = new ArrayList<>();
-            Map<Long, Map<DayOfWeek, Set<Long>>> batchLabsByDay = new HashMap<>();
-            
-            try {
-                // First, allocate lab courses (they have more constraints)
-                allocateLabCourses(faculty, facultyCourses, entries, academicYear, semester, batchLabsByDay);
-                
-                // Then allocate non-academic courses
-                allocateNonAcademicCourses(faculty, facultyCourses, entries, academicYear, semester);
-                
-                // Finally allocate theory courses
-                allocateTheoryCourses(faculty, facultyCourses, entries, academicYear, semester);
-                
-                // Check for constraint violations
-                List<String> violations = validateTimetable(entries);
-                
-                if (violations.isEmpty()) {
-                    // If no violations, we have a valid timetable
-                    logger.info("Valid timetable generated on attempt {}", attempt + 1);
-                    return entries;
-                } else {
-                    // If this attempt has fewer violations than previous best, keep it
-                    if (violations.size() < bestViolationCount) {
-                        bestViolationCount = violations.size();
-                        bestEntries = new ArrayList<>(entries);
-                        
-                        logger.info("Found better timetable with {} violations", bestViolationCount);
-                        for (String violation : violations) {
-                            logger.info("Violation: {}", violation);
-                        }
-                    }
-                }
-            } catch (Exception e) {
-                logger.error("Error during timetable generation attempt {}: {}", attempt + 1, e.getMessage());
+    private TimetableOccupancy loadPersistedOccupancy(Long facultyId) {
+        return TimetableOccupancy.fromSlotRows(timetableEntryRepository.findSlotOccupancyExcludingFaculty(facultyId));
+    }
+
+    // Also used by department-wide generation, which passes a grid shared by every faculty in the run
+    List<TimetableEntry> generateEntries(String engine, Faculty faculty, List<FacultyCourse> facultyCourses,
+                                         String academicYear, String semester, TimetableOccupancy persistedOccupancy) {
+        String selected = engine == null || engine.isBlank() ? defaultEngine : engine.trim().toLowerCase();
+        long start = System.nanoTime();
+
+        List<TimetableEntry> entries;
+        if (RANDOM_ENGINE.equals(selected)) {
+            entries = generateTimetableWithConstraints(faculty, facultyCourses, academicYear, semester, persistedOccupancy);
+        } else {
+            TimetableSolver solver = solversByName.get(selected);
+            if (solver == null) {
+                throw new RuntimeException("Unknown timetable engine: " + selected);
             }
+            entries = solver.solve(faculty, facultyCourses, timeSlotService.getAllNonBreakTimeSlots(),
+                                   persistedOccupancy, academicYear, semester);
+        }
+
+        logger.info("Engine {} produced {} entries for faculty {} in {} ms",
+                  selected, entries.size(), faculty.getName(), (System.nanoTime() - start) / 1_000_000);
+        // A full validation pass just for the log line is only worth it when someone reads it
+        if (logger.isDebugEnabled()) {
+            logger.debug("Engine {} left {} violations for faculty {}",
+                      selected, validateTimetable(entries).size(), faculty.getName());
         }
+        return entries;
+    }
+
+    private List<TimetableEntry> generateTimetableWithConstraints(Faculty faculty, List<FacultyCourse> facultyCourses, String academicYear, String semester,
+                                                                  TimetableOccupancy persistedOccupancy) {
+        long baseSeed = ThreadLocalRandom.current().nextLong();
+        AttemptResult best = generationPool != null
+            ? runAttemptsInParallel(faculty, facultyCourses, academicYear, semester, persistedOccupancy, baseSeed)
+            : runAttemptsSequentially(faculty, facultyCourses, academicYear, semester, persistedOccupancy, baseSeed);
+
+        if (best != null && best.violations.isEmpty()) {
+            return best.entries;
+        }
+
+        List<TimetableEntry> bestEntries = best != null ? best.entries : new ArrayList<>();
+        int bestViolationCount = best != null ? best.violations.size() : Integer.MAX_VALUE;
         
         // If we couldn't generate a completely valid timetable, try to fix the best one we found
         if (!bestEntries.isEmpty()) {
             logger.info("Attempting to fix timetable with {} violations", bestViolationCount);
-            List<TimetableEntry> fixedEntries = fixTimetableViolations(bestEntries, faculty, facultyCourses, academicYear, semester);
+            // The repair stages share one grid that mirrors the working entry list; the validator is
+            // scanned once here and then follows every place/release on the grid
+            TimetableOccupancy occupancy = persistedOccupancy.copy();
+            occupancy.placeAll(bestEntries);
+            IncrementalTimetableValidator validator = new IncrementalTimetableValidator(bestEntries);
+            occupancy.track(validator);
+            List<TimetableEntry> fixedEntries = fixTimetableViolations(bestEntries, faculty, facultyCourses, academicYear, semester, occupancy, validator);
             
             // Check if fixing was successful
-            List<String> remainingViolations = validateTimetable(fixedEntries);
+            List<TimetableViolation> remainingViolations = validator.violations();
             if (remainingViolations.isEmpty()) {
                 logger.info("Successfully fixed all violations");
                 return fixedEntries;
             } else {
                 logger.info("Fixed some violations, {} remaining", remainingViolations.size());
-                for (String violation : remainingViolations) {
+                for (TimetableViolation violation : remainingViolations) {
                     logger.info("Remaining violation: {}", violation);
                 }
                 
                 // Try recursive adjustment of other faculty schedules
                 logger.info("Attempting recursive adjustment of faculty schedules");
-                List<TimetableEntry> recursivelyFixedEntries = recursivelyAdjustFacultySchedules(fixedEntries, faculty, facultyCourses, academicYear, semester, 0);
+                List<TimetableEntry> recursivelyFixedEntries = recursivelyAdjustFacultySchedules(fixedEntries, faculty, facultyCourses, academicYear, semester, 0, occupancy, validator);
                 
                 // Final validation
-                List<String> finalViolations = validateTimetable(recursivelyFixedEntries);
+                List<TimetableViolation> finalViolations = validator.violations();
                 if (finalViolations.isEmpty()) {
                     logger.info("Successfully fixed all violations through recursive adjustment");
                     return recursivelyFixedEntries;
                 } else {
                     logger.info("After recursive adjustment, {} violations remain", finalViolations.size());
-                    for (String violation : finalViolations) {
+                    for (TimetableViolation violation : finalViolations) {
                         logger.info("Final violation: {}", violation);
                     }
                     return recursivelyFixedEntries; // Return the best we could achieve
@@ -165,9 +225,136 @@ public class TimetableService {
         return new ArrayList<>();
     }
     
+    private AttemptResult runAttemptsSequentially(Faculty faculty, List<FacultyCourse> facultyCourses, String academicYear,
+                                                  String semester, TimetableOccupancy persistedOccupancy, long baseSeed) {
+        AttemptResult best = null;
+        
+        // Try multiple times to generate a valid timetable
+        for (int attempt = 0; attempt < MAX_GENERATION_ATTEMPTS; attempt++) {
+            AttemptResult result = runGenerationAttempt(attempt, faculty, facultyCourses, academicYear, semester,
+                                                        persistedOccupancy, baseSeed, null);
+            if (result == null) {
+                continue;
+            }
+            if (result.violations.isEmpty()) {
+                return result;
+            }
+            best = keepBetter(best, result);
+        }
+        return best;
+    }
+    
+    private AttemptResult runAttemptsInParallel(Faculty faculty, List<FacultyCourse> facultyCourses, String academicYear,
+                                                String semester, TimetableOccupancy persistedOccupancy, long baseSeed) {
+        AtomicBoolean solved = new AtomicBoolean(false);
+        ExecutorCompletionService<AttemptResult> completionService = new ExecutorCompletionService<>(generationPool);
+        List<Future<AttemptResult>> futures = new ArrayList<>();
+        
+        for (int attempt = 0; attempt < MAX_GENERATION_ATTEMPTS; attempt++) {
+            final int attemptNumber = attempt;
+            futures.add(completionService.submit(() -> runGenerationAttempt(attemptNumber, faculty, facultyCourses,
+                    academicYear, semester, persistedOccupancy, baseSeed, solved)));
+        }
+        
+        AttemptResult best = null;
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                AttemptResult result;
+                try {
+                    result = completionService.take().get();
+                } catch (ExecutionException e) {
+                    logger.error("Parallel timetable generation attempt failed: {}", e.getCause().getMessage());
+                    continue;
+                }
+                if (result == null) {
+                    continue;
+                }
+                if (result.violations.isEmpty()) {
+                    // Stop the attempts that are still running, the first clean timetable wins
+                    solved.set(true);
+                    return result;
+                }
+                best = keepBetter(best, result);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Parallel timetable generation was interrupted");
+        } finally {
+            solved.set(true);
+            futures.forEach(future -> future.cancel(true));
+        }
+        return best;
+    }
+    
+    private AttemptResult runGenerationAttempt(int attempt, Faculty faculty, List<FacultyCourse> facultyCourses,
+                                               String academicYear, String semester, TimetableOccupancy persistedOccupancy,
+                                               long baseSeed, AtomicBoolean solved) {
+        if (solved != null && solved.get()) {
+            return null;
+        }
+        logger.info("Timetable generation attempt {}/{}", attempt + 1, MAX_GENERATION_ATTEMPTS);
+        
+        // Each attempt shuffles with its own seed so parallel attempts explore different timetables
+        Random random = new Random(baseSeed + attempt);
+        List<TimetableEntry> entries = new ArrayList<>();
+        Map<Long, Map<DayOfWeek, Set<Long>>> batchLabsByDay = new HashMap<>();
+        TimetableOccupancy occupancy = persistedOccupancy.copy();
+        
+        try {
+            // First, allocate lab courses (they have more constraints)
+            allocateLabCourses(faculty, facultyCourses, entries, academicYear, semester, batchLabsByDay, occupancy, random);
+            
+            // Then allocate non-academic courses
+            allocateNonAcademicCourses(faculty, facultyCourses, entries, academicYear, semester, occupancy, random);
+            
+            // Finally allocate theory courses
+            allocateTheoryCourses(faculty, facultyCourses, entries, academicYear, semester, occupancy, random);
+            
+            // Check for constraint violations
+            List<TimetableViolation> violations = validateTimetable(entries);
+            
+            if (violations.isEmpty()) {
+                logger.info("Valid timetable generated on attempt {}", attempt + 1);
+            } else {
+                logger.info("Attempt {} finished with {} violations", attempt + 1, violations.size());
+            }
+            return new AttemptResult(attempt, entries, violations);
+        } catch (Exception e) {
+            logger.error("Error during timetable generation attempt {}: {}", attempt + 1, e.getMessage());
+            return null;
+        }
+    }
+    
+    private AttemptResult keepBetter(AttemptResult best, AttemptResult candidate) {
+        // Fewer violations wins; ties go to the earlier attempt so results do not depend on thread timing
+        if (best == null
+                || candidate.violations.size() < best.violations.size()
+                || (candidate.violations.size() == best.violations.size() && candidate.attempt < best.attempt)) {
+            logger.info("Found better timetable with {} violations", candidate.violations.size());
+            for (TimetableViolation violation : candidate.violations) {
+                logger.info("Violation: {}", violation);
+            }
+            return candidate;
+        }
+        return best;
+    }
+    
+    private static class AttemptResult {
+        private final int attempt;
+        private final List<TimetableEntry> entries;
+        private final List<TimetableViolation> violations;
+        
+        private AttemptResult(int attempt, List<TimetableEntry> entries, List<TimetableViolation> violations) {
+            this.attempt = attempt;
+            this.entries = entries;
+            this.violations = violations;
+        }
+    }
+    
     private List<TimetableEntry> recursivelyAdjustFacultySchedules(List<TimetableEntry> entries, Faculty primaryFaculty, 
                                                                  List<FacultyCourse> facultyCourses, String academicYear, 
-                                                                 String semester, int recursionDepth) {
+                                                                 String semester, int recursionDepth,
+                                                                 TimetableOccupancy occupancy, IncrementalTimetableValidator validator) {
         // Base case: if we've reached maximum recursion depth, return current entries
         if (recursionDepth >= MAX_RECURSION_DEPTH) {
             logger.info("Reached maximum recursion depth ({}), returning current best solution", MAX_RECURSION_DEPTH);
@@ -175,7 +362,7 @@ public class TimetableService {
         }
         
         // Get all violations
-        List<String> violations = validateTimetable(entries);
+        List<TimetableViolation> violations = validator.violations();
         if (violations.isEmpty()) {
             return entries; // No violations to fix
         }
@@ -186,39 +373,31 @@ public class TimetableService {
         List<TimetableEntry> workingEntries = new ArrayList<>(entries);
         
         // Process each violation type
-        List<String> facultyConflicts = violations.stream()
-            .filter(v -> v.contains("Faculty") && v.contains("scheduled twice"))
-            .collect(Collectors.toList());
-        
-        List<String> batchConflicts = violations.stream()
-            .filter(v -> v.contains("Batch") && v.contains("scheduled twice"))
-            .collect(Collectors.toList());
-        
-        List<String> labConflicts = violations.stream()
-            .filter(v -> v.contains("Batch") && v.contains("labs on"))
-            .collect(Collectors.toList());
+        List<TimetableViolation> facultyConflicts = violationsOfType(violations, TimetableViolation.Type.FACULTY_DOUBLE_BOOKED);
+        List<TimetableViolation> batchConflicts = violationsOfType(violations, TimetableViolation.Type.BATCH_DOUBLE_BOOKED);
+        List<TimetableViolation> labConflicts = violationsOfType(violations, TimetableViolation.Type.LAB_LIMIT_EXCEEDED);
         
         // First try to fix faculty conflicts by adjusting other faculty schedules
         if (!facultyConflicts.isEmpty()) {
-            workingEntries = fixFacultyConflicts(workingEntries, primaryFaculty, academicYear, semester, recursionDepth);
+            workingEntries = fixFacultyConflicts(workingEntries, facultyConflicts, primaryFaculty, academicYear, semester, recursionDepth, occupancy);
         }
         
         // Then fix batch conflicts
         if (!batchConflicts.isEmpty()) {
-            workingEntries = fixBatchConflicts(workingEntries, primaryFaculty, facultyCourses, academicYear, semester);
+            workingEntries = fixBatchConflicts(workingEntries, batchConflicts, primaryFaculty, facultyCourses, academicYear, semester, occupancy);
         }
         
         // Finally fix lab conflicts
         if (!labConflicts.isEmpty()) {
-            workingEntries = fixLabConflicts(workingEntries, primaryFaculty, facultyCourses, academicYear, semester);
+            workingEntries = fixLabConflicts(workingEntries, labConflicts, primaryFaculty, facultyCourses, academicYear, semester, occupancy);
         }
         
         // Check if we've made progress
-        List<String> remainingViolations = validateTimetable(workingEntries);
-        if (remainingViolations.size() < violations.size()) {
+        int remainingViolations = validator.violationCount();
+        if (remainingViolations < violations.size()) {
             // We've made progress, continue recursively
-            logger.info("Made progress: reduced violations from {} to {}", violations.size(), remainingViolations.size());
-            return recursivelyAdjustFacultySchedules(workingEntries, primaryFaculty, facultyCourses, academicYear, semester, recursionDepth + 1);
+            logger.info("Made progress: reduced violations from {} to {}", violations.size(), remainingViolations);
+            return recursivelyAdjustFacultySchedules(workingEntries, primaryFaculty, facultyCourses, academicYear, semester, recursionDepth + 1, occupancy, validator);
         } else {
             // No progress made, return current best
             logger.info("No further progress possible at recursion depth {}", recursionDepth);
@@ -226,31 +405,45 @@ public class TimetableService {
         }
     }
     
-    private List<TimetableEntry> fixFacultyConflicts(List<TimetableEntry> entries, Faculty primaryFaculty, 
-                                                   String academicYear, String semester, int recursionDepth) {
-        logger.info("Fixing faculty conflicts at recursion depth {}", recursionDepth);
-    
-        // Create a working copy
-        List<TimetableEntry> workingEntries = new ArrayList<>(entries);
-    
-        // Find all faculty conflicts
-        Map<String, List<TimetableEntry>> facultySlotMap = new HashMap<>();
+    private static List<TimetableViolation> violationsOfType(List<TimetableViolation> violations, TimetableViolation.Type type) {
+        List<TimetableViolation> matching = new ArrayList<>();
+        for (TimetableViolation violation : violations) {
+            if (violation.getType() == type) {
+                matching.add(violation);
+            }
+        }
+        return matching;
+    }
     
-        // Build a map of faculty-slot to entries
-        for (TimetableEntry entry : workingEntries) {
-            String key = entry.getFaculty().getId() + "-" + entry.getTimeSlot().getDay() + "-" + entry.getTimeSlot().getPeriodNumber();
+    // Entries sharing a double-booked slot, grouped by the entry that held the slot first.
+    // Entries already moved by an earlier repair stage are dropped.
+    private static List<List<TimetableEntry>> conflictGroups(List<TimetableViolation> conflicts, List<TimetableEntry> workingEntries) {
+        Set<TimetableEntry> current = new HashSet<>(workingEntries);
+        Map<TimetableEntry, List<TimetableEntry>> groups = new LinkedHashMap<>();
+        for (TimetableViolation conflict : conflicts) {
+            groups.computeIfAbsent(conflict.getConflictingEntry(), first -> new ArrayList<>(List.of(first)))
+                  .add(conflict.getEntry());
+        }
         
-            facultySlotMap.computeIfAbsent(key, k -> new ArrayList<>());
-            facultySlotMap.get(key).add(entry);
+        List<List<TimetableEntry>> result = new ArrayList<>();
+        for (List<TimetableEntry> group : groups.values()) {
+            group.removeIf(entry -> !current.contains(entry));
+            if (group.size() > 1) {
+                result.add(group);
+            }
         }
+        return result;
+    }
     
-        // Find conflicts (more than one entry per faculty-slot)
-        List<Map.Entry<String, List<TimetableEntry>>> conflicts = facultySlotMap.entrySet().stream()
-            .filter(entry -> entry.getValue().size() > 1)
-            .collect(Collectors.toList());
+    private List<TimetableEntry> fixFacultyConflicts(List<TimetableEntry> entries, List<TimetableViolation> facultyConflicts,
+                                                   Faculty primaryFaculty, String academicYear, String semester, int recursionDepth,
+                                                   TimetableOccupancy occupancy) {
+        logger.info("Fixing faculty conflicts at recursion depth {}", recursionDepth);
+    
+        // Create a working copy
+        List<TimetableEntry> workingEntries = new ArrayList<>(entries);
     
-        for (Map.Entry<String, List<TimetableEntry>> conflict : conflicts) {
-            List<TimetableEntry> conflictingEntries = conflict.getValue();
+        for (List<TimetableEntry> conflictingEntries : conflictGroups(facultyConflicts, workingEntries)) {
         
             // Group conflicting entries by course ID to identify same subject across batches
             Map<Long, List<TimetableEntry>> courseGroups = conflictingEntries.stream()
@@ -280,13 +473,16 @@ public class TimetableService {
                         TimetableEntry entryToMove = sameCourseBatchEntries.get(i);
                     
                         // Remove this entry from the working set
-                        workingEntries.remove(entryToMove);
+                        if (workingEntries.remove(entryToMove)) {
+                            occupancy.release(entryToMove);
+                        }
                     
                         // Try to find an alternative slot for this entry
-                        TimetableEntry movedEntry = findAlternativeSlot(entryToMove, workingEntries, academicYear, semester);
+                        TimetableEntry movedEntry = findAlternativeSlot(entryToMove, workingEntries, academicYear, semester, occupancy);
                     
                         if (movedEntry != null) {
                             workingEntries.add(movedEntry);
+                            occupancy.place(movedEntry);
                             logger.info("Moved {} course {} for batch {} from {} period {} to {} period {}",
                                       entryToMove.getFaculty().getName(),
                                       entryToMove.getCourse().getCode(),
@@ -297,10 +493,11 @@ public class TimetableService {
                                       movedEntry.getTimeSlot().getPeriodNumber());
                         } else {
                             // If we couldn't find an alternative slot, try more aggressively
-                            movedEntry = findAlternativeSlotAggressively(entryToMove, workingEntries, academicYear, semester);
+                            movedEntry = findAlternativeSlotAggressively(entryToMove, academicYear, semester, occupancy);
                         
                             if (movedEntry != null) {
                                 workingEntries.add(movedEntry);
+                                occupancy.place(movedEntry);
                                 logger.info("Aggressively moved {} course {} for batch {} from {} period {} to {} period {}",
                                           entryToMove.getFaculty().getName(),
                                           entryToMove.getCourse().getCode(),
@@ -326,19 +523,22 @@ public class TimetableService {
     
     private List<TimetableEntry> generateTimetableForFaculty(Faculty faculty, List<FacultyCourse> facultyCourses, 
                                                            List<TimetableEntry> existingEntries, 
-                                                           String academicYear, String semester) {
+                                                           String academicYear, String semester,
+                                                           TimetableOccupancy persistedOccupancy) {
         List<TimetableEntry> newEntries = new ArrayList<>();
         Map<Long, Map<DayOfWeek, Set<Long>>> batchLabsByDay = buildBatchLabsMap(existingEntries);
+        TimetableOccupancy occupancy = persistedOccupancy.copy();
+        occupancy.placeAll(existingEntries);
         
         try {
             // First, allocate lab courses (they have more constraints)
-            allocateLabCoursesWithExisting(faculty, facultyCourses, newEntries, existingEntries, academicYear, semester, batchLabsByDay);
+            allocateLabCoursesWithExisting(faculty, facultyCourses, newEntries, academicYear, semester, batchLabsByDay, occupancy);
             
             // Then allocate non-academic courses
-            allocateNonAcademicCoursesWithExisting(faculty, facultyCourses, newEntries, existingEntries, academicYear, semester);
+            allocateNonAcademicCoursesWithExisting(faculty, facultyCourses, newEntries, academicYear, semester, occupancy);
             
             // Finally allocate theory courses
-            allocateTheoryCoursesWithExisting(faculty, facultyCourses, newEntries, existingEntries, academicYear, semester);
+            allocateTheoryCoursesWithExisting(faculty, facultyCourses, newEntries, academicYear, semester, occupancy);
         } catch (Exception e) {
             logger.error("Error during faculty timetable generation: {}", e.getMessage());
         }
@@ -365,7 +565,7 @@ public class TimetableService {
     }
     
     private TimetableEntry findAlternativeSlot(TimetableEntry entry, List<TimetableEntry> existingEntries, 
-                                             String academicYear, String semester) {
+                                             String academicYear, String semester, TimetableOccupancy occupancy) {
         Faculty faculty = entry.getFaculty();
         Course course = entry.getCourse();
         Batch batch = entry.getBatch();
@@ -411,7 +611,7 @@ public class TimetableService {
                         }
                     }
                     
-                    if (areConsecutive && canAllocateSlots(faculty, batch, consecutiveSlots, existingEntries)) {
+                    if (areConsecutive && canAllocateSlots(faculty, batch, consecutiveSlots, occupancy)) {
                         // Return the first slot (others will be allocated later)
                         return new TimetableEntry(faculty, course, batch, consecutiveSlots.get(0), academicYear, semester);
                     }
@@ -420,10 +620,10 @@ public class TimetableService {
         } else {
             // For non-lab courses, just find any available slot
             for (TimeSlot slot : allTimeSlots) {
-                if (canAllocateSlot(faculty, batch, slot, existingEntries)) {
+                if (canAllocateSlot(faculty, batch, slot, occupancy)) {
                     // For theory courses, check if this would create consecutive periods for the same course-batch pair
                     if (course.getType() == Course.CourseType.ACADEMIC) {
-                        if (isCourseBatchContinuous(slot, batch.getId(), course.getId(), existingEntries)) {
+                        if (isCourseBatchContinuous(slot, batch.getId(), course.getId(), occupancy)) {
                             continue; // Skip this slot to avoid consecutive periods for same course-batch
                         }
                     }
@@ -436,32 +636,15 @@ public class TimetableService {
         return null; // No alternative slot found
     }
     
-    private List<TimetableEntry> fixBatchConflicts(List<TimetableEntry> entries, Faculty primaryFaculty, 
-                                                 List<FacultyCourse> facultyCourses, String academicYear, String semester) {
+    private List<TimetableEntry> fixBatchConflicts(List<TimetableEntry> entries, List<TimetableViolation> batchConflicts,
+                                                 Faculty primaryFaculty, List<FacultyCourse> facultyCourses,
+                                                 String academicYear, String semester, TimetableOccupancy occupancy) {
         logger.info("Fixing batch conflicts");
         
         // Create a working copy
         List<TimetableEntry> workingEntries = new ArrayList<>(entries);
         
-        // Find all batch conflicts
-        Map<String, List<TimetableEntry>> batchSlotMap = new HashMap<>();
-        
-        // Build a map of batch-slot to entries
-        for (TimetableEntry entry : workingEntries) {
-            String key = entry.getBatch().getId() + "-" + entry.getTimeSlot().getDay() + "-" + entry.getTimeSlot().getPeriodNumber();
-            
-            batchSlotMap.computeIfAbsent(key, k -> new ArrayList<>());
-            batchSlotMap.get(key).add(entry);
-        }
-        
-        // Find conflicts (more than one entry per batch-slot)
-        List<Map.Entry<String, List<TimetableEntry>>> conflicts = batchSlotMap.entrySet().stream()
-            .filter(entry -> entry.getValue().size() > 1)
-            .collect(Collectors.toList());
-        
-        for (Map.Entry<String, List<TimetableEntry>> conflict : conflicts) {
-            List<TimetableEntry> conflictingEntries = conflict.getValue();
-            
+        for (List<TimetableEntry> conflictingEntries : conflictGroups(batchConflicts, workingEntries)) {
             // Sort entries so that primary faculty's entries are preserved if possible
             conflictingEntries.sort((e1, e2) -> {
                 if (e1.getFaculty().getId().equals(primaryFaculty.getId())) return -1;
@@ -476,13 +659,16 @@ public class TimetableService {
                 TimetableEntry entryToMove = conflictingEntries.get(i);
                 
                 // Remove this entry from the working set
-                workingEntries.remove(entryToMove);
+                if (workingEntries.remove(entryToMove)) {
+                    occupancy.release(entryToMove);
+                }
                 
                 // Try to find an alternative slot for this entry
-                TimetableEntry movedEntry = findAlternativeSlot(entryToMove, workingEntries, academicYear, semester);
+                TimetableEntry movedEntry = findAlternativeSlot(entryToMove, workingEntries, academicYear, semester, occupancy);
                 
                 if (movedEntry != null) {
                     workingEntries.add(movedEntry);
+                    occupancy.place(movedEntry);
                     logger.info("Moved {} course {} for batch {} from {} period {} to {} period {}", 
                               entryToMove.getFaculty().getName(),
                               entryToMove.getCourse().getCode(),
@@ -503,8 +689,9 @@ public class TimetableService {
         return workingEntries;
     }
     
-    private List<TimetableEntry> fixLabConflicts(List<TimetableEntry> entries, Faculty primaryFaculty, 
-                                               List<FacultyCourse> facultyCourses, String academicYear, String semester) {
+    private List<TimetableEntry> fixLabConflicts(List<TimetableEntry> entries, List<TimetableViolation> labConflicts,
+                                               Faculty primaryFaculty, List<FacultyCourse> facultyCourses,
+                                               String academicYear, String semester, TimetableOccupancy occupancy) {
         logger.info("Fixing lab conflicts");
         
         // Create a working copy
@@ -513,64 +700,54 @@ public class TimetableService {
         // Build the batch labs map
         Map<Long, Map<DayOfWeek, Set<Long>>> batchLabsByDay = buildBatchLabsMap(workingEntries);
         
-        // Find batches with more than MAX_LABS_PER_DAY labs on any day
-        List<Map.Entry<Long, Map<DayOfWeek, Set<Long>>>> violatingBatches = batchLabsByDay.entrySet().stream()
-            .filter(entry -> entry.getValue().entrySet().stream()
-                .anyMatch(dayEntry -> dayEntry.getValue().size() > MAX_LABS_PER_DAY))
-            .collect(Collectors.toList());
-        
-        // For each violating batch, try to move labs to other days
-        for (Map.Entry<Long, Map<DayOfWeek, Set<Long>>> batchEntry : violatingBatches) {
-            Long batchId = batchEntry.getKey();
+        // For each batch and day over the limit, try to move labs to other days
+        for (TimetableViolation labConflict : labConflicts) {
+            Long batchId = labConflict.getBatchId();
+            DayOfWeek violatingDay = labConflict.getDay();
+            Set<Long> labCourseIds = batchLabsByDay.getOrDefault(batchId, Map.of()).getOrDefault(violatingDay, Set.of());
             
-            // Find days with too many labs
-            List<Map.Entry<DayOfWeek, Set<Long>>> violatingDays = batchEntry.getValue().entrySet().stream()
-                .filter(dayEntry -> dayEntry.getValue().size() > MAX_LABS_PER_DAY)
-                .collect(Collectors.toList());
+            // Earlier stages may already have moved some of these labs
+            int labsToMove = labCourseIds.size() - MAX_LABS_PER_DAY;
+            if (labsToMove <= 0) {
+                continue;
+            }
             
-            for (Map.Entry<DayOfWeek, Set<Long>> dayEntry : violatingDays) {
-                DayOfWeek violatingDay = dayEntry.getKey();
-                Set<Long> labCourseIds = dayEntry.getValue();
-                
-                // We need to move some labs to other days
-                int labsToMove = labCourseIds.size() - MAX_LABS_PER_DAY;
-                
-                // Get the lab courses to move
-                List<Long> coursesToMove = new ArrayList<>(labCourseIds);
+            // Get the lab courses to move
+            List<Long> coursesToMove = new ArrayList<>(labCourseIds);
+            
+            // Prioritize moving non-primary faculty labs
+            coursesToMove.sort((id1, id2) -> {
+                boolean isPrimaryFaculty1 = workingEntries.stream()
+                    .anyMatch(e -> e.getCourse().getId().equals(id1) && 
+                             e.getFaculty().getId().equals(primaryFaculty.getId()));
                 
-                // Prioritize moving non-primary faculty labs
-                coursesToMove.sort((id1, id2) -> {
-                    boolean isPrimaryFaculty1 = workingEntries.stream()
-                        .anyMatch(e -> e.getCourse().getId().equals(id1) && 
-                                 e.getFaculty().getId().equals(primaryFaculty.getId()));
-                    
-                    boolean isPrimaryFaculty2 = workingEntries.stream()
-                        .anyMatch(e -> e.getCourse().getId().equals(id2) && 
-                                 e.getFaculty().getId().equals(primaryFaculty.getId()));
-                    
-                    if (isPrimaryFaculty1 && !isPrimaryFaculty2) return 1;
-                    if (!isPrimaryFaculty1 && isPrimaryFaculty2) return -1;
-                    return 0;
-                });
+                boolean isPrimaryFaculty2 = workingEntries.stream()
+                    .anyMatch(e -> e.getCourse().getId().equals(id2) && 
+                             e.getFaculty().getId().equals(primaryFaculty.getId()));
                 
-                coursesToMove = coursesToMove.subList(0, labsToMove);
+                if (isPrimaryFaculty1 && !isPrimaryFaculty2) return 1;
+                if (!isPrimaryFaculty1 && isPrimaryFaculty2) return -1;
+                return 0;
+            });
+            
+            coursesToMove = coursesToMove.subList(0, labsToMove);
+            
+            // For each course to move, find all its entries on this day
+            for (Long courseId : coursesToMove) {
+                // Find all entries for this course, batch, and day
+                List<TimetableEntry> entriesToMove = workingEntries.stream()
+                    .filter(e -> e.getCourse().getId().equals(courseId) &&
+                            e.getBatch().getId().equals(batchId) &&
+                            e.getTimeSlot().getDay() == violatingDay)
+                    .collect(Collectors.toList());
                 
-                // For each course to move, find all its entries on this day
-                for (Long courseId : coursesToMove) {
-                    // Find all entries for this course, batch, and day
-                    List<TimetableEntry> entriesToMove = workingEntries.stream()
-                        .filter(e -> e.getCourse().getId().equals(courseId) &&
-                                e.getBatch().getId().equals(batchId) &&
-                                e.getTimeSlot().getDay() == violatingDay)
-                        .collect(Collectors.toList());
+                if (!entriesToMove.isEmpty()) {
+                    // Remove these entries
+                    workingEntries.removeAll(entriesToMove);
+                    occupancy.releaseAll(entriesToMove);
                     
-                    if (!entriesToMove.isEmpty()) {
-                        // Remove these entries
-                        workingEntries.removeAll(entriesToMove);
-                        
-                        // Try to reallocate this lab to another day
-                        reallocateLabToAnotherDay(entriesToMove.get(0).getFaculty(), entriesToMove, workingEntries, academicYear, semester, batchLabsByDay);
-                    }
+                    // Try to reallocate this lab to another day
+                    reallocateLabToAnotherDay(entriesToMove.get(0).getFaculty(), entriesToMove, workingEntries, academicYear, semester, batchLabsByDay, occupancy);
                 }
             }
         }
@@ -579,84 +756,63 @@ public class TimetableService {
     }
     
     private List<TimetableEntry> fixTimetableViolations(List<TimetableEntry> entries, Faculty faculty, 
-                                                      List<FacultyCourse> facultyCourses, String academicYear, String semester) {
+                                                      List<FacultyCourse> facultyCourses, String academicYear, String semester,
+                                                      TimetableOccupancy occupancy, IncrementalTimetableValidator validator) {
         // Create a copy of entries to work with
         List<TimetableEntry> fixedEntries = new ArrayList<>(entries);
         
-        // Find lab constraint violations (more than 2 labs per batch per day)
-        Map<Long, Map<DayOfWeek, Set<Long>>> batchLabsByDay = new HashMap<>();
-        
         // Build the current lab allocation map
-        for (TimetableEntry entry : fixedEntries) {
-            if (entry.getCourse().getType() == Course.CourseType.LAB) {
-                Long batchId = entry.getBatch().getId();
-                DayOfWeek day = entry.getTimeSlot().getDay();
-                Long courseId = entry.getCourse().getId();
-                
-                batchLabsByDay.computeIfAbsent(batchId, k -> new HashMap<>());
-                batchLabsByDay.get(batchId).computeIfAbsent(day, k -> new HashSet<>());
-                batchLabsByDay.get(batchId).get(day).add(courseId);
-            }
-        }
-        
-        // Find batches with more than MAX_LABS_PER_DAY labs on any day
-        List<Map.Entry<Long, Map<DayOfWeek, Set<Long>>>> violatingBatches = batchLabsByDay.entrySet().stream()
-            .filter(entry -> entry.getValue().entrySet().stream()
-                .anyMatch(dayEntry -> dayEntry.getValue().size() > MAX_LABS_PER_DAY))
-            .collect(Collectors.toList());
-        
-        // For each violating batch, try to move labs to other days
-        for (Map.Entry<Long, Map<DayOfWeek, Set<Long>>> batchEntry : violatingBatches) {
-            Long batchId = batchEntry.getKey();
+        Map<Long, Map<DayOfWeek, Set<Long>>> batchLabsByDay = buildBatchLabsMap(fixedEntries);
+        
+        // Lab constraint violations (more than MAX_LABS_PER_DAY labs per batch per day): move labs to other days
+        List<TimetableViolation> labConflicts = violationsOfType(validator.violations(), TimetableViolation.Type.LAB_LIMIT_EXCEEDED);
+        for (TimetableViolation labConflict : labConflicts) {
+            Long batchId = labConflict.getBatchId();
+            DayOfWeek violatingDay = labConflict.getDay();
+            Set<Long> labCourseIds = batchLabsByDay.get(batchId).get(violatingDay);
             
+            // We need to move some labs to other days
+            int labsToMove = labCourseIds.size() - MAX_LABS_PER_DAY;
             
-            // Find days with too many labs
-            List<Map.Entry<DayOfWeek, Set<Long>>> violatingDays = batchEntry.getValue().entrySet().stream()
-                .filter(dayEntry -> dayEntry.getValue().size() > MAX_LABS_PER_DAY)
-                .collect(Collectors.toList());
+            // Get the lab courses to move (take the last ones)
+            List<Long> coursesToMove = new ArrayList<>(labCourseIds);
+            Collections.shuffle(coursesToMove); // Randomize which labs to move
+            coursesToMove = coursesToMove.subList(0, labsToMove);
             
-            for (Map.Entry<DayOfWeek, Set<Long>> dayEntry : violatingDays) {
-                DayOfWeek violatingDay = dayEntry.getKey();
-                Set<Long> labCourseIds = dayEntry.getValue();
-                
-                // We need to move some labs to other days
-                int labsToMove = labCourseIds.size() - MAX_LABS_PER_DAY;
-                
-                // Get the lab courses to move (take the last ones)
-                List<Long> coursesToMove = new ArrayList<>(labCourseIds);
-                Collections.shuffle(coursesToMove); // Randomize which labs to move
-                coursesToMove = coursesToMove.subList(0, labsToMove);
+            // For each course to move, find all its entries on this day
+            for (Long courseId : coursesToMove) {
+                // Find all entries for this course, batch, and day
+                List<TimetableEntry> entriesToMove = fixedEntries.stream()
+                    .filter(e -> e.getCourse().getId().equals(courseId) &&
+                            e.getBatch().getId().equals(batchId) &&
+                            e.getTimeSlot().getDay() == violatingDay)
+                    .collect(Collectors.toList());
                 
-                // For each course to move, find all its entries on this day
-                for (Long courseId : coursesToMove) {
-                    // Find all entries for this course, batch, and day
-                    List<TimetableEntry> entriesToMove = fixedEntries.stream()
-                        .filter(e -> e.getCourse().getId().equals(courseId) &&
-                                e.getBatch().getId().equals(batchId) &&
-                                e.getTimeSlot().getDay() == violatingDay)
-                        .collect(Collectors.toList());
+                if (!entriesToMove.isEmpty()) {
+                    // Remove these entries
+                    fixedEntries.removeAll(entriesToMove);
+                    occupancy.releaseAll(entriesToMove);
                     
-                    if (!entriesToMove.isEmpty()) {
-                        // Remove these entries
-                        fixedEntries.removeAll(entriesToMove);
-                        
-                        // Try to reallocate this lab to another day
-                        reallocateLabToAnotherDay(faculty, entriesToMove, fixedEntries, academicYear, semester, batchLabsByDay);
-                    }
+                    // Try to reallocate this lab to another day
+                    reallocateLabToAnotherDay(faculty, entriesToMove, fixedEntries, academicYear, semester, batchLabsByDay, occupancy);
                 }
             }
         }
         
         // Now fix faculty and batch conflicts
-        fixedEntries = fixFacultyConflicts(fixedEntries, faculty, academicYear, semester, 0);
-        fixedEntries = fixBatchConflicts(fixedEntries, faculty, facultyCourses, academicYear, semester);
+        List<TimetableViolation> violations = validator.violations();
+        fixedEntries = fixFacultyConflicts(fixedEntries, violationsOfType(violations, TimetableViolation.Type.FACULTY_DOUBLE_BOOKED),
+                                           faculty, academicYear, semester, 0, occupancy);
+        fixedEntries = fixBatchConflicts(fixedEntries, violationsOfType(violations, TimetableViolation.Type.BATCH_DOUBLE_BOOKED),
+                                         faculty, facultyCourses, academicYear, semester, occupancy);
         
         return fixedEntries;
     }
     
     private void reallocateLabToAnotherDay(Faculty faculty, List<TimetableEntry> entriesToMove, 
                                          List<TimetableEntry> allEntries, String academicYear, String semester,
-                                         Map<Long, Map<DayOfWeek, Set<Long>>> batchLabsByDay) {
+                                         Map<Long, Map<DayOfWeek, Set<Long>>> batchLabsByDay,
+                                         TimetableOccupancy occupancy) {
         if (entriesToMove.isEmpty()) {
             return;
         }
@@ -719,13 +875,7 @@ public class TimetableService {
                 boolean slotsAvailable = true;
                 for (TimeSlot slot : consecutiveSlots) {
                     // Check if faculty or batch is already allocated in this slot
-                    boolean slotBusy = allEntries.stream()
-                        .anyMatch(e -> (e.getFaculty().getId().equals(faculty.getId()) || 
-                                     e.getBatch().getId().equals(batchId)) && 
-                                     e.getTimeSlot().getDay() == slot.getDay() && 
-                                     e.getTimeSlot().getPeriodNumber() == slot.getPeriodNumber());
-                    
-                    if (slotBusy) {
+                    if (!canAllocateSlot(faculty, batch, slot, occupancy)) {
                         slotsAvailable = false;
                         break;
                     }
@@ -745,6 +895,7 @@ public class TimetableService {
                             semester
                         );
                         allEntries.add(newEntry);
+                        occupancy.place(newEntry);
                     }
                     
                     // Update the batch labs tracking
@@ -776,10 +927,14 @@ public class TimetableService {
                 
                 // Remove any conflicting entries
                 for (TimeSlot slot : consecutiveSlots) {
-                    allEntries.removeIf(e -> (e.getFaculty().getId().equals(faculty.getId()) || 
-                                           e.getBatch().getId().equals(batchId)) && 
-                                           e.getTimeSlot().getDay() == slot.getDay() && 
-                                           e.getTimeSlot().getPeriodNumber() == slot.getPeriodNumber());
+                    List<TimetableEntry> conflicting = allEntries.stream()
+                        .filter(e -> (e.getFaculty().getId().equals(faculty.getId()) || 
+                                    e.getBatch().getId().equals(batchId)) && 
+                                    e.getTimeSlot().getDay() == slot.getDay() && 
+                                    e.getTimeSlot().getPeriodNumber() == slot.getPeriodNumber())
+                        .collect(Collectors.toList());
+                    allEntries.removeAll(conflicting);
+                    occupancy.releaseAll(conflicting);
                 }
                 
                 // Create new entries
@@ -795,6 +950,7 @@ public class TimetableService {
                         semester
                     );
                     allEntries.add(newEntry);
+                    occupancy.place(newEntry);
                 }
                 
                 // Update the batch labs tracking
@@ -815,9 +971,10 @@ public class TimetableService {
     }
     
     private void allocateLabCoursesWithExisting(Faculty faculty, List<FacultyCourse> facultyCourses, 
-                                              List<TimetableEntry> newEntries, List<TimetableEntry> existingEntries,
+                                              List<TimetableEntry> newEntries,
                                               String academicYear, String semester, 
-                                              Map<Long, Map<DayOfWeek, Set<Long>>> batchLabsByDay) {
+                                              Map<Long, Map<DayOfWeek, Set<Long>>> batchLabsByDay,
+                                              TimetableOccupancy occupancy) {
         // Get lab courses
         List<FacultyCourse> labCourses = facultyCourses.stream()
             .filter(fc -> fc.getCourse().getType() == Course.CourseType.LAB)
@@ -831,14 +988,15 @@ public class TimetableService {
         
         // Allocate each lab course
         for (FacultyCourse labCourse : labCourses) {
-            allocateLabCourseWithExisting(faculty, labCourse, allTimeSlots, newEntries, existingEntries, academicYear, semester, batchLabsByDay);
+            allocateLabCourseWithExisting(faculty, labCourse, allTimeSlots, newEntries, academicYear, semester, batchLabsByDay, occupancy);
         }
     }
     
     private void allocateLabCourseWithExisting(Faculty faculty, FacultyCourse labCourse, List<TimeSlot> allTimeSlots,
-                                             List<TimetableEntry> newEntries, List<TimetableEntry> existingEntries,
+                                             List<TimetableEntry> newEntries,
                                              String academicYear, String semester,
-                                             Map<Long, Map<DayOfWeek, Set<Long>>> batchLabsByDay) {
+                                             Map<Long, Map<DayOfWeek, Set<Long>>> batchLabsByDay,
+                                             TimetableOccupancy occupancy) {
         // Labs need consecutive periods and should not be in first period
         int totalPeriodsNeeded = labCourse.getCourse().getContactPeriods();
         
@@ -891,11 +1049,7 @@ public class TimetableService {
                         }
                     }
                     
-                    // Combine existing and new entries for checking
-                    List<TimetableEntry> combinedEntries = new ArrayList<>(existingEntries);
-                    combinedEntries.addAll(newEntries);
-                    
-                    if (areConsecutive && canAllocateSlots(faculty, labCourse.getBatch(), consecutiveSlots, combinedEntries)) {
+                    if (areConsecutive && canAllocateSlots(faculty, labCourse.getBatch(), consecutiveSlots, occupancy)) {
                         // Allocate all consecutive slots for this lab
                         for (TimeSlot slot : consecutiveSlots) {
                             TimetableEntry entry = new TimetableEntry(
@@ -907,6 +1061,7 @@ public class TimetableService {
                                 semester
                             );
                             newEntries.add(entry);
+                            occupancy.place(entry);
                         }
                         
                         // Mark this day as allocated
@@ -929,8 +1084,9 @@ public class TimetableService {
     }
     
     private void allocateNonAcademicCoursesWithExisting(Faculty faculty, List<FacultyCourse> facultyCourses, 
-                                                      List<TimetableEntry> newEntries, List<TimetableEntry> existingEntries,
-                                                      String academicYear, String semester) {
+                                                      List<TimetableEntry> newEntries,
+                                                      String academicYear, String semester,
+                                                      TimetableOccupancy occupancy) {
         // Get non-academic courses
         List<FacultyCourse> nonAcademicCourses = facultyCourses.stream()
             .filter(fc -> fc.getCourse().getType() == Course.CourseType.NON_ACADEMIC)
@@ -944,23 +1100,20 @@ public class TimetableService {
         
         // Allocate each non-academic course
         for (FacultyCourse nonAcademicCourse : nonAcademicCourses) {
-            allocateNonAcademicCourseWithExisting(faculty, nonAcademicCourse, allTimeSlots, newEntries, existingEntries, academicYear, semester);
+            allocateNonAcademicCourseWithExisting(faculty, nonAcademicCourse, allTimeSlots, newEntries, academicYear, semester, occupancy);
         }
     }
     
     private void allocateNonAcademicCourseWithExisting(Faculty faculty, FacultyCourse nonAcademicCourse, List<TimeSlot> allTimeSlots, 
-                                                     List<TimetableEntry> newEntries, List<TimetableEntry> existingEntries,
-                                                     String academicYear, String semester) {
+                                                     List<TimetableEntry> newEntries,
+                                                     String academicYear, String semester,
+                                                     TimetableOccupancy occupancy) {
         int periodsToAllocate = nonAcademicCourse.getCourse().getContactPeriods();
         int periodsAllocated = 0;
         
         // Keep track of days already allocated for this non-academic course
         Set<DayOfWeek> allocatedDays = new HashSet<>();
         
-        // Combine existing and new entries for checking
-        List<TimetableEntry> combinedEntries = new ArrayList<>(existingEntries);
-        combinedEntries.addAll(newEntries);
-        
         // Distribute non-academic periods throughout the week (one per day)
         while (periodsAllocated < periodsToAllocate) {
             // Get available days that haven't been allocated yet for this course
@@ -990,7 +1143,7 @@ public class TimetableService {
                 Collections.shuffle(daySlots);
                 
                 for (TimeSlot slot : daySlots) {
-                    if (canAllocateSlot(faculty, nonAcademicCourse.getBatch(), slot, combinedEntries)) {
+                    if (canAllocateSlot(faculty, nonAcademicCourse.getBatch(), slot, occupancy)) {
                         TimetableEntry entry = new TimetableEntry(
                             faculty, 
                             nonAcademicCourse.getCourse(), 
@@ -1000,7 +1153,7 @@ public class TimetableService {
                             semester
                         );
                         newEntries.add(entry);
-                        combinedEntries.add(entry); // Update combined entries
+                        occupancy.place(entry);
                         periodsAllocated++;
                         allocated = true;
                         allocatedDays.add(day);
@@ -1025,8 +1178,9 @@ public class TimetableService {
     }
     
     private void allocateTheoryCoursesWithExisting(Faculty faculty, List<FacultyCourse> facultyCourses, 
-                                                 List<TimetableEntry> newEntries, List<TimetableEntry> existingEntries,
-                                                 String academicYear, String semester) {
+                                                 List<TimetableEntry> newEntries,
+                                                 String academicYear, String semester,
+                                                 TimetableOccupancy occupancy) {
         // Get theory courses
         List<FacultyCourse> theoryCourses = facultyCourses.stream()
             .filter(fc -> fc.getCourse().getType() == Course.CourseType.ACADEMIC)
@@ -1048,17 +1202,17 @@ public class TimetableService {
         for (Map.Entry<Long, List<FacultyCourse>> group : sortedGroups) {
             // For courses taught to multiple batches, ensure different time slots
             if (group.getValue().size() > 1) {
-                allocateMultiBatchTheoryCourseWithExisting(faculty, group.getValue(), allTimeSlots, newEntries, existingEntries, academicYear, semester);
+                allocateMultiBatchTheoryCourseWithExisting(faculty, group.getValue(), allTimeSlots, newEntries, academicYear, semester, occupancy);
             } else {
                 // For single batch courses, use the original method
-                allocateTheoryCourseWithExisting(faculty, group.getValue().get(0), allTimeSlots, newEntries, existingEntries, academicYear, semester);
+                allocateTheoryCourseWithExisting(faculty, group.getValue().get(0), allTimeSlots, newEntries, academicYear, semester, occupancy);
             }
         }
     }
     
     private void allocateMultiBatchTheoryCourseWithExisting(Faculty faculty, List<FacultyCourse> courseBatches,
                                                           List<TimeSlot> allTimeSlots, List<TimetableEntry> newEntries, 
-                                                          List<TimetableEntry> existingEntries, String academicYear, String semester) {
+                                                          String academicYear, String semester, TimetableOccupancy occupancy) {
         logger.info("Allocating course {} for {} batches",
                   courseBatches.get(0).getCourse().getCode(),
                   courseBatches.size());
@@ -1070,10 +1224,6 @@ public class TimetableService {
         // Track allocated slots for each batch to avoid conflicts
         Map<Long, Set<String>> batchAllocatedSlots = new HashMap<>();
         
-        // Combine existing and new entries for checking
-        List<TimetableEntry> combinedEntries = new ArrayList<>(existingEntries);
-        combinedEntries.addAll(newEntries);
-        
         // For each batch
         for (FacultyCourse facultyCourse : courseBatches) {
             Batch batch = facultyCourse.getBatch();
@@ -1094,7 +1244,7 @@ public class TimetableService {
                     String slotKey = slot.getDay() + "-" + slot.getPeriodNumber();
                     
                     // Check if this slot would create continuous theory classes for this course-batch pair
-                    if (isCourseBatchContinuous(slot, batch.getId(), course.getId(), combinedEntries)) {
+                    if (isCourseBatchContinuous(slot, batch.getId(), course.getId(), occupancy)) {
                         continue; // Skip this slot to avoid consecutive periods for same course-batch
                     }
                     
@@ -1111,7 +1261,7 @@ public class TimetableService {
                         continue; // Skip this slot as it's used for another batch
                     }
                     
-                    if (canAllocateSlot(faculty, batch, slot, combinedEntries)) {
+                    if (canAllocateSlot(faculty, batch, slot, occupancy)) {
                         TimetableEntry entry = new TimetableEntry(
                             faculty,
                             course,
@@ -1121,7 +1271,7 @@ public class TimetableService {
                             semester
                         );
                         newEntries.add(entry);
-                        combinedEntries.add(entry); // Update combined entries
+                        occupancy.place(entry);
                         
                         // Track this allocation to avoid continuous classes
                         allocatedPeriodsByDay
@@ -1154,18 +1304,15 @@ public class TimetableService {
     }
     
     private void allocateTheoryCourseWithExisting(Faculty faculty, FacultyCourse theoryCourse, List<TimeSlot> allTimeSlots, 
-                                                List<TimetableEntry> newEntries, List<TimetableEntry> existingEntries,
-                                                String academicYear, String semester) {
+                                                List<TimetableEntry> newEntries,
+                                                String academicYear, String semester,
+                                                TimetableOccupancy occupancy) {
         int periodsToAllocate = theoryCourse.getCourse().getContactPeriods();
         int periodsAllocated = 0;
         
         // Keep track of allocated slots for this course-batch to avoid continuous scheduling
         Map<DayOfWeek, Set<Integer>> allocatedPeriodsByDay = new HashMap<>();
         
-        // Combine existing and new entries for checking
-        List<TimetableEntry> combinedEntries = new ArrayList<>(existingEntries);
-        combinedEntries.addAll(newEntries);
-        
         // Distribute theory periods throughout the week
         while (periodsAllocated < periodsToAllocate) {
             // Shuffle time slots to randomize allocation
@@ -1175,11 +1322,11 @@ public class TimetableService {
             boolean allocated = false;
             for (TimeSlot slot : availableSlots) {
                 // Check if this slot would create continuous theory classes for this course-batch pair
-                if (isCourseBatchContinuous(slot, theoryCourse.getBatch().getId(), theoryCourse.getCourse().getId(), combinedEntries)) {
+                if (isCourseBatchContinuous(slot, theoryCourse.getBatch().getId(), theoryCourse.getCourse().getId(), occupancy)) {
                     continue; // Skip this slot to avoid consecutive periods for same course-batch
                 }
             
-                if (canAllocateSlot(faculty, theoryCourse.getBatch(), slot, combinedEntries)) {
+                if (canAllocateSlot(faculty, theoryCourse.getBatch(), slot, occupancy)) {
                     TimetableEntry entry = new TimetableEntry(
                         faculty, 
                         theoryCourse.getCourse(), 
@@ -1189,7 +1336,7 @@ public class TimetableService {
                         semester
                     );
                     newEntries.add(entry);
-                    combinedEntries.add(entry); // Update combined entries
+                    occupancy.place(entry);
                 
                     // Track this allocation to avoid continuous classes
                     allocatedPeriodsByDay
@@ -1213,159 +1360,51 @@ public class TimetableService {
         }
     }
     
-    private List<String> validateTimetable(List<TimetableEntry> entries) {
-        List<String> violations = new ArrayList<>();
-        
-        // Check lab constraints (max 2 labs per batch per day)
-        Map<Long, Map<DayOfWeek, Set<Long>>> batchLabsByDay = new HashMap<>();
-        
-        // Build the lab allocation map
-        for (TimetableEntry entry : entries) {
-            if (entry.getCourse().getType() == Course.CourseType.LAB) {
-                Long batchId = entry.getBatch().getId();
-                DayOfWeek day = entry.getTimeSlot().getDay();
-                Long courseId = entry.getCourse().getId();
-                
-                batchLabsByDay.computeIfAbsent(batchId, k -> new HashMap<>());
-                batchLabsByDay.get(batchId).computeIfAbsent(day, k -> new HashSet<>());
-                batchLabsByDay.get(batchId).get(day).add(courseId);
-            }
-        }
-        
-        // Check for violations
-        for (Map.Entry<Long, Map<DayOfWeek, Set<Long>>> batchEntry : batchLabsByDay.entrySet()) {
-            Long batchId = batchEntry.getKey();
-            String batchName = entries.stream()
-                .filter(e -> e.getBatch().getId().equals(batchId))
-                .map(e -> e.getBatch().getBatchName())
-                .findFirst()
-                .orElse("Unknown");
-            
-            for (Map.Entry<DayOfWeek, Set<Long>> dayEntry : batchEntry.getValue().entrySet()) {
-                DayOfWeek day = dayEntry.getKey();
-                Set<Long> labCourseIds = dayEntry.getValue();
-                
-                if (labCourseIds.size() > MAX_LABS_PER_DAY) {
-                    violations.add(String.format("Batch %s has %d labs on %s (max allowed: %d)", 
-                                              batchName, labCourseIds.size(), day, MAX_LABS_PER_DAY));
-                }
-            }
-        }
-        
-        // Check for faculty conflicts (same faculty in two places at once)
-        Map<String, List<TimetableEntry>> facultySlotMap = new HashMap<>();
-        
-        for (TimetableEntry entry : entries) {
-            String key = entry.getFaculty().getId() + "-" + entry.getTimeSlot().getDay() + "-" + entry.getTimeSlot().getPeriodNumber();
-            
-            facultySlotMap.computeIfAbsent(key, k -> new ArrayList<>());
-            facultySlotMap.get(key).add(entry);
-            
-            if (facultySlotMap.get(key).size() > 1) {
-                violations.add(String.format("Faculty %s is scheduled twice on %s period %d", 
-                                          entry.getFaculty().getName(), 
-                                          entry.getTimeSlot().getDay(), 
-                                          entry.getTimeSlot().getPeriodNumber()));
-            }
-        }
-        
-        // Check for batch conflicts (same batch in two places at once)
-        Map<String, List<TimetableEntry>> batchSlotMap = new HashMap<>();
-        
-        for (TimetableEntry entry : entries) {
-            String key = entry.getBatch().getId() + "-" + entry.getTimeSlot().getDay() + "-" + entry.getTimeSlot().getPeriodNumber();
-            
-            batchSlotMap.computeIfAbsent(key, k -> new ArrayList<>());
-            batchSlotMap.get(key).add(entry);
-            
-            if (batchSlotMap.get(key).size() > 1) {
-                violations.add(String.format("Batch %s is scheduled twice on %s period %d", 
-                                          entry.getBatch().getBatchName(), 
-                                          entry.getTimeSlot().getDay(), 
-                                          entry.getTimeSlot().getPeriodNumber()));
-            }
-        }
-        
-        // Check for consecutive periods for the same course-batch pair
-        Map<String, List<TimetableEntry>> courseBatchDayMap = new HashMap<>();
-        
-        for (TimetableEntry entry : entries) {
-            if (entry.getCourse().getType() == Course.CourseType.ACADEMIC) {
-                String key = entry.getCourse().getId() + "-" + entry.getBatch().getId() + "-" + entry.getTimeSlot().getDay();
-                
-                courseBatchDayMap.computeIfAbsent(key, k -> new ArrayList<>());
-                courseBatchDayMap.get(key).add(entry);
-            }
-        }
-        
-        // Check each course-batch-day group for consecutive periods
-        for (Map.Entry<String, List<TimetableEntry>> entry : courseBatchDayMap.entrySet()) {
-            List<TimetableEntry> dayEntries = entry.getValue();
-            
-            if (dayEntries.size() > 1) {
-                // Sort by period number
-                dayEntries.sort(Comparator.comparing(e -> e.getTimeSlot().getPeriodNumber()));
-                
-                // Check for consecutive periods
-                for (int i = 0; i < dayEntries.size() - 1; i++) {
-                    TimetableEntry current = dayEntries.get(i);
-                    TimetableEntry next = dayEntries.get(i + 1);
-                    
-                    if (next.getTimeSlot().getPeriodNumber() == current.getTimeSlot().getPeriodNumber() + 1) {
-                        violations.add(String.format("Course %s for batch %s has consecutive periods on %s (%d and %d)",
-                                                  current.getCourse().getCode(),
-                                                  current.getBatch().getBatchName(),
-                                                  current.getTimeSlot().getDay(),
-                                                  current.getTimeSlot().getPeriodNumber(),
-                                                  next.getTimeSlot().getPeriodNumber()));
-                    }
-                }
-            }
-        }
-        
-        return violations;
+    public List<TimetableViolation> validateTimetable(List<TimetableEntry> entries) {
+        return TimetableValidator.validate(entries);
     }
     
     private void allocateLabCourses(Faculty faculty, List<FacultyCourse> facultyCourses, List<TimetableEntry> entries, 
-                                  String academicYear, String semester, Map<Long, Map<DayOfWeek, Set<Long>>> batchLabsByDay) {
+                                  String academicYear, String semester, Map<Long, Map<DayOfWeek, Set<Long>>> batchLabsByDay,
+                                  TimetableOccupancy occupancy, Random random) {
         // Get lab courses
         List<FacultyCourse> labCourses = facultyCourses.stream()
             .filter(fc -> fc.getCourse().getType() == Course.CourseType.LAB)
             .collect(Collectors.toList());
         
         // Shuffle to randomize allocation
-        Collections.shuffle(labCourses);
+        Collections.shuffle(labCourses, random);
         
         // Get all time slots
         List<TimeSlot> allTimeSlots = timeSlotService.getAllNonBreakTimeSlots();
         
         // Allocate each lab course
         for (FacultyCourse labCourse : labCourses) {
-            allocateLabCourse(faculty, labCourse, allTimeSlots, entries, academicYear, semester, batchLabsByDay);
+            allocateLabCourse(faculty, labCourse, allTimeSlots, entries, academicYear, semester, batchLabsByDay, occupancy);
         }
     }
     
     private void allocateNonAcademicCourses(Faculty faculty, List<FacultyCourse> facultyCourses, List<TimetableEntry> entries, 
-                                          String academicYear, String semester) {
+                                          String academicYear, String semester, TimetableOccupancy occupancy, Random random) {
         // Get non-academic courses
         List<FacultyCourse> nonAcademicCourses = facultyCourses.stream()
             .filter(fc -> fc.getCourse().getType() == Course.CourseType.NON_ACADEMIC)
             .collect(Collectors.toList());
         
         // Shuffle to randomize allocation
-        Collections.shuffle(nonAcademicCourses);
+        Collections.shuffle(nonAcademicCourses, random);
         
         // Get all time slots
         List<TimeSlot> allTimeSlots = timeSlotService.getAllNonBreakTimeSlots();
         
         // Allocate each non-academic course
         for (FacultyCourse nonAcademicCourse : nonAcademicCourses) {
-            allocateNonAcademicCourse(faculty, nonAcademicCourse, allTimeSlots, entries, academicYear, semester);
+            allocateNonAcademicCourse(faculty, nonAcademicCourse, allTimeSlots, entries, academicYear, semester, occupancy, random);
         }
     }
     
     private void allocateTheoryCourses(Faculty faculty, List<FacultyCourse> facultyCourses, List<TimetableEntry> entries, 
-                                 String academicYear, String semester) {
+                                 String academicYear, String semester, TimetableOccupancy occupancy, Random random) {
         // Get theory courses
         List<FacultyCourse> theoryCourses = facultyCourses.stream()
             .filter(fc -> fc.getCourse().getType() == Course.CourseType.ACADEMIC)
@@ -1387,10 +1426,10 @@ public class TimetableService {
         for (Map.Entry<Long, List<FacultyCourse>> group : sortedGroups) {
             // For courses taught to multiple batches, ensure different time slots
             if (group.getValue().size() > 1) {
-                allocateMultiBatchTheoryCourse(faculty, group.getValue(), allTimeSlots, entries, academicYear, semester);
+                allocateMultiBatchTheoryCourse(faculty, group.getValue(), allTimeSlots, entries, academicYear, semester, occupancy, random);
             } else {
                 // For single batch courses, use the original method
-                allocateTheoryCourse(faculty, group.getValue().get(0), allTimeSlots, entries, academicYear, semester);
+                allocateTheoryCourse(faculty, group.getValue().get(0), allTimeSlots, entries, academicYear, semester, occupancy, random);
             }
         }
     }
@@ -1398,7 +1437,8 @@ public class TimetableService {
     // Add a new method to handle courses taught to multiple batches
     private void allocateMultiBatchTheoryCourse(Faculty faculty, List<FacultyCourse> courseBatches,
                                               List<TimeSlot> allTimeSlots, List<TimetableEntry> entries,
-                                              String academicYear, String semester) {
+                                              String academicYear, String semester, TimetableOccupancy occupancy,
+                                              Random random) {
         logger.info("Allocating course {} for {} batches",
                   courseBatches.get(0).getCourse().getCode(),
                   courseBatches.size());
@@ -1422,7 +1462,7 @@ public class TimetableService {
             while (periodsAllocated < periodsPerBatch) {
                 // Shuffle time slots to randomize allocation
                 List<TimeSlot> availableSlots = new ArrayList<>(allTimeSlots);
-                Collections.shuffle(availableSlots);
+                Collections.shuffle(availableSlots, random);
             
                 boolean allocated = false;
                 for (TimeSlot slot : availableSlots) {
@@ -1430,7 +1470,7 @@ public class TimetableService {
                     String slotKey = slot.getDay() + "-" + slot.getPeriodNumber();
                 
                     // Check if this slot would create consecutive periods for this course-batch pair
-                    if (isCourseBatchContinuous(slot, batch.getId(), course.getId(), entries)) {
+                    if (isCourseBatchContinuous(slot, batch.getId(), course.getId(), occupancy)) {
                         continue; // Skip this slot to avoid consecutive periods for same course-batch
                     }
                 
@@ -1447,7 +1487,7 @@ public class TimetableService {
                         continue; // Skip this slot as it's used for another batch
                     }
                 
-                    if (canAllocateSlot(faculty, batch, slot, entries)) {
+                    if (canAllocateSlot(faculty, batch, slot, occupancy)) {
                         TimetableEntry entry = new TimetableEntry(
                             faculty,
                             course,
@@ -1457,6 +1497,7 @@ public class TimetableService {
                             semester
                         );
                         entries.add(entry);
+                        occupancy.place(entry);
                 
                         // Track this allocation to avoid continuous classes
                         allocatedPeriodsByDay
@@ -1490,7 +1531,8 @@ public class TimetableService {
     
     private void allocateLabCourse(Faculty faculty, FacultyCourse labCourse, List<TimeSlot> allTimeSlots, 
                                   List<TimetableEntry> entries, String academicYear, String semester,
-                                  Map<Long, Map<DayOfWeek, Set<Long>>> batchLabsByDay) {
+                                  Map<Long, Map<DayOfWeek, Set<Long>>> batchLabsByDay,
+                                  TimetableOccupancy occupancy) {
         // Labs need consecutive periods and should not be in first period
         int totalPeriodsNeeded = labCourse.getCourse().getContactPeriods();
         
@@ -1546,7 +1588,7 @@ public class TimetableService {
                         }
                     }
                     
-                    if (areConsecutive && canAllocateSlots(faculty, labCourse.getBatch(), consecutiveSlots, entries)) {
+                    if (areConsecutive && canAllocateSlots(faculty, labCourse.getBatch(), consecutiveSlots, occupancy)) {
                         // Allocate all consecutive slots for this lab
                         for (TimeSlot slot : consecutiveSlots) {
                             TimetableEntry entry = new TimetableEntry(
@@ -1558,6 +1600,7 @@ public class TimetableService {
                                 semester
                             );
                             entries.add(entry);
+                            occupancy.place(entry);
                         }
                         
                         // Mark this day as allocated
@@ -1591,7 +1634,8 @@ public class TimetableService {
     }
     
     private void allocateNonAcademicCourse(Faculty faculty, FacultyCourse nonAcademicCourse, List<TimeSlot> allTimeSlots, 
-                                         List<TimetableEntry> entries, String academicYear, String semester) {
+                                         List<TimetableEntry> entries, String academicYear, String semester,
+                                         TimetableOccupancy occupancy, Random random) {
         int periodsToAllocate = nonAcademicCourse.getCourse().getContactPeriods();
         int periodsAllocated = 0;
         
@@ -1613,7 +1657,7 @@ public class TimetableService {
                     .collect(Collectors.toList());
             }
             
-            Collections.shuffle(availableDays);
+            Collections.shuffle(availableDays, random);
             
             boolean allocated = false;
             for (DayOfWeek day : availableDays) {
@@ -1624,10 +1668,10 @@ public class TimetableService {
                            ts.getPeriodNumber() < getLastPeriodNumber(allTimeSlots, day)) // Not last period
                     .collect(Collectors.toList());
                 
-                Collections.shuffle(daySlots);
+                Collections.shuffle(daySlots, random);
                 
                 for (TimeSlot slot : daySlots) {
-                    if (canAllocateSlot(faculty, nonAcademicCourse.getBatch(), slot, entries)) {
+                    if (canAllocateSlot(faculty, nonAcademicCourse.getBatch(), slot, occupancy)) {
                         TimetableEntry entry = new TimetableEntry(
                             faculty, 
                             nonAcademicCourse.getCourse(), 
@@ -1637,6 +1681,7 @@ public class TimetableService {
                             semester
                         );
                         entries.add(entry);
+                        occupancy.place(entry);
                         periodsAllocated++;
                         allocated = true;
                         allocatedDays.add(day);
@@ -1669,7 +1714,8 @@ public class TimetableService {
     }
     
     private void allocateTheoryCourse(Faculty faculty, FacultyCourse theoryCourse, List<TimeSlot> allTimeSlots, 
-                                     List<TimetableEntry> entries, String academicYear, String semester) {
+                                     List<TimetableEntry> entries, String academicYear, String semester,
+                                     TimetableOccupancy occupancy, Random random) {
         int periodsToAllocate = theoryCourse.getCourse().getContactPeriods();
         int periodsAllocated = 0;
         
@@ -1680,16 +1726,16 @@ public class TimetableService {
         while (periodsAllocated < periodsToAllocate) {
             // Shuffle time slots to randomize allocation
             List<TimeSlot> availableSlots = new ArrayList<>(allTimeSlots);
-            Collections.shuffle(availableSlots);
+            Collections.shuffle(availableSlots, random);
             
             boolean allocated = false;
             for (TimeSlot slot : availableSlots) {
                 // Check if this slot would create consecutive periods for this course-batch pair
-                if (isCourseBatchContinuous(slot, theoryCourse.getBatch().getId(), theoryCourse.getCourse().getId(), entries)) {
+                if (isCourseBatchContinuous(slot, theoryCourse.getBatch().getId(), theoryCourse.getCourse().getId(), occupancy)) {
                     continue; // Skip this slot to avoid consecutive periods for same course-batch
                 }
             
-                if (canAllocateSlot(faculty, theoryCourse.getBatch(), slot, entries)) {
+                if (canAllocateSlot(faculty, theoryCourse.getBatch(), slot, occupancy)) {
                     TimetableEntry entry = new TimetableEntry(
                         faculty, 
                         theoryCourse.getCourse(), 
@@ -1699,6 +1745,7 @@ public class TimetableService {
                         semester
                     );
                     entries.add(entry);
+                    occupancy.place(entry);
                 
                     // Track this allocation to avoid continuous classes
                     allocatedPeriodsByDay
@@ -1723,64 +1770,24 @@ public class TimetableService {
     }
 
     // Modified to check for consecutive periods for the same course-batch pair
-    private boolean isCourseBatchContinuous(TimeSlot slot, Long batchId, Long courseId, List<TimetableEntry> entries) {
+    private boolean isCourseBatchContinuous(TimeSlot slot, Long batchId, Long courseId, TimetableOccupancy occupancy) {
         DayOfWeek day = slot.getDay();
         int period = slot.getPeriodNumber();
     
         // Check if the previous or next period is already allocated for this course-batch on this day
-        boolean hasPreviousPeriod = entries.stream()
-            .anyMatch(e -> e.getCourse().getId().equals(courseId) && 
-                     e.getBatch().getId().equals(batchId) &&
-                     e.getTimeSlot().getDay() == day && 
-                     e.getTimeSlot().getPeriodNumber() == period - 1);
-                 
-        boolean hasNextPeriod = entries.stream()
-            .anyMatch(e -> e.getCourse().getId().equals(courseId) && 
-                     e.getBatch().getId().equals(batchId) &&
-                     e.getTimeSlot().getDay() == day && 
-                     e.getTimeSlot().getPeriodNumber() == period + 1);
-    
-        return hasPreviousPeriod || hasNextPeriod;
+        return occupancy.hasCourseBatch(courseId, batchId, day, period - 1)
+            || occupancy.hasCourseBatch(courseId, batchId, day, period + 1);
     }
     
-    private boolean canAllocateSlot(Faculty faculty, Batch batch, TimeSlot slot, List<TimetableEntry> entries) {
-        // Check if faculty is already allocated in this time slot
-        boolean facultyBusy = entries.stream()
-            .anyMatch(e -> e.getFaculty().getId().equals(faculty.getId()) && 
-                     e.getTimeSlot().getDay() == slot.getDay() && 
-                     e.getTimeSlot().getPeriodNumber() == slot.getPeriodNumber());
-        
-        if (facultyBusy) {
-            return false;
-        }
-        
-        // Check if batch is already allocated in this time slot
-        boolean batchBusy = entries.stream()
-            .anyMatch(e -> e.getBatch().getId().equals(batch.getId()) && 
-                     e.getTimeSlot().getDay() == slot.getDay() && 
-                     e.getTimeSlot().getPeriodNumber() == slot.getPeriodNumber());
-        
-        if (batchBusy) {
-            return false;
-        }
-        
-        // Check existing timetable entries in database
-        Optional<TimetableEntry> facultyEntry = timetableEntryRepository.findByFacultyIdAndDayAndPeriod(
-            faculty.getId(), slot.getDay(), slot.getPeriodNumber());
-        
-        if (facultyEntry.isPresent()) {
-            return false;
-        }
-        
-        Optional<TimetableEntry> batchEntry = timetableEntryRepository.findByBatchIdAndDayAndPeriod(
-            batch.getId(), slot.getDay(), slot.getPeriodNumber());
-        
-        return !batchEntry.isPresent();
+    private boolean canAllocateSlot(Faculty faculty, Batch batch, TimeSlot slot, TimetableOccupancy occupancy) {
+        // The grid holds both the persisted timetable of other faculty and the entries placed so far
+        return !occupancy.isFacultyBusy(faculty.getId(), slot.getDay(), slot.getPeriodNumber())
+            && !occupancy.isBatchBusy(batch.getId(), slot.getDay(), slot.getPeriodNumber());
     }
     
-    private boolean canAllocateSlots(Faculty faculty, Batch batch, List<TimeSlot> slots, List<TimetableEntry> entries) {
+    private boolean canAllocateSlots(Faculty faculty, Batch batch, List<TimeSlot> slots, TimetableOccupancy occupancy) {
         for (TimeSlot slot : slots) {
-            if (!canAllocateSlot(faculty, batch, slot, entries)) {
+            if (!canAllocateSlot(faculty, batch, slot, occupancy)) {
                 return false;
             }
         }
@@ -1821,8 +1828,8 @@ public class TimetableService {
     }
 
     // Add a more aggressive slot finding method for multi-batch scenarios
-    private TimetableEntry findAlternativeSlotAggressively(TimetableEntry entry, List<TimetableEntry> existingEntries,
-                                                         String academicYear, String semester) {
+    private TimetableEntry findAlternativeSlotAggressively(TimetableEntry entry, String academicYear, String semester,
+                                                         TimetableOccupancy occupancy) {
         Faculty faculty = entry.getFaculty();
         Course course = entry.getCourse();
         Batch batch = entry.getBatch();
@@ -1833,23 +1840,8 @@ public class TimetableService {
     
         // For each time slot
         for (TimeSlot slot : allTimeSlots) {
-            // Check if faculty is already allocated in this time slot
-            boolean facultyBusy = existingEntries.stream()
-                .anyMatch(e -> e.getFaculty().getId().equals(faculty.getId()) &&
-                         e.getTimeSlot().getDay() == slot.getDay() &&
-                         e.getTimeSlot().getPeriodNumber() == slot.getPeriodNumber());
-        
-            if (facultyBusy) {
-                continue;
-            }
-        
-            // Check if batch is already allocated in this time slot
-            boolean batchBusy = existingEntries.stream()
-                .anyMatch(e -> e.getBatch().getId().equals(batch.getId()) &&
-                         e.getTimeSlot().getDay() == slot.getDay() &&
-                         e.getTimeSlot().getPeriodNumber() == slot.getPeriodNumber());
-        
-            if (batchBusy) {
+            // Skip slots where the faculty or the batch is already allocated
+            if (!canAllocateSlot(faculty, batch, slot, occupancy)) {
                 continue;
             }
         
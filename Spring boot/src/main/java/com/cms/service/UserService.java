@@ -2,6 +2,7 @@ package com.cms.service;
 
 import com.cms.entities.User;
 import com.cms.repository.UserRepository;
+import com.cms.service.jwt.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -19,6 +20,9 @@ public class UserService {
     
     @Autowired
     private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
     
     /**
      * Get user by email
@@ -35,7 +39,9 @@ public class UserService {
     public void changePassword(String email, String newPassword) {
         User user = getUserByEmail(email);
         user.setPassword(passwordEncoder.encode(newPassword));
+        user.incrementCredentialVersion();
         userRepository.save(user);
+        userDetailsService.credentialsChanged(user, null);
     }
 }
 
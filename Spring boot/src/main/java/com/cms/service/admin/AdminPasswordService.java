@@ -5,6 +5,8 @@ import com.cms.enums.UserRole;
 import com.cms.repository.UserRepository;
 import com.cms.service.EmailService;
 import com.cms.service.OtpService;
+import com.cms.service.jwt.UserDetailsServiceImpl;
+import com.cms.service.mail.MailTemplateService;
 
 import jakarta.mail.internet.MimeMessage;
 
@@ -18,6 +20,8 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Optional;
 import java.util.regex.Pattern;
 
@@ -43,8 +47,14 @@ public class AdminPasswordService {
     @Autowired
     private EmailService emailService;
 
+    @Autowired
+    private MailTemplateService mailTemplateService;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserDetailsServiceImpl userDetailsService;
     
     /**
      * Change email for admin user
@@ -85,6 +95,7 @@ public class AdminPasswordService {
         user.incrementCredentialVersion();
         
         userRepository.save(user);
+        userDetailsService.credentialsChanged(user, oldEmail);
 
         // Send email change confirmation email to both old and new addresses
         sendEmailChangeConfirmationEmail(user, oldEmail);
@@ -101,21 +112,18 @@ public class AdminPasswordService {
             // Create HTML email for better user experience
             String subject = "Email Changed Successfully - College Management System";
 
-            String htmlBody = "<p>Dear " + user.getName() + ",</p>"
-                    + "<p>Your email for the College Management System has been changed successfully from "
-                    + oldEmail + " to " + user.getEmail() + ".</p>"
-                    + "<p>If you did not make this change, please contact the system administrator immediately.</p>"
-                    + "<p>Thank you.</p>"
-                    + "<p>With Regards,</p>"
-                    + "<p>College Management System</p>";
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("userName", user.getName());
+            variables.put("oldEmail", oldEmail);
+            variables.put("newEmail", user.getEmail());
+            variables.put("confirmation", true);
 
-            // Send HTML email
             MimeMessage message = emailService.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
             helper.setTo(user.getEmail());
             helper.setSubject(subject);
-            helper.setText(htmlBody, true);
+            mailTemplateService.get("email-changed").renderInto(helper, variables);
 
             emailService.sendEmail(message);
             logger.info("Email change confirmation sent to new email: {}", user.getEmail());
@@ -132,20 +140,18 @@ public class AdminPasswordService {
         try {
             String subject = "Your Email Has Been Changed - College Management System";
 
-            String htmlBody = "<p>Dear " + userName + ",</p>"
-                    + "<p>Your email for the College Management System has been changed from "
-                    + oldEmail + " to " + newEmail + ".</p>"
-                    + "<p>If you did not make this change, please contact the system administrator immediately.</p>"
-                    + "<p>Thank you.</p>"
-                    + "<p>With Regards,</p>"
-                    + "<p>College Management System</p>";
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("userName", userName);
+            variables.put("oldEmail", oldEmail);
+            variables.put("newEmail", newEmail);
+            variables.put("confirmation", false);
 
             MimeMessage message = emailService.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
 
             helper.setTo(oldEmail);
             helper.setSubject(subject);
-            helper.setText(htmlBody, true);
+            mailTemplateService.get("email-changed").renderInto(helper, variables);
 
             emailService.sendEmail(message);
             logger.info("Email change notification sent to old email: {}", oldEmail);
@@ -238,6 +244,7 @@ public class AdminPasswordService {
         user.incrementCredentialVersion();
         
         userRepository.save(user);
+        userDetailsService.credentialsChanged(user, null);
         
         // Clear OTP
         otpService.clearOtp(email);
@@ -294,22 +301,17 @@ public class AdminPasswordService {
             // Create HTML email for better user experience
             String subject = "Password Reset OTP - College Management System";
             
-            String htmlBody = "<p>Dear " + user.getName() + ",</p>"
-                    + "<p>You have requested to reset your password for the College Management System.</p>"
-                    + "<p>Your One-Time Password (OTP) for password reset is: <strong>" + otp + "</strong></p>"
-                    + "<p>This OTP will expire in 3 minutes.</p>"
-                    + "<p>If you did not request this password reset, please ignore this email or contact the system administrator.</p>"
-                    + "<p>Thank you.</p>"
-                    + "<p>With Regards,</p>"
-                    + "<p>College Management System</p>";
-            
-            // Send HTML email
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("userName", user.getName());
+            variables.put("otp", otp);
+            variables.put("expiryMinutes", 3);
+
             MimeMessage message = emailService.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
             
             helper.setTo(user.getEmail());
             helper.setSubject(subject);
-            helper.setText(htmlBody, true);
+            mailTemplateService.get("password-reset-otp").renderInto(helper, variables);
             
             emailService.sendEmail(message);
             logger.info("Password reset OTP email sent successfully to: {}", user.getEmail());
@@ -327,20 +329,15 @@ public class AdminPasswordService {
             // Create HTML email for better user experience
             String subject = "Password Changed Successfully - College Management System";
             
-            String htmlBody = "<p>Dear " + user.getName() + ",</p>"
-                    + "<p>Your password for the College Management System has been changed successfully.</p>"
-                    + "<p>If you did not make this change, please contact the system administrator immediately.</p>"
-                    + "<p>Thank you.</p>"
-                    + "<p>With Regards,</p>"
-                    + "<p>College Management System</p>";
-            
-            // Send HTML email
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("userName", user.getName());
+
             MimeMessage message = emailService.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
             
             helper.setTo(user.getEmail());
             helper.setSubject(subject);
-            helper.setText(htmlBody, true);
+            mailTemplateService.get("password-changed").renderInto(helper, variables);
             
             emailService.sendEmail(message);
             logger.info("Password change confirmation email sent successfully to: {}", user.getEmail());
@@ -391,6 +388,7 @@ public class AdminPasswordService {
         targetUser.incrementCredentialVersion();
         
         userRepository.save(targetUser);
+        userDetailsService.credentialsChanged(targetUser, null);
         
         // Send notification emails
         sendForcedPasswordResetNotification(targetUser);
@@ -406,20 +404,15 @@ public class AdminPasswordService {
         try {
             String subject = "Your Password Has Been Reset - College Management System";
             
-            String htmlBody = "<p>Dear " + user.getName() + ",</p>"
-                    + "<p>Your password for the College Management System has been reset by an administrator.</p>"
-                    + "<p>Please contact the system administrator for your new temporary password.</p>"
-                    + "<p>We recommend changing your password after logging in.</p>"
-                    + "<p>Thank you.</p>"
-                    + "<p>With Regards,</p>"
-                    + "<p>College Management System</p>";
-            
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("userName", user.getName());
+
             MimeMessage message = emailService.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
             
             helper.setTo(user.getEmail());
             helper.setSubject(subject);
-            helper.setText(htmlBody, true);
+            mailTemplateService.get("password-reset-forced").renderInto(helper, variables);
             
             emailService.sendEmail(message);
             logger.info("Forced password reset notification sent to user: {}", user.getEmail());
@@ -435,19 +428,16 @@ public class AdminPasswordService {
         try {
             String subject = "Password Reset Confirmation - College Management System";
             
-            String htmlBody = "<p>Dear " + admin.getName() + ",</p>"
-                    + "<p>You have successfully reset the password for user: " + targetUser.getEmail() + ".</p>"
-                    + "<p>The user has been notified about this change.</p>"
-                    + "<p>Thank you.</p>"
-                    + "<p>With Regards,</p>"
-                    + "<p>College Management System</p>";
-            
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("userName", admin.getName());
+            variables.put("targetEmail", targetUser.getEmail());
+
             MimeMessage message = emailService.createMimeMessage();
             MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
             
             helper.setTo(admin.getEmail());
             helper.setSubject(subject);
-            helper.setText(htmlBody, true);
+            mailTemplateService.get("admin-password-reset").renderInto(helper, variables);
             
             emailService.sendEmail(message);
             logger.info("Admin password reset confirmation sent to: {}", admin.getEmail());
@@ -19,8 +19,6 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -136,21 +134,22 @@ public class AdminServiceImpl {
         
         try {
             // Now use the authentication manager
-            Authentication authentication = authenticationManager.authenticate(
+            authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
             );
 
-            final UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            final String jwt = jwtUtil.generateToken(userDetails);
-
             // Determine entity ID based on role
             Long entityId = null;
+            Long studentId = null;
+            Long facultyId = null;
             if (user.getUserRole() == UserRole.FACULTY && user.getFaculty() != null) {
-                entityId = user.getFaculty().getId();
+                entityId = facultyId = user.getFaculty().getId();
             } else if (user.getUserRole() == UserRole.STUDENT && user.getStudent() != null) {
-                entityId = user.getStudent().getId();
+                entityId = studentId = user.getStudent().getId();
             }
 
+            final String jwt = jwtUtil.generateToken(user, studentId, facultyId);
+
             logger.info("Login successful for user: {}", request.getEmail());
             return new AuthenticationResponse(jwt, user.getUserRole(), entityId);
         } catch (BadCredentialsException e) {
@@ -197,12 +196,11 @@ public class AdminServiceImpl {
         
         try {
             // Now use the authentication manager
-            Authentication authentication = authenticationManager.authenticate(
+            authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
             );
 
-            final UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            final String jwt = jwtUtil.generateToken(userDetails);
+            final String jwt = jwtUtil.generateToken(user, null, null);
 
             logger.info("Admin login successful for user: {}", request.getEmail());
             return new AuthenticationResponse(jwt, user.getUserRole(), null);
@@ -249,12 +247,11 @@ public class AdminServiceImpl {
         
         try {
             // Now use the authentication manager
-            Authentication authentication = authenticationManager.authenticate(
+            authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
             );
 
-            final UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            final String jwt = jwtUtil.generateToken(userDetails);
+            final String jwt = jwtUtil.generateToken(user, null, faculty.getId());
 
             logger.info("Faculty login successful for user: {}", request.getEmail());
             return new AuthenticationResponse(jwt, user.getUserRole(), faculty.getId());
@@ -301,12 +298,11 @@ public class AdminServiceImpl {
 
         try {
             // Now use the authentication manager
-            Authentication authentication = authenticationManager.authenticate(
+            authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
             );
 
-            final UserDetails userDetails = (UserDetails) authentication.getPrincipal();
-            final String jwt = jwtUtil.generateToken(userDetails);
+            final String jwt = jwtUtil.generateToken(user, student.getId(), null);
 
             logger.info("Student login successful for user: {}", request.getEmail());
             return new AuthenticationResponse(jwt, user.getUserRole(), student.getId());
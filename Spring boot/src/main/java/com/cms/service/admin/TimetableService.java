@@ -7,19 +7,30 @@ import com.cms.dto.TimetableGenerationDTO;
 import com.cms.entities.*;
 import com.cms.repository.*;
 import com.cms.service.TimeSlotService;
+import com.cms.service.timetable.TimetableEntryWriter;
+import com.cms.service.timetable.TimetableOccupancy;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.DayOfWeek;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
+/**
+ * Genetic-algorithm timetable generator.
+ * A chromosome is an int array holding one slot index (day * 8 + period - 1) per gene, where a
+ * gene is one theory period or one whole lab block. Fitness is a penalty score computed once per
+ * chromosome on flat counter arrays; lower is better and 0 means no constraint is broken.
+ */
 @Service
 @ConditionalOnProperty(name = "cms.service.enabled", havingValue = "true", matchIfMissing = true)
 public class TimetableService {
-    
+    private static final Logger logger = LoggerFactory.getLogger(TimetableService.class);
+
     @Autowired
     private TimetableEntryRepository timetableEntryRepository;
 
@@ -32,9 +43,33 @@ public class TimetableService {
     @Autowired
     private TimeSlotService timeSlotService;
 
+    @Autowired
+    private TimetableEntryWriter timetableEntryWriter;
+
     private static final int POPULATION_SIZE = 50;
-    private static final int GENERATIONS = 100;
+    private static final int GENERATIONS = 500;
     private static final double MUTATION_RATE = 0.1;
+    private static final int TOURNAMENT_SIZE = 3;
+    private static final int ELITE_COUNT = 2;
+
+    // Penalty weights
+    private static final int CLASH_PENALTY = 10;
+    private static final int LAB_RULE_PENALTY = 5;
+    private static final int CONSECUTIVE_THEORY_PENALTY = 2;
+
+    private static final int MAX_LABS_PER_DAY = com.cms.service.TimetableService.MAX_LABS_PER_DAY;
+    private static final int DAYS = TimetableOccupancy.DAYS;
+    private static final int PERIODS = TimetableOccupancy.PERIODS;
+    private static final int SLOTS = TimetableOccupancy.SLOTS;
+    private static final long LAST_PERIOD_MASK;
+
+    static {
+        long last = 0L;
+        for (int day = 0; day < DAYS; day++) {
+            last |= 1L << (day * PERIODS + PERIODS - 1);
+        }
+        LAST_PERIOD_MASK = last;
+    }
 
     @Transactional
     public List<TimetableEntryDTO> generateTimetable(TimetableGenerationDTO dto) {
@@ -45,96 +80,309 @@ public class TimetableService {
         if (facultyCourses.isEmpty()) {
             throw new RuntimeException("No courses assigned to faculty");
         }
-        
-        List<TimetableEntry> bestSolution = runGeneticAlgorithm(faculty, facultyCourses, dto.getAcademicYear(), dto.getSemester());
-        timetableEntryRepository.deleteAll(timetableEntryRepository.findByFacultyId(dto.getFacultyId()));
-        timetableEntryRepository.saveAll(bestSolution);
-        
+
+        // Slots of every other faculty are fixed; only batch occupancy matters to this faculty's genes
+        TimetableOccupancy occupancy = TimetableOccupancy.fromSlotRows(
+                timetableEntryRepository.findSlotOccupancyExcludingFaculty(dto.getFacultyId()));
+
+        List<TimetableEntry> bestSolution = runGeneticAlgorithm(faculty, facultyCourses, occupancy, dto.getAcademicYear(), dto.getSemester());
+        if (bestSolution.isEmpty()) {
+            throw new RuntimeException("Failed to generate a valid timetable: no course could be placed");
+        }
+        timetableEntryWriter.replace(List.of(faculty.getId()), bestSolution);
+
         return convertToDTO(bestSolution);
     }
-    
-    private List<TimetableEntry> runGeneticAlgorithm(Faculty faculty, List<FacultyCourse> facultyCourses, String academicYear, String semester) {
-        List<List<TimetableEntry>> population = initializePopulation(faculty, facultyCourses, academicYear, semester);
-        for (int gen = 0; gen < GENERATIONS; gen++) {
-            population = evolvePopulation(population);
+
+    private List<TimetableEntry> runGeneticAlgorithm(Faculty faculty, List<FacultyCourse> facultyCourses, TimetableOccupancy occupancy,
+                                                     String academicYear, String semester) {
+        long start = System.nanoTime();
+        Genome genome = new Genome(facultyCourses, timeSlotService.getAllNonBreakTimeSlots(), occupancy);
+        for (FacultyCourse fc : genome.unplaceable) {
+            logger.warn("Course {} for batch {} cannot be scheduled for faculty {}: no valid {}",
+                    fc.getCourse().getCode(), fc.getBatch().getBatchName(), faculty.getName(),
+                    fc.getCourse().getType() == Course.CourseType.LAB ? "consecutive lab block" : "time slot");
+        }
+        if (genome.geneCount == 0) {
+            return new ArrayList<>();
+        }
+        SplittableRandom random = new SplittableRandom();
+
+        int[][] population = new int[POPULATION_SIZE][];
+        for (int i = 0; i < POPULATION_SIZE; i++) {
+            population[i] = genome.randomChromosome(random);
+        }
+        int[] fitness = evaluate(genome, population);
+
+        int generation = 0;
+        for (; generation < GENERATIONS && fitness[best(fitness)] > 0; generation++) {
+            Integer[] ranked = rank(fitness);
+            int[][] next = new int[POPULATION_SIZE][];
+
+            // Elites survive unchanged; the rest are bred from tournament winners
+            for (int i = 0; i < ELITE_COUNT; i++) {
+                next[i] = population[ranked[i]];
+            }
+            for (int i = ELITE_COUNT; i < POPULATION_SIZE; i++) {
+                int[] child = crossover(population[tournament(fitness, random)], population[tournament(fitness, random)], random);
+                genome.mutate(child, random);
+                next[i] = child;
+            }
+
+            population = next;
+            fitness = evaluate(genome, population);
         }
-        return population.get(0);
+
+        int winner = best(fitness);
+        logger.info("GA finished for faculty {} after {} generations with penalty {} in {} ms",
+                faculty.getName(), generation, fitness[winner], (System.nanoTime() - start) / 1_000_000);
+        return genome.decode(population[winner], faculty, academicYear, semester);
     }
-    private List<TimetableEntry> generateRandomTimetable(Faculty faculty, List<FacultyCourse> facultyCourses, String academicYear, String semester) {
-        List<TimetableEntry> entries = new ArrayList<>();
-        List<TimeSlot> allTimeSlots = null;
-		try {
-			allTimeSlots = timeSlotService.getAllNonBreakTimeSlots();
-		} catch (Exception e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
-		}
-        Collections.shuffle(allTimeSlots);
-        for (FacultyCourse course : facultyCourses) {
-            int periods = course.getCourse().getContactPeriods();
-            for (int i = 0; i < periods; i++) {
-                TimeSlot slot = allTimeSlots.get(i % allTimeSlots.size());
-                entries.add(new TimetableEntry(faculty, course.getCourse(), course.getBatch(), slot, academicYear, semester));
-            }
-        }
-        return entries;
+
+    private int[] evaluate(Genome genome, int[][] population) {
+        // Chromosomes are independent, so fitness is computed in parallel and only once per chromosome
+        return IntStream.range(0, population.length)
+                .parallel()
+                .map(i -> genome.fitness(population[i]))
+                .toArray();
     }
 
-    private List<List<TimetableEntry>> initializePopulation(Faculty faculty, List<FacultyCourse> facultyCourses, String academicYear, String semester) {
-        List<List<TimetableEntry>> population = new ArrayList<>();
-        for (int i = 0; i < POPULATION_SIZE; i++) {
-            List<TimetableEntry> entries = generateRandomTimetable(faculty, facultyCourses, academicYear, semester);
-            population.add(entries);
+    private int tournament(int[] fitness, SplittableRandom random) {
+        int winner = random.nextInt(fitness.length);
+        for (int i = 1; i < TOURNAMENT_SIZE; i++) {
+            int challenger = random.nextInt(fitness.length);
+            if (fitness[challenger] < fitness[winner]) {
+                winner = challenger;
+            }
         }
-        return population;
+        return winner;
     }
 
-     private List<TimetableEntry> crossover(List<TimetableEntry> parent1, List<TimetableEntry> parent2) {
-        List<TimetableEntry> child = new ArrayList<>();
-        for (int i = 0; i < parent1.size(); i++) {
-            child.add(Math.random() < 0.5 ? parent1.get(i) : parent2.get(i));
+    private int[] crossover(int[] parent1, int[] parent2, SplittableRandom random) {
+        // Uniform crossover into a fresh array, so children never share state with their parents
+        int[] child = new int[parent1.length];
+        for (int i = 0; i < child.length; i++) {
+            child[i] = random.nextBoolean() ? parent1[i] : parent2[i];
         }
         return child;
     }
-     
-     
-     private void mutate(List<TimetableEntry> timetable) {
-         List<TimeSlot> allTimeSlots = timeSlotService.getAllNonBreakTimeSlots();
-         TimetableEntry entry = timetable.get(new Random().nextInt(timetable.size()));
-         entry.setTimeSlot(allTimeSlots.get(new Random().nextInt(allTimeSlots.size())));
-     }
-         
-     private int calculateFitness(List<TimetableEntry> timetable) {
-         int score = 0;
-         Set<String> occupiedSlots = new HashSet<>();
-         for (TimetableEntry entry : timetable) {
-             String key = entry.getFaculty().getId() + "-" + entry.getTimeSlot().getDay() + "-" + entry.getTimeSlot().getPeriodNumber();
-             if (!occupiedSlots.add(key)) {
-                 score += 10;
-             }
-         }
-         return score;
-     }
-    
-    
-    private List<List<TimetableEntry>> evolvePopulation(List<List<TimetableEntry>> population) {
-        population.sort(Comparator.comparingInt(this::calculateFitness));
-        List<List<TimetableEntry>> newPopulation = new ArrayList<>();
-        for (int i = 0; i < POPULATION_SIZE / 2; i++) {
-            List<TimetableEntry> parent1 = population.get(i);
-            List<TimetableEntry> parent2 = population.get(i + 1);
-            List<TimetableEntry> child = crossover(parent1, parent2);
-            if (Math.random() < MUTATION_RATE) {
-                mutate(child);
-            }
-            newPopulation.add(child);
-        }
-        newPopulation.addAll(population.subList(0, POPULATION_SIZE / 2));
-        return newPopulation;
+
+    private static int best(int[] fitness) {
+        int best = 0;
+        for (int i = 1; i < fitness.length; i++) {
+            if (fitness[i] < fitness[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static Integer[] rank(int[] fitness) {
+        Integer[] order = new Integer[fitness.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt(i -> fitness[i]));
+        return order;
+    }
+
+    /**
+     * Immutable problem description shared by every chromosome of a run
+     */
+    private static final class Genome {
+        private final TimeSlot[] slotTable = new TimeSlot[SLOTS];
+        private final int geneCount;
+        private final FacultyCourse[] courseOf;
+        private final int[] length;
+        private final boolean[] lab;
+        private final int[] batch;
+        private final int[] group;
+        private final int[][] domain;
+        private final int batchCount;
+        private final int groupCount;
+        private final long[] fixedBatchBusy;
+        // Courses left out of the chromosome because no slot can hold them
+        private final List<FacultyCourse> unplaceable = new ArrayList<>();
+
+        private Genome(List<FacultyCourse> facultyCourses, List<TimeSlot> timeSlots, TimetableOccupancy occupancy) {
+            // The slot table is built once per run; genes only carry indexes into it
+            long validSlots = 0L;
+            for (TimeSlot slot : timeSlots) {
+                int index = TimetableOccupancy.slotIndex(slot.getDay(), slot.getPeriodNumber());
+                if (index >= 0) {
+                    slotTable[index] = slot;
+                    validSlots |= 1L << index;
+                }
+            }
+            int[] allSlots = bits(validSlots);
+
+            Map<Long, Integer> batchIndex = new LinkedHashMap<>();
+            List<int[]> genes = new ArrayList<>();
+            List<FacultyCourse> geneCourses = new ArrayList<>();
+            List<int[]> geneDomains = new ArrayList<>();
+
+            for (int g = 0; g < facultyCourses.size(); g++) {
+                FacultyCourse fc = facultyCourses.get(g);
+                Course course = fc.getCourse();
+                int periods = course.getContactPeriods() == null ? 0 : course.getContactPeriods();
+                int b = batchIndex.computeIfAbsent(fc.getBatch().getId(), k -> batchIndex.size());
+
+                if (periods == 0) {
+                    continue;
+                }
+                // Every gene needs at least one value, so a course without one is failed here instead of evolved
+                int[] courseDomain = course.getType() == Course.CourseType.LAB
+                        ? bits(labStarts(validSlots, periods)) : allSlots;
+                if (courseDomain.length == 0) {
+                    unplaceable.add(fc);
+                    continue;
+                }
+                if (course.getType() == Course.CourseType.LAB) {
+                    // The whole lab block is one gene, so it can never be split across days
+                    genes.add(new int[]{periods, 1, b, g});
+                    geneCourses.add(fc);
+                    geneDomains.add(courseDomain);
+                } else {
+                    for (int i = 0; i < periods; i++) {
+                        genes.add(new int[]{1, 0, b, g});
+                        geneCourses.add(fc);
+                        geneDomains.add(courseDomain);
+                    }
+                }
+            }
+
+            geneCount = genes.size();
+            courseOf = geneCourses.toArray(new FacultyCourse[0]);
+            length = new int[geneCount];
+            lab = new boolean[geneCount];
+            batch = new int[geneCount];
+            group = new int[geneCount];
+            domain = geneDomains.toArray(new int[0][]);
+            for (int i = 0; i < geneCount; i++) {
+                int[] gene = genes.get(i);
+                length[i] = gene[0];
+                lab[i] = gene[1] == 1;
+                batch[i] = gene[2];
+                group[i] = gene[3];
+            }
+
+            batchCount = batchIndex.size();
+            groupCount = facultyCourses.size();
+            fixedBatchBusy = new long[batchCount];
+            for (Map.Entry<Long, Integer> entry : batchIndex.entrySet()) {
+                fixedBatchBusy[entry.getValue()] = occupancy.batchMask(entry.getKey());
+            }
+        }
+
+        private int[] randomChromosome(SplittableRandom random) {
+            int[] chromosome = new int[geneCount];
+            for (int i = 0; i < geneCount; i++) {
+                chromosome[i] = pick(i, random);
+            }
+            return chromosome;
+        }
+
+        private void mutate(int[] chromosome, SplittableRandom random) {
+            for (int i = 0; i < geneCount; i++) {
+                if (random.nextDouble() < MUTATION_RATE) {
+                    chromosome[i] = pick(i, random);
+                }
+            }
+        }
+
+        private int pick(int gene, SplittableRandom random) {
+            int[] values = domain[gene];
+            return values[random.nextInt(values.length)];
+        }
+
+        /**
+         * Penalty score: double bookings of the faculty or a batch, lab rules and consecutive theory periods
+         */
+        private int fitness(int[] chromosome) {
+            int score = 0;
+            byte[] facultyCount = new byte[SLOTS];
+            long[] batchBusy = fixedBatchBusy.clone();
+            long[] groupBusy = new long[groupCount];
+            boolean[] theoryGroup = new boolean[groupCount];
+            int[] labsPerBatchDay = new int[batchCount * DAYS];
+
+            for (int i = 0; i < geneCount; i++) {
+                int start = chromosome[i];
+                for (int k = 0; k < length[i]; k++) {
+                    int slot = start + k;
+                    long bit = 1L << slot;
+                    if (facultyCount[slot]++ > 0) {
+                        score += CLASH_PENALTY;
+                    }
+                    if ((batchBusy[batch[i]] & bit) != 0) {
+                        score += CLASH_PENALTY;
+                    }
+                    batchBusy[batch[i]] |= bit;
+                    groupBusy[group[i]] |= bit;
+                }
+
+                if (lab[i]) {
+                    if (start % PERIODS == 0) {
+                        score += LAB_RULE_PENALTY;
+                    }
+                    if (++labsPerBatchDay[batch[i] * DAYS + start / PERIODS] > MAX_LABS_PER_DAY) {
+                        score += LAB_RULE_PENALTY;
+                    }
+                } else if (courseOf[i].getCourse().getType() == Course.CourseType.ACADEMIC) {
+                    theoryGroup[group[i]] = true;
+                }
+            }
+
+            // Two periods of the same theory course and batch back to back on one day
+            for (int g = 0; g < groupCount; g++) {
+                if (theoryGroup[g]) {
+                    long mask = groupBusy[g];
+                    score += CONSECUTIVE_THEORY_PENALTY * Long.bitCount(mask & (mask >>> 1) & ~LAST_PERIOD_MASK);
+                }
+            }
+            return score;
+        }
+
+        private List<TimetableEntry> decode(int[] chromosome, Faculty faculty, String academicYear, String semester) {
+            List<TimetableEntry> entries = new ArrayList<>();
+            for (int i = 0; i < geneCount; i++) {
+                FacultyCourse fc = courseOf[i];
+                for (int k = 0; k < length[i]; k++) {
+                    entries.add(new TimetableEntry(faculty, fc.getCourse(), fc.getBatch(), slotTable[chromosome[i] + k], academicYear, semester));
+                }
+            }
+            return entries;
+        }
+
+        // Start slots of lab blocks: same day, not the first period, every period of the block present
+        private static long labStarts(long validSlots, int periods) {
+            if (periods > PERIODS - 1) {
+                return 0L;
+            }
+            long starts = 0L;
+            for (int day = 0; day < DAYS; day++) {
+                for (int period = 1; period + periods <= PERIODS; period++) {
+                    int slot = day * PERIODS + period;
+                    long block = ((1L << periods) - 1) << slot;
+                    if ((validSlots & block) == block) {
+                        starts |= 1L << slot;
+                    }
+                }
+            }
+            return starts;
+        }
+
+        private static int[] bits(long mask) {
+            int[] values = new int[Long.bitCount(mask)];
+            int i = 0;
+            while (mask != 0) {
+                values[i++] = Long.numberOfTrailingZeros(mask);
+                mask &= mask - 1;
+            }
+            return values;
+        }
     }
-    
 
-    
     private List<TimetableEntryDTO> convertToDTO(List<TimetableEntry> entries) {
         return entries.stream().map(entry -> {
             TimetableEntryDTO dto = new TimetableEntryDTO();
@@ -153,4 +401,4 @@ public class TimetableService {
             return dto;
         }).collect(Collectors.toList());
     }
-}
\ No newline at end of file
+}
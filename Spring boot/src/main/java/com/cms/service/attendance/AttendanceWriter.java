@@ -0,0 +1,68 @@
+package com.cms.service.attendance;
+
+import com.cms.entities.Attendance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * JDBC batch insert for attendance rows. Attendance keeps its IDENTITY key, so Hibernate would
+ * insert one row per statement; here rows go out in batches (multi-row INSERTs with
+ * rewriteBatchedStatements) and the generated keys are copied back onto the entities.
+ */
+@Component
+public class AttendanceWriter {
+
+    private static final String INSERT_ATTENDANCE_SQL =
+            "INSERT INTO attendance (student_id, course_id, faculty_id, batch_name, semester_no, total_periods, "
+                    + "periods_attended, attendance_percentage, date) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${attendance.persistence.batch-size:1000}")
+    private int batchSize;
+
+    @Transactional
+    public void insertAll(List<Attendance> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_ATTENDANCE_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                int size = Math.max(1, batchSize);
+                for (int from = 0; from < records.size(); from += size) {
+                    List<Attendance> chunk = records.subList(from, Math.min(records.size(), from + size));
+                    for (Attendance attendance : chunk) {
+                        ps.setLong(1, attendance.getStudent().getId());
+                        ps.setLong(2, attendance.getCourse().getId());
+                        ps.setLong(3, attendance.getFaculty().getId());
+                        ps.setString(4, attendance.getBatchName());
+                        ps.setInt(5, attendance.getSemesterNo());
+                        ps.setInt(6, attendance.getTotalPeriods());
+                        ps.setInt(7, attendance.getPeriodsAttended());
+                        ps.setDouble(8, attendance.getAttendancePercentage());
+                        ps.setString(9, attendance.getDate());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        for (int i = 0; i < chunk.size() && keys.next(); i++) {
+                            chunk.get(i).setId(keys.getLong(1));
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,61 @@
+package com.cms.service.excel;
+
+import java.util.Arrays;
+
+/**
+ * Formatted cell values of one spreadsheet row, as Excel would display them
+ */
+public class ExcelRow {
+
+    private final int rowNumber;
+    private String[] values;
+
+    ExcelRow(int rowNumber) {
+        this.rowNumber = rowNumber;
+        this.values = new String[8];
+    }
+
+    void set(int column, String value) {
+        if (column >= values.length) {
+            values = Arrays.copyOf(values, Math.max(column + 1, values.length * 2));
+        }
+        values[column] = value;
+    }
+
+    /**
+     * 1-based row number as shown in Excel
+     */
+    public int getRowNumber() {
+        return rowNumber;
+    }
+
+    public boolean hasCell(int column) {
+        return column < values.length && values[column] != null && !values[column].isEmpty();
+    }
+
+    /**
+     * Formatted value of a cell, or an empty string when the cell is missing
+     */
+    public String getString(int column) {
+        return hasCell(column) ? values[column] : "";
+    }
+
+    /**
+     * Cell value as a whole number, or null when it is missing or not numeric
+     */
+    public Long getLong(int column) {
+        try {
+            return hasCell(column) ? Long.parseLong(values[column].trim()) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    public Integer getInteger(int column) {
+        try {
+            return hasCell(column) ? Integer.parseInt(values[column].trim()) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
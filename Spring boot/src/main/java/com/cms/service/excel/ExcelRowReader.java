@@ -0,0 +1,102 @@
+package com.cms.service.excel;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DataFormatter;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.eventusermodel.XSSFSheetXMLHandler;
+import org.apache.poi.xssf.usermodel.XSSFComment;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * Streams the rows of the first sheet of an .xlsx file to a consumer using POI's SAX event API.
+ * Only the shared string table and the current row are held in memory, unlike new XSSFWorkbook(is)
+ * which builds the whole workbook. Rows are delivered in sheet order, including rows without values.
+ */
+public final class ExcelRowReader {
+
+    private ExcelRowReader() {
+    }
+
+    /**
+     * Read the first sheet, skipping the first headerRows rows
+     */
+    public static void read(InputStream in, int headerRows, Consumer<ExcelRow> consumer) throws IOException {
+        // The package is opened from a temporary file so entries are read from disk on demand
+        Path tempFile = Files.createTempFile("cms-upload-", ".xlsx");
+        try {
+            Files.copy(in, tempFile, StandardCopyOption.REPLACE_EXISTING);
+            try (OPCPackage pkg = OPCPackage.open(tempFile.toFile(), PackageAccess.READ)) {
+                XSSFReader reader = new XSSFReader(pkg);
+                Iterator<InputStream> sheets = reader.getSheetsData();
+                if (!sheets.hasNext()) {
+                    return;
+                }
+
+                XMLReader parser = XMLHelper.newXMLReader();
+                parser.setContentHandler(new XSSFSheetXMLHandler(reader.getStylesTable(),
+                        new ReadOnlySharedStringsTable(pkg), new RowCollector(headerRows, consumer),
+                        new DataFormatter(), false));
+                try (InputStream sheet = sheets.next()) {
+                    parser.parse(new InputSource(sheet));
+                }
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("Could not read Excel file: " + e.getMessage(), e);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Assembles the cell callbacks of one row into an ExcelRow and hands it on at the end of the row
+     */
+    private static class RowCollector implements XSSFSheetXMLHandler.SheetContentsHandler {
+        private final int headerRows;
+        private final Consumer<ExcelRow> consumer;
+        private int rowsSeen;
+        private ExcelRow current;
+        private int nextColumn;
+
+        private RowCollector(int headerRows, Consumer<ExcelRow> consumer) {
+            this.headerRows = headerRows;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public void startRow(int rowNum) {
+            current = new ExcelRow(rowNum + 1);
+            nextColumn = 0;
+        }
+
+        @Override
+        public void endRow(int rowNum) {
+            if (rowsSeen++ >= headerRows) {
+                consumer.accept(current);
+            }
+            current = null;
+        }
+
+        @Override
+        public void cell(String cellReference, String formattedValue, XSSFComment comment) {
+            int column = cellReference == null ? nextColumn : new CellReference(cellReference).getCol();
+            current.set(column, formattedValue);
+            nextColumn = column + 1;
+        }
+    }
+}
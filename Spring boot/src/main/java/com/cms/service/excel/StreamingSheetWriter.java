@@ -0,0 +1,97 @@
+package com.cms.service.excel;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Font;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Single-sheet .xlsx export on SXSSFWorkbook. Only the last rowWindow rows are kept in memory,
+ * older rows are flushed to a compressed temp file, and the finished workbook is written straight
+ * to the target stream. Column widths come from the longest value written to each column instead
+ * of autoSizeColumn, which would have to re-measure every cell.
+ */
+public class StreamingSheetWriter implements AutoCloseable {
+
+    // Excel measures widths in 1/256 of a character
+    private static final int CHAR_WIDTH = 256;
+    private static final int WIDTH_PADDING = 2;
+    private static final int MAX_WIDTH_CHARS = 60;
+
+    private final SXSSFWorkbook workbook;
+    private final SXSSFSheet sheet;
+    private final int[] widths;
+    private int nextRow;
+
+    public StreamingSheetWriter(String sheetName, String[] columns, boolean boldHeader, int rowWindow) {
+        this.workbook = new SXSSFWorkbook(rowWindow);
+        this.workbook.setCompressTempFiles(true);
+        this.sheet = workbook.createSheet(sheetName);
+        this.widths = new int[columns.length];
+
+        CellStyle headerStyle = null;
+        if (boldHeader) {
+            headerStyle = workbook.createCellStyle();
+            Font headerFont = workbook.createFont();
+            headerFont.setBold(true);
+            headerStyle.setFont(headerFont);
+        }
+        Row headerRow = sheet.createRow(nextRow++);
+        for (int i = 0; i < columns.length; i++) {
+            Cell cell = headerRow.createCell(i);
+            cell.setCellValue(columns[i]);
+            if (headerStyle != null) {
+                cell.setCellStyle(headerStyle);
+            }
+            track(i, columns[i]);
+        }
+    }
+
+    /**
+     * Append a row; numbers become numeric cells, null leaves the cell blank, anything else is text
+     */
+    public void addRow(Object... values) {
+        Row row = sheet.createRow(nextRow++);
+        for (int i = 0; i < values.length; i++) {
+            Cell cell = row.createCell(i);
+            Object value = values[i];
+            if (value instanceof Number number) {
+                cell.setCellValue(number.doubleValue());
+            } else if (value != null) {
+                cell.setCellValue(value.toString());
+            }
+            track(i, value);
+        }
+    }
+
+    /**
+     * Apply the collected column widths and write the workbook to out
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        for (int i = 0; i < widths.length; i++) {
+            sheet.setColumnWidth(i, Math.min(widths[i] + WIDTH_PADDING, MAX_WIDTH_CHARS) * CHAR_WIDTH);
+        }
+        workbook.write(out);
+        out.flush();
+    }
+
+    private void track(int column, Object value) {
+        if (value != null && column < widths.length) {
+            widths[column] = Math.max(widths[column], value.toString().length());
+        }
+    }
+
+    /**
+     * Delete the temp files backing flushed rows
+     */
+    @Override
+    public void close() throws IOException {
+        workbook.dispose();
+        workbook.close();
+    }
+}
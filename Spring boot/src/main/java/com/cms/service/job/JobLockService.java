@@ -0,0 +1,60 @@
+package com.cms.service.job;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+
+/**
+ * Lease-style locks in the job_locks table so a job runs on one node at a time.
+ * Every statement is a single auto-committed UPDATE judged against the database clock, so
+ * nodes with drifting clocks still agree on who holds a lock. A node that dies simply stops
+ * renewing and the lock becomes free once its lease runs out.
+ */
+@Component
+public class JobLockService {
+
+    private static final String CREATE_SQL =
+            "INSERT IGNORE INTO job_locks (name, locked_by, locked_at, locked_until) VALUES (?, '', NOW(3), NOW(3))";
+
+    private static final String ACQUIRE_SQL =
+            "UPDATE job_locks SET locked_by = ?, locked_at = NOW(3), locked_until = NOW(3) + INTERVAL ? SECOND "
+                    + "WHERE name = ? AND locked_until <= NOW(3)";
+
+    private static final String EXTEND_SQL =
+            "UPDATE job_locks SET locked_until = NOW(3) + INTERVAL ? SECOND WHERE name = ? AND locked_by = ?";
+
+    private static final String RELEASE_SQL =
+            "UPDATE job_locks SET locked_until = NOW(3) WHERE name = ? AND locked_by = ?";
+
+    // pid@host, unique per running instance
+    private final String nodeId = ManagementFactory.getRuntimeMXBean().getName();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Take the lock for the lease if nobody holds it
+     */
+    public boolean tryAcquire(String name, Duration lease) {
+        jdbcTemplate.update(CREATE_SQL, name);
+        return jdbcTemplate.update(ACQUIRE_SQL, nodeId, lease.toSeconds(), name) == 1;
+    }
+
+    /**
+     * Renew a held lock; false means the lease ran out and another node may have taken it
+     */
+    public boolean extend(String name, Duration lease) {
+        return jdbcTemplate.update(EXTEND_SQL, lease.toSeconds(), name, nodeId) == 1;
+    }
+
+    public void release(String name) {
+        jdbcTemplate.update(RELEASE_SQL, name, nodeId);
+    }
+}
@@ -0,0 +1,30 @@
+package com.cms.service.jwt;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import java.util.Collection;
+
+/**
+ * Spring Security user that also carries the database id and credential version it was loaded with
+ */
+public class CmsUserDetails extends User {
+
+    private final Long userId;
+    private final long credentialVersion;
+
+    public CmsUserDetails(Long userId, String email, String password, Collection<? extends GrantedAuthority> authorities,
+                          long credentialVersion) {
+        super(email, password, authorities);
+        this.userId = userId;
+        this.credentialVersion = credentialVersion;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public long getCredentialVersion() {
+        return credentialVersion;
+    }
+}
@@ -0,0 +1,136 @@
+package com.cms.service.jwt;
+
+import com.cms.entities.CredentialRevocation;
+import com.cms.repository.CredentialRevocationRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory set of users whose older tokens were invalidated, so self-contained tokens can be
+ * checked without a query.
+ * A change is written to credential_revocations in the caller's transaction and applied to the
+ * local set after commit; other nodes pick it up on the next refresh. A revocation only matters
+ * until the tokens it covers have expired, so the set holds one token lifetime of changes.
+ */
+@Service
+public class TokenRevocationService {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    @Autowired
+    private CredentialRevocationRepository credentialRevocationRepository;
+
+    @Value("${jwt.expiration}")
+    private Long expiration;
+
+    // Replaced as a whole on refresh; readers never lock
+    private volatile Map<Long, Revocation> revocations = new HashMap<>();
+
+    private volatile boolean loaded;
+
+    /**
+     * Reject tokens of userId issued with a credential version below minVersion
+     */
+    public void revoke(Long userId, long minVersion) {
+        if (userId == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        CredentialRevocation revocation = credentialRevocationRepository.findById(userId).orElseGet(() -> {
+            CredentialRevocation created = new CredentialRevocation();
+            created.setUserId(userId);
+            created.setMinVersion(minVersion);
+            return created;
+        });
+        revocation.setMinVersion(Math.max(revocation.getMinVersion(), minVersion));
+        revocation.setRevokedAt(now);
+        credentialRevocationRepository.save(revocation);
+
+        long version = revocation.getMinVersion();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(userId, version);
+                }
+            });
+        } else {
+            apply(userId, version);
+        }
+    }
+
+    /**
+     * Whether a token of userId carrying credentialVersion has been invalidated
+     */
+    public boolean isRevoked(Long userId, long credentialVersion) {
+        Revocation revocation = revocations.get(userId);
+        return revocation != null && credentialVersion < revocation.minVersion;
+    }
+
+    /**
+     * False until the first refresh; before that only the database can tell whether a token was revoked
+     */
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * Reload the revocations of the last token lifetime and drop older ones
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-interval-ms:30000}")
+    public void refresh() {
+        long nowMillis = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(expiration * 1_000_000);
+        List<Object[]> rows = credentialRevocationRepository.findRevokedSince(cutoff);
+
+        Map<Long, Revocation> next = new HashMap<>(rows.size() * 2);
+        for (Object[] row : rows) {
+            long revokedAt = ((LocalDateTime) row[2]).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+            next.merge((Long) row[0], new Revocation((Long) row[1], revokedAt), Revocation::max);
+        }
+        synchronized (this) {
+            // Keep local revocations the query may have missed because their commit raced with it
+            for (Map.Entry<Long, Revocation> entry : revocations.entrySet()) {
+                if (entry.getValue().revokedAt > nowMillis - expiration) {
+                    next.merge(entry.getKey(), entry.getValue(), Revocation::max);
+                }
+            }
+            revocations = next;
+        }
+        loaded = true;
+
+        int purged = credentialRevocationRepository.deleteRevokedBefore(cutoff);
+        logger.debug("Loaded {} credential revocations, purged {}", next.size(), purged);
+    }
+
+    private synchronized void apply(Long userId, long minVersion) {
+        Map<Long, Revocation> next = new HashMap<>(revocations);
+        next.merge(userId, new Revocation(minVersion, System.currentTimeMillis()), Revocation::max);
+        revocations = next;
+    }
+
+    private static final class Revocation {
+        private final long minVersion;
+        private final long revokedAt;
+
+        private Revocation(long minVersion, long revokedAt) {
+            this.minVersion = minVersion;
+            this.revokedAt = revokedAt;
+        }
+
+        private static Revocation max(Revocation a, Revocation b) {
+            return new Revocation(Math.max(a.minVersion, b.minVersion), Math.max(a.revokedAt, b.revokedAt));
+        }
+    }
+}
@@ -1,42 +1,200 @@
 package com.cms.service.jwt;
 
 import com.cms.entities.User;
+import com.cms.enums.UserRole;
 import com.cms.repository.UserRepository;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.Collections;
-import java.util.Optional;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Loads users for authentication.
+ * Password checks at login always read the database. Requests carrying a token that cannot be
+ * authenticated from its claims go through loadUserForToken, which serves a short-lived cache keyed
+ * by email. Services that change a user's email, password or role bump credentialVersion and report
+ * it through credentialsChanged; from then on cached entries and tokens with an older version are
+ * refused, which also covers a lookup that read the old row while the change was committing. Other
+ * nodes drop their stale entries once the revocation list refreshes.
+ */
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
-    
+
     private static final Logger logger = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
-    
+
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Value("${security.user-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${security.user-cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<String, CachedUser> cache = new ConcurrentHashMap<>();
+
+    // Lowest credential version still acceptable per email, kept for one TTL after a change
+    private final Map<String, MinimumVersion> minimumVersions = new ConcurrentHashMap<>();
+
+    /**
+     * Read the user from the database; used by the password check at login, so it never sees a stale hash
+     */
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        logger.info("Attempting to load user by email: {}", email);
-        Optional<User> userOptional = userRepository.findFirstByEmail(email);
-        if(userOptional.isEmpty()) {
+        return load(email, System.currentTimeMillis()).toUserDetails();
+    }
+
+    /**
+     * Cached lookup for authenticating a request that already carries a signed token
+     */
+    public UserDetails loadUserForToken(String email) throws UsernameNotFoundException {
+        long now = System.currentTimeMillis();
+        CachedUser cached = cache.get(email);
+        if (cached != null && cached.expiresAt > now && isCurrent(email, cached.credentialVersion, now)
+                && !tokenRevocationService.isRevoked(cached.userId, cached.credentialVersion)) {
+            return cached.toUserDetails();
+        }
+
+        CachedUser loaded = load(email, now);
+        if (isCurrent(email, loaded.credentialVersion, now)) {
+            if (cache.size() >= Math.max(1, maxSize)) {
+                evict(now);
+            }
+            cache.put(email, loaded);
+        }
+        return loaded.toUserDetails();
+    }
+
+    private CachedUser load(String email, long now) {
+        logger.debug("Loading user by email: {}", email);
+        List<Object[]> rows = userRepository.findCredentialsByEmail(email);
+        if (rows.isEmpty()) {
+            cache.remove(email);
             logger.error("User not found with email: {}", email);
             throw new UsernameNotFoundException("User not found with email: " + email);
         }
-        User user = userOptional.get();
-        logger.info("User found: {}", user.getEmail());
-        return new org.springframework.security.core.userdetails.User(
-            user.getEmail(), 
-            user.getPassword(), 
-            Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + user.getUserRole().name()))
-        );
+        Object[] row = rows.get(0);
+        return new CachedUser((Long) row[0], (String) row[1], (String) row[2], (UserRole) row[3],
+                row[4] != null ? (Long) row[4] : 0L, now + ttlSeconds * 1000);
     }
-}
 
+    /**
+     * Report a committed change of email, password or role; previousEmail is the address before an email change
+     */
+    public void credentialsChanged(User user, String previousEmail) {
+        long version = user.getCredentialVersion() != null ? user.getCredentialVersion() : 0L;
+        tokenRevocationService.revoke(user.getId(), version);
+        afterCommit(() -> {
+            invalidate(user.getEmail(), version);
+            if (previousEmail != null && !previousEmail.equals(user.getEmail())) {
+                invalidate(previousEmail, Long.MAX_VALUE);
+            }
+        });
+    }
+
+    /**
+     * Report a deleted user so neither the cached entry nor any issued token can authenticate any more
+     */
+    public void userRemoved(User user) {
+        tokenRevocationService.revoke(user.getId(), Long.MAX_VALUE);
+        String email = user.getEmail();
+        afterCommit(() -> invalidate(email, Long.MAX_VALUE));
+    }
+
+    private void invalidate(String email, long minimumVersion) {
+        if (email == null) {
+            return;
+        }
+        minimumVersions.put(email, new MinimumVersion(minimumVersion, System.currentTimeMillis() + ttlSeconds * 1000));
+        cache.remove(email);
+    }
+
+    private boolean isCurrent(String email, long credentialVersion, long now) {
+        MinimumVersion minimum = minimumVersions.get(email);
+        if (minimum == null) {
+            return true;
+        }
+        if (minimum.expiresAt <= now) {
+            minimumVersions.remove(email, minimum);
+            return true;
+        }
+        return credentialVersion >= minimum.version;
+    }
+
+    // Drop expired entries first; if the cache is still full, drop arbitrary ones down to 90%
+    private void evict(long now) {
+        cache.values().removeIf(entry -> entry.expiresAt <= now);
+        minimumVersions.values().removeIf(entry -> entry.expiresAt <= now);
+        int target = Math.max(1, maxSize) * 9 / 10;
+        Iterator<String> keys = cache.keySet().iterator();
+        while (cache.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Immutable copy of the row; every lookup gets its own UserDetails because Spring Security
+    // erases the password on the instance it authenticated
+    private static final class CachedUser {
+        private final Long userId;
+        private final String email;
+        private final String password;
+        private final UserRole role;
+        private final long credentialVersion;
+        private final long expiresAt;
+
+        private CachedUser(Long userId, String email, String password, UserRole role, long credentialVersion,
+                           long expiresAt) {
+            this.userId = userId;
+            this.email = email;
+            this.password = password;
+            this.role = role;
+            this.credentialVersion = credentialVersion;
+            this.expiresAt = expiresAt;
+        }
+
+        private CmsUserDetails toUserDetails() {
+            return new CmsUserDetails(userId, email, password,
+                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_" + role.name())), credentialVersion);
+        }
+    }
+
+    private static final class MinimumVersion {
+        private final long version;
+        private final long expiresAt;
+
+        private MinimumVersion(long version, long expiresAt) {
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
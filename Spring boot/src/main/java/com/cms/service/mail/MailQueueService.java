@@ -0,0 +1,315 @@
+package com.cms.service.mail;
+
+import com.cms.entities.OutboundEmail;
+import com.cms.entities.OutboundEmail.MailStatus;
+import com.cms.repository.OutboundEmailRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Durable outbound mail queue.
+ * enqueue stores the finished message in outbound_emails as part of the caller's transaction and,
+ * once that commits, puts its id in a bounded in-memory buffer that the mail workers drain. The
+ * table is the source of truth: ids that do not fit the buffer, retries that come due and rows
+ * left behind by a crashed node are picked up by the poller. Workers send what is buffered in
+ * batches, one SMTP connection (handshake, STARTTLS, auth) per batch, paced to the provider quota.
+ * Failed sends back off exponentially and end up DEAD after mail.queue.max-attempts.
+ */
+@Service
+public class MailQueueService {
+    private static final Logger logger = LoggerFactory.getLogger(MailQueueService.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private OutboundEmailRepository outboundEmailRepository;
+
+    @Autowired
+    private JavaMailSender mailSender;
+
+    @Value("${mail.queue.capacity:1024}")
+    private int capacity;
+
+    @Value("${mail.queue.workers:2}")
+    private int workerCount;
+
+    @Value("${mail.queue.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${mail.queue.backoff-seconds:30}")
+    private long backoffSeconds;
+
+    @Value("${mail.queue.max-backoff-seconds:3600}")
+    private long maxBackoffSeconds;
+
+    // A SENDING row older than this belongs to a worker that died
+    @Value("${mail.queue.stale-after-seconds:600}")
+    private long staleAfterSeconds;
+
+    @Value("${mail.queue.retention-days:7}")
+    private long retentionDays;
+
+    // Messages handed to the SMTP server per connection
+    @Value("${mail.queue.send-batch-size:50}")
+    private int sendBatchSize;
+
+    // Provider quota per node, messages per second; 0 means unlimited
+    @Value("${mail.queue.rate-limit-per-second:0}")
+    private double rateLimitPerSecond;
+
+    private ArrayBlockingQueue<Long> buffer;
+
+    private ExecutorService workers;
+
+    private SendRateLimiter rateLimiter;
+
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    // Only touched by the poller thread
+    private long lastReportedSent;
+    private long lastReportedFailed;
+    private long lastReportNanos = System.nanoTime();
+
+    @PostConstruct
+    public void start() {
+        buffer = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        rateLimiter = new SendRateLimiter(rateLimitPerSecond);
+        AtomicInteger threadCounter = new AtomicInteger();
+        int count = Math.max(1, workerCount);
+        workers = Executors.newFixedThreadPool(count, runnable -> {
+            Thread thread = new Thread(runnable, "mail-worker-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < count; i++) {
+            workers.execute(this::work);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdownNow();
+        workers.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Store a message for delivery; inside a transaction it is only handed to the workers after commit
+     */
+    public void enqueue(MimeMessage message) {
+        OutboundEmail email = new OutboundEmail();
+        try {
+            ByteArrayOutputStream content = new ByteArrayOutputStream();
+            message.writeTo(content);
+            email.setMimeContent(content.toByteArray());
+            Address[] recipients = message.getAllRecipients();
+            email.setRecipient(recipients != null ? InternetAddress.toString(recipients) : "");
+            email.setSubject(message.getSubject());
+        } catch (MessagingException | IOException e) {
+            throw new MailPreparationException("Could not queue email: " + e.getMessage(), e);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        email.setStatus(MailStatus.PENDING);
+        email.setNextAttemptAt(now);
+        email.setCreatedAt(now);
+        Long id = outboundEmailRepository.save(email).getId();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    offer(id);
+                }
+            });
+        } else {
+            offer(id);
+        }
+    }
+
+    /**
+     * Hand due rows to the workers, reclaim rows stuck in SENDING and log throughput
+     */
+    @Scheduled(fixedDelayString = "${mail.queue.poll-interval-ms:15000}")
+    public void pollDue() {
+        reportThroughput();
+        LocalDateTime now = LocalDateTime.now();
+        int released = outboundEmailRepository.releaseStale(now.minusSeconds(staleAfterSeconds));
+        if (released > 0) {
+            logger.warn("Released {} emails left in SENDING by a stopped worker", released);
+        }
+        int room = buffer.remainingCapacity();
+        if (room == 0) {
+            return;
+        }
+        List<Long> due = outboundEmailRepository.findDueIds(now, PageRequest.of(0, room));
+        for (Long id : due) {
+            offer(id);
+        }
+    }
+
+    @Scheduled(cron = "${mail.queue.purge-cron:0 30 2 * * ?}")
+    public void purgeSent() {
+        int deleted = outboundEmailRepository.deleteSentBefore(LocalDateTime.now().minusDays(retentionDays));
+        logger.info("Purged {} delivered emails from the outbound queue", deleted);
+    }
+
+    // A full buffer is fine, the row stays PENDING and the poller offers it again
+    private void offer(Long id) {
+        if (!buffer.offer(id)) {
+            logger.debug("Mail buffer full, email {} waits for the next poll", id);
+        }
+    }
+
+    // Each worker blocks for one id and takes whatever else is already buffered, up to one batch
+    private void work() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                List<Long> ids = new ArrayList<>(batchSize());
+                ids.add(buffer.take());
+                buffer.drainTo(ids, batchSize() - 1);
+                try {
+                    deliver(ids);
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    logger.error("Mail worker failed on emails {}: {}", ids, e.getMessage(), e);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deliver(List<Long> ids) throws InterruptedException {
+        // Ids can be offered more than once; only the claim decides who sends
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> claimed = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            if (outboundEmailRepository.claim(id, now) == 1) {
+                claimed.add(id);
+            }
+        }
+        if (claimed.isEmpty()) {
+            return;
+        }
+
+        List<OutboundEmail> emails = new ArrayList<>(claimed.size());
+        List<MimeMessage> messages = new ArrayList<>(claimed.size());
+        for (OutboundEmail email : outboundEmailRepository.findAllById(claimed)) {
+            try {
+                messages.add(mailSender.createMimeMessage(new ByteArrayInputStream(email.getMimeContent())));
+                emails.add(email);
+            } catch (Exception e) {
+                failed(email, e);
+            }
+        }
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        rateLimiter.acquire(messages.size());
+        long start = System.nanoTime();
+        Map<Object, Exception> failures = Collections.emptyMap();
+        try {
+            // One call sends the whole batch over a single SMTP connection
+            mailSender.send(messages.toArray(new MimeMessage[0]));
+        } catch (MailSendException e) {
+            // Failed messages are listed; an empty map means only closing the connection failed
+            failures = e.getFailedMessages();
+        } catch (Exception e) {
+            failures = new IdentityHashMap<>();
+            for (MimeMessage message : messages) {
+                failures.put(message, e);
+            }
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        List<Long> sent = new ArrayList<>(emails.size());
+        for (int i = 0; i < emails.size(); i++) {
+            Exception failure = failures.get(messages.get(i));
+            if (failure == null) {
+                sent.add(emails.get(i).getId());
+            } else {
+                failed(emails.get(i), failure);
+            }
+        }
+        if (!sent.isEmpty()) {
+            outboundEmailRepository.markAllSent(sent, LocalDateTime.now());
+        }
+        sentCount.addAndGet(sent.size());
+        failedCount.addAndGet(emails.size() - sent.size());
+        logger.debug("Mail batch of {} sent in {} ms, {} failed", emails.size(), elapsedNanos / 1_000_000,
+                emails.size() - sent.size());
+    }
+
+    private int batchSize() {
+        int size = Math.max(1, sendBatchSize);
+        // A batch leaves in one burst, so it never carries more than one second of quota
+        return rateLimiter.isLimited() ? Math.max(1, Math.min(size, (int) rateLimitPerSecond)) : size;
+    }
+
+    // Log delivery throughput since the previous report
+    private void reportThroughput() {
+        long now = System.nanoTime();
+        long sent = sentCount.get();
+        long failed = failedCount.get();
+        long sentDelta = sent - lastReportedSent;
+        long failedDelta = failed - lastReportedFailed;
+        long elapsedMillis = (now - lastReportNanos) / 1_000_000;
+        lastReportedSent = sent;
+        lastReportedFailed = failed;
+        lastReportNanos = now;
+        if (sentDelta + failedDelta > 0 && elapsedMillis > 0) {
+            logger.info("Mail queue delivered {} emails, {} failed in the last {} s ({} msg/s)", sentDelta, failedDelta,
+                    elapsedMillis / 1000, String.format("%.1f", sentDelta * 1000.0 / elapsedMillis));
+        }
+    }
+
+    private void failed(OutboundEmail email, Exception e) {
+        int attempts = email.getAttempts() + 1;
+        String error = e.getMessage() != null && e.getMessage().length() > MAX_ERROR_LENGTH
+                ? e.getMessage().substring(0, MAX_ERROR_LENGTH) : e.getMessage();
+        LocalDateTime now = LocalDateTime.now();
+        if (attempts >= maxAttempts) {
+            outboundEmailRepository.markFailed(email.getId(), MailStatus.DEAD, now, error);
+            logger.error("Email {} to {} is dead after {} attempts: {}", email.getId(), email.getRecipient(), attempts, error);
+            return;
+        }
+        long delay = Math.min(maxBackoffSeconds, backoffSeconds << Math.min(attempts - 1, 20));
+        outboundEmailRepository.markFailed(email.getId(), MailStatus.PENDING, now.plusSeconds(delay), error);
+        logger.warn("Email {} to {} failed (attempt {}), retrying in {} s: {}", email.getId(), email.getRecipient(),
+                attempts, delay, error);
+    }
+}
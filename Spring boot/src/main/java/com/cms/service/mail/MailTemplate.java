@@ -0,0 +1,46 @@
+package com.cms.service.mail;
+
+import jakarta.mail.MessagingException;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.Context;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A mail template resolved for one locale. The parsed template lives in the engine's cache, so
+ * holding on to one instance and rendering it for every recipient of a bulk run only evaluates
+ * the variables each time.
+ */
+public class MailTemplate {
+
+    private final ITemplateEngine templateEngine;
+    private final String templateName;
+    private final Locale locale;
+
+    MailTemplate(ITemplateEngine templateEngine, String templateName, Locale locale) {
+        this.templateEngine = templateEngine;
+        this.templateName = templateName;
+        this.locale = locale;
+    }
+
+    public String getTemplateName() {
+        return templateName;
+    }
+
+    public Locale getLocale() {
+        return locale;
+    }
+
+    public String render(Map<String, Object> variables) {
+        return templateEngine.process(templateName, new Context(locale, variables));
+    }
+
+    /**
+     * Render the template as the HTML body of the message behind helper
+     */
+    public void renderInto(MimeMessageHelper helper, Map<String, Object> variables) throws MessagingException {
+        helper.setText(render(variables), true);
+    }
+}
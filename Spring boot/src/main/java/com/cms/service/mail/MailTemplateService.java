@@ -0,0 +1,68 @@
+package com.cms.service.mail;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Service;
+import org.thymeleaf.ITemplateEngine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Looks up the Thymeleaf mail templates under templates/mail.
+ * A locale picks the most specific variant that exists, e.g. low-attendance_ta_IN.html, then
+ * low-attendance_ta.html, then low-attendance.html; the choice is remembered per name and locale.
+ */
+@Service
+public class MailTemplateService {
+
+    private static final String TEMPLATE_DIR = "mail/";
+
+    @Autowired
+    private ITemplateEngine templateEngine;
+
+    @Autowired
+    private ResourceLoader resourceLoader;
+
+    @Value("${spring.thymeleaf.prefix:classpath:/templates/}")
+    private String prefix;
+
+    @Value("${spring.thymeleaf.suffix:.html}")
+    private String suffix;
+
+    @Value("${mail.templates.default-locale:en}")
+    private Locale defaultLocale;
+
+    private final Map<String, String> resolvedNames = new ConcurrentHashMap<>();
+
+    public MailTemplate get(String name) {
+        return get(name, null);
+    }
+
+    public MailTemplate get(String name, Locale locale) {
+        Locale effective = locale != null ? locale : defaultLocale;
+        String templateName = resolvedNames.computeIfAbsent(name + "|" + effective.toLanguageTag(),
+                key -> resolve(name, effective));
+        return new MailTemplate(templateEngine, templateName, effective);
+    }
+
+    private String resolve(String name, Locale locale) {
+        List<String> candidates = new ArrayList<>(3);
+        if (!locale.getLanguage().isEmpty()) {
+            if (!locale.getCountry().isEmpty()) {
+                candidates.add(name + "_" + locale.getLanguage() + "_" + locale.getCountry());
+            }
+            candidates.add(name + "_" + locale.getLanguage());
+        }
+        for (String candidate : candidates) {
+            if (resourceLoader.getResource(prefix + TEMPLATE_DIR + candidate + suffix).exists()) {
+                return TEMPLATE_DIR + candidate;
+            }
+        }
+        return TEMPLATE_DIR + name;
+    }
+}
@@ -0,0 +1,42 @@
+package com.cms.service.mail;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out sends so that on average no more than permitsPerSecond messages leave this node.
+ * A caller reserves its permits up front and sleeps until the reservation starts, so a batch of
+ * n messages pushes the next caller back by n / permitsPerSecond seconds. Zero or less disables it.
+ */
+public class SendRateLimiter {
+
+    private final long nanosPerPermit;
+    private long nextFreeNanos;
+
+    public SendRateLimiter(double permitsPerSecond) {
+        this.nanosPerPermit = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+        this.nextFreeNanos = System.nanoTime();
+    }
+
+    public boolean isLimited() {
+        return nanosPerPermit > 0;
+    }
+
+    /**
+     * Block until the given number of messages may be sent
+     */
+    public void acquire(int permits) throws InterruptedException {
+        if (nanosPerPermit == 0) {
+            return;
+        }
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(now, nextFreeNanos);
+            nextFreeNanos = start + permits * nanosPerPermit;
+            waitNanos = start - now;
+        }
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.cms.service.otp;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Single-node OTP store.
+ * Codes live in a concurrent map capped at otp.store.max-entries. Expiry is proactive: every key
+ * is also filed in a timing wheel of one-second slots under its expiry second, and a tick once a
+ * second drops the expired keys of the slots that came due, so abandoned codes do not pile up.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryOtpStore implements OtpStore {
+
+    private static final int WHEEL_SLOTS = 128;
+
+    @Value("${otp.store.max-entries:10000}")
+    private int maxEntries;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    private final Set<String>[] wheel;
+
+    // Only touched by the tick
+    private long lastTickSecond = System.currentTimeMillis() / 1000 - 1;
+
+    @SuppressWarnings("unchecked")
+    public InMemoryOtpStore() {
+        wheel = new Set[WHEEL_SLOTS];
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel[i] = ConcurrentHashMap.newKeySet();
+        }
+    }
+
+    @Override
+    public boolean put(String key, String otp, Duration ttl) {
+        if (entries.size() >= Math.max(1, maxEntries) && !entries.containsKey(key)) {
+            return false;
+        }
+        Entry entry = new Entry(otp, System.currentTimeMillis() + ttl.toMillis());
+        entries.put(key, entry);
+        wheel[entry.slot()].add(key);
+        return true;
+    }
+
+    @Override
+    public boolean verify(String key, String otp, int maxAttempts, boolean consume) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return false;
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(key, entry);
+            return false;
+        }
+        int attempt = entry.attempts.incrementAndGet();
+        if (attempt > maxAttempts) {
+            entries.remove(key, entry);
+            return false;
+        }
+        boolean matches = otp != null && MessageDigest.isEqual(entry.otp.getBytes(StandardCharsets.UTF_8),
+                otp.getBytes(StandardCharsets.UTF_8));
+        if ((matches && consume) || (!matches && attempt >= maxAttempts)) {
+            entries.remove(key, entry);
+        }
+        return matches;
+    }
+
+    @Override
+    public void remove(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Advance the wheel over every fully elapsed second, expiring the keys filed in those slots
+     */
+    @Scheduled(fixedRate = 1000)
+    public void tick() {
+        long nowMillis = System.currentTimeMillis();
+        long lastElapsedSecond = nowMillis / 1000 - 1;
+        long from = Math.max(lastTickSecond + 1, lastElapsedSecond - WHEEL_SLOTS + 1);
+        for (long second = from; second <= lastElapsedSecond; second++) {
+            int slot = (int) Math.floorMod(second, (long) WHEEL_SLOTS);
+            Iterator<String> keys = wheel[slot].iterator();
+            while (keys.hasNext()) {
+                String key = keys.next();
+                Entry entry = entries.get(key);
+                if (entry != null && !entry.isExpired(nowMillis) && entry.slot() == slot) {
+                    // Expires on a later turn of the wheel
+                    continue;
+                }
+                if (entry != null && entry.isExpired(nowMillis)) {
+                    entries.remove(key, entry);
+                }
+                keys.remove();
+                // A code put meanwhile must stay filed under its own slot
+                Entry current = entries.get(key);
+                if (current != null) {
+                    wheel[current.slot()].add(key);
+                }
+            }
+        }
+        lastTickSecond = lastElapsedSecond;
+    }
+
+    private static final class Entry {
+        private final String otp;
+        private final long expiresAt;
+        private final AtomicInteger attempts = new AtomicInteger();
+
+        private Entry(String otp, long expiresAt) {
+            this.otp = otp;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return now >= expiresAt;
+        }
+
+        private int slot() {
+            return (int) Math.floorMod(expiresAt / 1000, (long) WHEEL_SLOTS);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.cms.service.otp;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * OTP store in the otp_codes table, shared by every node behind the load balancer.
+ * Each statement is auto-committed and judged against the database clock. An attempt is counted
+ * with a conditional UPDATE before the code is compared, so concurrent guesses on different
+ * nodes still add up to at most maxAttempts.
+ */
+@Component
+@ConditionalOnProperty(name = "otp.store", havingValue = "jdbc")
+public class JdbcOtpStore implements OtpStore {
+    private static final Logger logger = LoggerFactory.getLogger(JdbcOtpStore.class);
+
+    private static final String PUT_SQL =
+            "INSERT INTO otp_codes (otp_key, code, expires_at, attempts, created_at) "
+                    + "VALUES (?, ?, NOW(3) + INTERVAL ? SECOND, 0, NOW(3)) "
+                    + "ON DUPLICATE KEY UPDATE code = VALUES(code), expires_at = VALUES(expires_at), attempts = 0, "
+                    + "created_at = VALUES(created_at)";
+
+    private static final String COUNT_ATTEMPT_SQL =
+            "UPDATE otp_codes SET attempts = attempts + 1 WHERE otp_key = ? AND expires_at > NOW(3) AND attempts < ?";
+
+    private static final String FIND_SQL =
+            "SELECT code, attempts FROM otp_codes WHERE otp_key = ?";
+
+    private static final String DELETE_CODE_SQL =
+            "DELETE FROM otp_codes WHERE otp_key = ? AND code = ?";
+
+    private static final String DELETE_EXHAUSTED_SQL =
+            "DELETE FROM otp_codes WHERE otp_key = ? AND attempts >= ?";
+
+    private static final String DELETE_SQL =
+            "DELETE FROM otp_codes WHERE otp_key = ?";
+
+    private static final String PURGE_SQL =
+            "DELETE FROM otp_codes WHERE expires_at <= NOW(3)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean put(String key, String otp, Duration ttl) {
+        jdbcTemplate.update(PUT_SQL, key, otp, ttl.toSeconds());
+        return true;
+    }
+
+    @Override
+    public boolean verify(String key, String otp, int maxAttempts, boolean consume) {
+        // Missing, expired and exhausted codes all fail here without reading anything
+        if (jdbcTemplate.update(COUNT_ATTEMPT_SQL, key, maxAttempts) == 0) {
+            return false;
+        }
+        List<StoredCode> rows = jdbcTemplate.query(FIND_SQL,
+                (rs, rowNum) -> new StoredCode(rs.getString("code"), rs.getInt("attempts")), key);
+        if (rows.isEmpty()) {
+            return false;
+        }
+        StoredCode stored = rows.get(0);
+        boolean matches = otp != null && MessageDigest.isEqual(stored.code.getBytes(StandardCharsets.UTF_8),
+                otp.getBytes(StandardCharsets.UTF_8));
+        if (matches && consume) {
+            jdbcTemplate.update(DELETE_CODE_SQL, key, stored.code);
+        } else if (!matches && stored.attempts >= maxAttempts) {
+            jdbcTemplate.update(DELETE_EXHAUSTED_SQL, key, maxAttempts);
+        }
+        return matches;
+    }
+
+    @Override
+    public void remove(String key) {
+        jdbcTemplate.update(DELETE_SQL, key);
+    }
+
+    @Scheduled(fixedDelayString = "${otp.store.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        int deleted = jdbcTemplate.update(PURGE_SQL);
+        if (deleted > 0) {
+            logger.debug("Purged {} expired OTPs", deleted);
+        }
+    }
+
+    private static final class StoredCode {
+        private final String code;
+        private final int attempts;
+
+        private StoredCode(String code, int attempts) {
+            this.code = code;
+            this.attempts = attempts;
+        }
+    }
+}
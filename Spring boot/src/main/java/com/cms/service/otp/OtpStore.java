@@ -0,0 +1,24 @@
+package com.cms.service.otp;
+
+import java.time.Duration;
+
+/**
+ * Storage for pending one-time passwords, selected with otp.store (memory or jdbc).
+ * Every verify call counts as an attempt against the stored code; once maxAttempts wrong codes
+ * were tried the code is dropped, so guessing needs a new code and calls for unknown keys
+ * never create entries.
+ */
+public interface OtpStore {
+
+    /**
+     * Store otp under key for ttl, replacing any previous code; false if the store is full
+     */
+    boolean put(String key, String otp, Duration ttl);
+
+    /**
+     * Whether otp matches the live code for key; a match is removed when consume is set
+     */
+    boolean verify(String key, String otp, int maxAttempts, boolean consume);
+
+    void remove(String key);
+}
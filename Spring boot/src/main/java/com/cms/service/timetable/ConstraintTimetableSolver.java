@@ -0,0 +1,475 @@
+package com.cms.service.timetable;
+
+import com.cms.entities.Course;
+import com.cms.entities.Faculty;
+import com.cms.entities.FacultyCourse;
+import com.cms.entities.TimeSlot;
+import com.cms.entities.TimetableEntry;
+import com.cms.service.TimetableService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * Deterministic backtracking solver with forward checking.
+ * Every course period is a variable whose domain is a 48-bit slot mask derived from the
+ * occupancy grid, so the hard rules (no double booking, no first-period labs, at most
+ * MAX_LABS_PER_DAY labs per batch per day, no consecutive theory periods) are never violated.
+ * Labs are placed first, then theory taught to several batches, then everything else;
+ * within a class the variable with the smallest domain goes next.
+ */
+@Component
+public class ConstraintTimetableSolver implements TimetableSolver {
+    private static final Logger logger = LoggerFactory.getLogger(ConstraintTimetableSolver.class);
+
+    public static final String NAME = "constraint";
+
+    private static final int LAB = 0;
+    private static final int THEORY = 1;
+    private static final int NON_ACADEMIC = 2;
+
+    private static final int PRIORITY_LAB = 0;
+    private static final int PRIORITY_MULTI_BATCH_THEORY = 1;
+    private static final int PRIORITY_OTHER = 2;
+
+    private static final int PERIODS = TimetableOccupancy.PERIODS;
+    private static final int DAYS = TimetableOccupancy.DAYS;
+    private static final long DAY_MASK = (1L << PERIODS) - 1;
+    private static final long FIRST_PERIOD_MASK;
+    private static final long LAST_PERIOD_MASK;
+
+    static {
+        long first = 0L;
+        long last = 0L;
+        for (int day = 0; day < DAYS; day++) {
+            first |= 1L << (day * PERIODS);
+            last |= 1L << (day * PERIODS + PERIODS - 1);
+        }
+        FIRST_PERIOD_MASK = first;
+        LAST_PERIOD_MASK = last;
+    }
+
+    // Upper bound on search nodes before the best partial assignment is completed greedily
+    @Value("${timetable.solver.max-nodes:200000}")
+    private long maxNodes;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public List<TimetableEntry> solve(Faculty faculty, List<FacultyCourse> facultyCourses, List<TimeSlot> timeSlots,
+                                      TimetableOccupancy occupancy, String academicYear, String semester) {
+        Search search = new Search(faculty, facultyCourses, timeSlots, occupancy);
+        boolean complete = search.run();
+
+        List<TimetableEntry> entries = new ArrayList<>();
+        for (int t = 0; t < search.taskCount; t++) {
+            int slot = search.assigned[t];
+            if (slot < 0) {
+                continue;
+            }
+            FacultyCourse facultyCourse = search.courseOf[t];
+            int length = search.type[t] == LAB ? search.length[t] : 1;
+            for (int k = 0; k < length; k++) {
+                entries.add(new TimetableEntry(faculty, facultyCourse.getCourse(), facultyCourse.getBatch(),
+                        search.slotTable[slot + k], academicYear, semester));
+            }
+        }
+
+        if (complete) {
+            logger.info("Constraint solver placed {} periods for faculty {} after {} nodes",
+                    entries.size(), faculty.getName(), search.nodes);
+        } else {
+            logger.warn("Constraint solver left {} of {} course blocks unplaced for faculty {} after {} nodes",
+                    search.unplacedCount(), search.taskCount, faculty.getName(), search.nodes);
+        }
+        return entries;
+    }
+
+    /**
+     * Per-call search state: task arrays, bitmask grids and the current assignment
+     */
+    private final class Search {
+        private final TimeSlot[] slotTable = new TimeSlot[TimetableOccupancy.SLOTS];
+        private long validSlots;
+        private long nonAcademicSlots;
+        private final Map<Integer, Long> labStartsByLength = new HashMap<>();
+
+        private final int taskCount;
+        private final int[] type;
+        private final int[] priority;
+        private final int[] group;
+        private final int[] batch;
+        private final int[] length;
+        private final int[] siblingIndex;
+        private final FacultyCourse[] courseOf;
+        private final int[] groupFirstTask;
+        private final int[] groupSize;
+        private final boolean[] groupDistinctDays;
+
+        private final long initialFacultyBusy;
+        private final long[] initialBatchBusy;
+        private final long[] initialGroupBusy;
+
+        private long facultyBusy;
+        private final long[] batchBusy;
+        private final long[] groupBusy;
+        private final int[][] labsPerBatchDay;
+        private final int[] assigned;
+
+        private int[] bestAssigned;
+        private int bestPlaced = -1;
+        private long nodes;
+        private boolean aborted;
+        private boolean orderedSiblings = true;
+
+        private Search(Faculty faculty, List<FacultyCourse> facultyCourses, List<TimeSlot> timeSlots, TimetableOccupancy occupancy) {
+            buildSlotTables(timeSlots);
+
+            // Theory courses taught by this faculty to more than one batch get priority over single-batch theory
+            Map<Long, Long> batchesPerCourse = new HashMap<>();
+            for (FacultyCourse fc : facultyCourses) {
+                batchesPerCourse.merge(fc.getCourse().getId(), 1L, Long::sum);
+            }
+
+            Map<Long, Integer> batchIndex = new LinkedHashMap<>();
+            List<int[]> tasks = new ArrayList<>();
+            List<FacultyCourse> taskCourses = new ArrayList<>();
+            int groups = facultyCourses.size();
+            groupFirstTask = new int[groups];
+            groupSize = new int[groups];
+            groupDistinctDays = new boolean[groups];
+
+            for (int g = 0; g < groups; g++) {
+                FacultyCourse fc = facultyCourses.get(g);
+                Course course = fc.getCourse();
+                int periods = course.getContactPeriods() == null ? 0 : course.getContactPeriods();
+                int b = batchIndex.computeIfAbsent(fc.getBatch().getId(), k -> batchIndex.size());
+                groupFirstTask[g] = tasks.size();
+
+                if (course.getType() == Course.CourseType.LAB) {
+                    // All lab periods are kept together in one block on a single day
+                    if (periods > 0) {
+                        tasks.add(new int[]{LAB, PRIORITY_LAB, g, b, periods, 0});
+                        taskCourses.add(fc);
+                    }
+                } else {
+                    int taskType = course.getType() == Course.CourseType.NON_ACADEMIC ? NON_ACADEMIC : THEORY;
+                    int taskPriority = taskType == THEORY && batchesPerCourse.get(course.getId()) > 1
+                            ? PRIORITY_MULTI_BATCH_THEORY : PRIORITY_OTHER;
+                    for (int i = 0; i < periods; i++) {
+                        tasks.add(new int[]{taskType, taskPriority, g, b, 1, i});
+                        taskCourses.add(fc);
+                    }
+                    // Non-academic periods go on different days whenever the week has room for it
+                    groupDistinctDays[g] = taskType == NON_ACADEMIC && periods <= DAYS;
+                }
+                groupSize[g] = tasks.size() - groupFirstTask[g];
+            }
+
+            taskCount = tasks.size();
+            type = new int[taskCount];
+            priority = new int[taskCount];
+            group = new int[taskCount];
+            batch = new int[taskCount];
+            length = new int[taskCount];
+            siblingIndex = new int[taskCount];
+            courseOf = taskCourses.toArray(new FacultyCourse[0]);
+            for (int t = 0; t < taskCount; t++) {
+                int[] task = tasks.get(t);
+                type[t] = task[0];
+                priority[t] = task[1];
+                group[t] = task[2];
+                batch[t] = task[3];
+                length[t] = task[4];
+                siblingIndex[t] = task[5];
+            }
+
+            initialFacultyBusy = occupancy.facultyMask(faculty.getId());
+            initialBatchBusy = new long[batchIndex.size()];
+            for (Map.Entry<Long, Integer> entry : batchIndex.entrySet()) {
+                initialBatchBusy[entry.getValue()] = occupancy.batchMask(entry.getKey());
+            }
+            initialGroupBusy = new long[groups];
+            for (int g = 0; g < groups; g++) {
+                FacultyCourse fc = facultyCourses.get(g);
+                initialGroupBusy[g] = occupancy.courseBatchMask(fc.getCourse().getId(), fc.getBatch().getId());
+            }
+
+            batchBusy = new long[initialBatchBusy.length];
+            groupBusy = new long[groups];
+            labsPerBatchDay = new int[initialBatchBusy.length][DAYS];
+            assigned = new int[taskCount];
+            reset();
+        }
+
+        private void buildSlotTables(List<TimeSlot> timeSlots) {
+            int[] lastPeriod = new int[DAYS];
+            for (TimeSlot slot : timeSlots) {
+                if (Boolean.TRUE.equals(slot.getIsBreak())) {
+                    continue;
+                }
+                int index = TimetableOccupancy.slotIndex(slot.getDay(), slot.getPeriodNumber());
+                if (index >= 0) {
+                    slotTable[index] = slot;
+                    validSlots |= 1L << index;
+                    lastPeriod[index / PERIODS] = Math.max(lastPeriod[index / PERIODS], slot.getPeriodNumber());
+                }
+            }
+            // Non-academic periods avoid the first and the last period of the day
+            for (int index = 0; index < TimetableOccupancy.SLOTS; index++) {
+                int period = index % PERIODS + 1;
+                if ((validSlots & (1L << index)) != 0 && period > 1 && period < lastPeriod[index / PERIODS]) {
+                    nonAcademicSlots |= 1L << index;
+                }
+            }
+        }
+
+        private long labStarts(int runLength) {
+            return labStartsByLength.computeIfAbsent(runLength, n -> {
+                long starts = 0L;
+                for (int index = 0; index < TimetableOccupancy.SLOTS; index++) {
+                    int period = index % PERIODS + 1;
+                    // Labs never start in the first period and must stay within one day
+                    if (period == 1 || period + n - 1 > PERIODS) {
+                        continue;
+                    }
+                    long run = runMask(index, n);
+                    if ((validSlots & run) == run) {
+                        starts |= 1L << index;
+                    }
+                }
+                return starts;
+            });
+        }
+
+        private void reset() {
+            facultyBusy = initialFacultyBusy;
+            System.arraycopy(initialBatchBusy, 0, batchBusy, 0, batchBusy.length);
+            System.arraycopy(initialGroupBusy, 0, groupBusy, 0, groupBusy.length);
+            for (int[] days : labsPerBatchDay) {
+                Arrays.fill(days, 0);
+            }
+            Arrays.fill(assigned, -1);
+        }
+
+        private boolean run() {
+            if (search(0)) {
+                return true;
+            }
+            // Fall back to the deepest partial assignment and place whatever still fits
+            reset();
+            if (bestAssigned != null) {
+                for (int t = 0; t < taskCount; t++) {
+                    if (bestAssigned[t] >= 0) {
+                        assign(t, bestAssigned[t]);
+                    }
+                }
+            }
+            completeGreedily();
+            return false;
+        }
+
+        private boolean search(int placed) {
+            if (placed == taskCount) {
+                return true;
+            }
+            if (++nodes > maxNodes) {
+                aborted = true;
+                return false;
+            }
+            if (placed > bestPlaced) {
+                bestPlaced = placed;
+                bestAssigned = assigned.clone();
+            }
+
+            int selected = -1;
+            long selectedDomain = 0L;
+            int selectedSize = Integer.MAX_VALUE;
+            for (int t = 0; t < taskCount; t++) {
+                if (assigned[t] >= 0) {
+                    continue;
+                }
+                long domain = domain(t);
+                int size = Long.bitCount(domain);
+                if (size == 0) {
+                    // Forward check: some unplaced block has nowhere left to go
+                    return false;
+                }
+                if (selected < 0 || priority[t] < priority[selected]
+                        || (priority[t] == priority[selected] && size < selectedSize)) {
+                    selected = t;
+                    selectedDomain = domain;
+                    selectedSize = size;
+                }
+            }
+
+            for (int slot : orderValues(selected, selectedDomain)) {
+                assign(selected, slot);
+                if (search(placed + 1)) {
+                    return true;
+                }
+                unassign(selected, slot);
+                if (aborted) {
+                    return false;
+                }
+            }
+            return false;
+        }
+
+        private void completeGreedily() {
+            orderedSiblings = false;
+            boolean progress = true;
+            while (progress) {
+                progress = false;
+                for (int t = 0; t < taskCount; t++) {
+                    if (assigned[t] >= 0) {
+                        continue;
+                    }
+                    long domain = domain(t);
+                    if (domain != 0) {
+                        assign(t, orderValues(t, domain)[0]);
+                        progress = true;
+                    }
+                }
+            }
+        }
+
+        private long domain(int t) {
+            int b = batch[t];
+            int g = group[t];
+            long busy = facultyBusy | batchBusy[b];
+
+            if (type[t] == LAB) {
+                long free = ~busy;
+                long starts = labStarts(length[t]);
+                for (int k = 0; k < length[t]; k++) {
+                    starts &= free >>> k;
+                }
+                for (int day = 0; day < DAYS; day++) {
+                    if (labsPerBatchDay[b][day] >= TimetableService.MAX_LABS_PER_DAY) {
+                        starts &= ~(DAY_MASK << (day * PERIODS));
+                    }
+                }
+                return starts;
+            }
+
+            long domain;
+            if (type[t] == THEORY) {
+                domain = validSlots & ~busy & ~adjacent(groupBusy[g]);
+            } else {
+                domain = nonAcademicSlots & ~busy;
+                if (groupDistinctDays[g]) {
+                    domain &= ~daysOf(groupBusy[g]);
+                }
+            }
+            return domain & siblingRange(t);
+        }
+
+        // Periods of one course-batch are interchangeable, so they are kept in slot order to avoid symmetric search
+        private long siblingRange(int t) {
+            if (!orderedSiblings) {
+                return -1L;
+            }
+            int g = group[t];
+            int lower = -1;
+            int upper = TimetableOccupancy.SLOTS;
+            for (int s = groupFirstTask[g], end = s + groupSize[g]; s < end; s++) {
+                if (s == t || assigned[s] < 0) {
+                    continue;
+                }
+                if (siblingIndex[s] < siblingIndex[t]) {
+                    lower = Math.max(lower, assigned[s]);
+                } else {
+                    upper = Math.min(upper, assigned[s]);
+                }
+            }
+            if (upper - lower <= 1) {
+                return 0L;
+            }
+            return runMask(lower + 1, upper - lower - 1);
+        }
+
+        private int[] orderValues(int t, long domain) {
+            int size = Long.bitCount(domain);
+            int[] slots = new int[size];
+            long[] keys = new long[size];
+            int i = 0;
+            for (long remaining = domain; remaining != 0; remaining &= remaining - 1) {
+                int slot = Long.numberOfTrailingZeros(remaining);
+                long dayBits = DAY_MASK << ((slot / PERIODS) * PERIODS);
+                // Spread a course over the week first, then balance the batch's daily load
+                long sameCourse = type[t] == LAB
+                        ? labsPerBatchDay[batch[t]][slot / PERIODS]
+                        : Long.bitCount(groupBusy[group[t]] & dayBits);
+                long batchLoad = Long.bitCount(batchBusy[batch[t]] & dayBits);
+                keys[i] = (sameCourse << 24) | (batchLoad << 12) | slot;
+                slots[i] = slot;
+                i++;
+            }
+            Arrays.sort(keys);
+            for (i = 0; i < size; i++) {
+                slots[i] = (int) (keys[i] & 0xFFF);
+            }
+            return slots;
+        }
+
+        private void assign(int t, int slot) {
+            long bits = runMask(slot, type[t] == LAB ? length[t] : 1);
+            facultyBusy |= bits;
+            batchBusy[batch[t]] |= bits;
+            groupBusy[group[t]] |= bits;
+            if (type[t] == LAB) {
+                labsPerBatchDay[batch[t]][slot / PERIODS]++;
+            }
+            assigned[t] = slot;
+        }
+
+        private void unassign(int t, int slot) {
+            long bits = runMask(slot, type[t] == LAB ? length[t] : 1);
+            facultyBusy &= ~bits;
+            batchBusy[batch[t]] &= ~bits;
+            groupBusy[group[t]] &= ~bits;
+            if (type[t] == LAB) {
+                labsPerBatchDay[batch[t]][slot / PERIODS]--;
+            }
+            assigned[t] = -1;
+        }
+
+        private int unplacedCount() {
+            int unplaced = 0;
+            for (int slot : assigned) {
+                if (slot < 0) {
+                    unplaced++;
+                }
+            }
+            return unplaced;
+        }
+    }
+
+    private static long runMask(int start, int runLength) {
+        long run = runLength >= 64 ? -1L : (1L << runLength) - 1;
+        return run << start;
+    }
+
+    // Slots directly before or after an occupied slot on the same day
+    private static long adjacent(long mask) {
+        return ((mask << 1) & ~FIRST_PERIOD_MASK) | ((mask >>> 1) & ~LAST_PERIOD_MASK);
+    }
+
+    private static long daysOf(long mask) {
+        long days = 0L;
+        for (int day = 0; day < DAYS; day++) {
+            long dayBits = DAY_MASK << (day * PERIODS);
+            if ((mask & dayBits) != 0) {
+                days |= dayBits;
+            }
+        }
+        return days;
+    }
+}
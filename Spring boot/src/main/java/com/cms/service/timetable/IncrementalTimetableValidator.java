@@ -0,0 +1,246 @@
+package com.cms.service.timetable;
+
+import com.cms.entities.Course;
+import com.cms.entities.TimetableEntry;
+import com.cms.service.TimetableService;
+
+import java.time.DayOfWeek;
+import java.util.*;
+
+/**
+ * Running violation counters for a timetable that is edited entry by entry.
+ * Keeps entries per faculty slot and per batch slot, distinct labs per batch and day and
+ * theory periods per course-batch pair, so add, remove and move report the change in
+ * violation count without rescanning. Counts match TimetableValidator on the same entries.
+ */
+public class IncrementalTimetableValidator {
+
+    private static final int SLOTS = TimetableOccupancy.SLOTS;
+    private static final int PERIODS = TimetableOccupancy.PERIODS;
+    private static final int WEEK_DAYS = 7;
+
+    private final Set<TimetableEntry> tracked = Collections.newSetFromMap(new IdentityHashMap<>());
+    private final Map<Long, List<TimetableEntry>[]> facultySlots = new LinkedHashMap<>();
+    private final Map<Long, List<TimetableEntry>[]> batchSlots = new LinkedHashMap<>();
+    private final Map<Long, int[]> labsPerBatchDay = new LinkedHashMap<>();
+    private final Map<Long, Map<Long, CourseBatch>> courseBatches = new LinkedHashMap<>();
+    private int violationCount;
+
+    /**
+     * Full scan of the starting entries; everything after this is incremental
+     */
+    public IncrementalTimetableValidator(Collection<TimetableEntry> entries) {
+        for (TimetableEntry entry : entries) {
+            add(entry);
+        }
+    }
+
+    public int violationCount() {
+        return violationCount;
+    }
+
+    /**
+     * Start tracking an entry and return the change in violation count
+     */
+    public int add(TimetableEntry entry) {
+        if (!tracked.add(entry)) {
+            return 0;
+        }
+        int before = violationCount;
+        int slot = slotOf(entry);
+        if (slot >= 0) {
+            List<TimetableEntry> facultyCell = cell(facultySlots, entry.getFaculty().getId(), slot);
+            if (!facultyCell.isEmpty()) {
+                violationCount++;
+            }
+            facultyCell.add(entry);
+
+            List<TimetableEntry> batchCell = cell(batchSlots, entry.getBatch().getId(), slot);
+            if (!batchCell.isEmpty()) {
+                violationCount++;
+            }
+            batchCell.add(entry);
+        }
+
+        CourseBatch courseBatch = courseBatch(entry);
+        Course.CourseType type = entry.getCourse().getType();
+        if (type == Course.CourseType.LAB) {
+            int day = entry.getTimeSlot().getDay().getValue() - 1;
+            if (courseBatch.labEntriesPerDay[day]++ == 0) {
+                int[] labs = labsPerBatchDay.computeIfAbsent(entry.getBatch().getId(), k -> new int[WEEK_DAYS]);
+                if (labs[day]++ == TimetableService.MAX_LABS_PER_DAY) {
+                    violationCount++;
+                }
+            }
+        } else if (type == Course.CourseType.ACADEMIC && slot >= 0) {
+            if (courseBatch.theoryCount[slot]++ == 0) {
+                violationCount += adjacentPeriods(courseBatch.theoryMask, slot);
+                courseBatch.theoryMask |= 1L << slot;
+            }
+        }
+        return violationCount - before;
+    }
+
+    /**
+     * Stop tracking an entry and return the change in violation count
+     */
+    public int remove(TimetableEntry entry) {
+        if (!tracked.remove(entry)) {
+            return 0;
+        }
+        int before = violationCount;
+        int slot = slotOf(entry);
+        if (slot >= 0) {
+            List<TimetableEntry> facultyCell = cell(facultySlots, entry.getFaculty().getId(), slot);
+            facultyCell.remove(entry);
+            if (!facultyCell.isEmpty()) {
+                violationCount--;
+            }
+
+            List<TimetableEntry> batchCell = cell(batchSlots, entry.getBatch().getId(), slot);
+            batchCell.remove(entry);
+            if (!batchCell.isEmpty()) {
+                violationCount--;
+            }
+        }
+
+        CourseBatch courseBatch = courseBatch(entry);
+        Course.CourseType type = entry.getCourse().getType();
+        if (type == Course.CourseType.LAB) {
+            int day = entry.getTimeSlot().getDay().getValue() - 1;
+            if (--courseBatch.labEntriesPerDay[day] == 0) {
+                int[] labs = labsPerBatchDay.get(entry.getBatch().getId());
+                if (--labs[day] == TimetableService.MAX_LABS_PER_DAY) {
+                    violationCount--;
+                }
+            }
+        } else if (type == Course.CourseType.ACADEMIC && slot >= 0) {
+            if (--courseBatch.theoryCount[slot] == 0) {
+                courseBatch.theoryMask &= ~(1L << slot);
+                violationCount -= adjacentPeriods(courseBatch.theoryMask, slot);
+            }
+        }
+        return violationCount - before;
+    }
+
+    /**
+     * Replace an entry with its moved copy and return the change in violation count
+     */
+    public int move(TimetableEntry from, TimetableEntry to) {
+        return remove(from) + add(to);
+    }
+
+    /**
+     * Current violations, built from the counters in the same order as TimetableValidator groups them
+     */
+    public List<TimetableViolation> violations() {
+        List<TimetableViolation> violations = new ArrayList<>(violationCount);
+
+        for (Map.Entry<Long, int[]> batchLabs : labsPerBatchDay.entrySet()) {
+            int[] labs = batchLabs.getValue();
+            for (int day = 0; day < WEEK_DAYS; day++) {
+                if (labs[day] > TimetableService.MAX_LABS_PER_DAY) {
+                    violations.add(TimetableViolation.labLimitExceeded(anyEntryOfBatch(batchLabs.getKey()),
+                            DayOfWeek.of(day + 1), labs[day]));
+                }
+            }
+        }
+
+        for (List<TimetableEntry>[] cells : facultySlots.values()) {
+            for (List<TimetableEntry> cell : cells) {
+                for (int i = 1; cell != null && i < cell.size(); i++) {
+                    violations.add(TimetableViolation.facultyDoubleBooked(cell.get(i), cell.get(0)));
+                }
+            }
+        }
+
+        for (List<TimetableEntry>[] cells : batchSlots.values()) {
+            for (List<TimetableEntry> cell : cells) {
+                for (int i = 1; cell != null && i < cell.size(); i++) {
+                    violations.add(TimetableViolation.batchDoubleBooked(cell.get(i), cell.get(0)));
+                }
+            }
+        }
+
+        for (Map<Long, CourseBatch> byBatch : courseBatches.values()) {
+            for (CourseBatch courseBatch : byBatch.values()) {
+                long pairs = courseBatch.theoryMask & (courseBatch.theoryMask >>> 1);
+                while (pairs != 0) {
+                    int first = Long.numberOfTrailingZeros(pairs);
+                    pairs &= pairs - 1;
+                    if (first % PERIODS != PERIODS - 1) {
+                        violations.add(TimetableViolation.consecutiveTheory(courseBatch.entryAt(first, batchSlots),
+                                DayOfWeek.of(first / PERIODS + 1), first % PERIODS + 1));
+                    }
+                }
+            }
+        }
+        return violations;
+    }
+
+    private TimetableEntry anyEntryOfBatch(Long batchId) {
+        for (TimetableEntry entry : tracked) {
+            if (entry.getBatch().getId().equals(batchId)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    private CourseBatch courseBatch(TimetableEntry entry) {
+        Long courseId = entry.getCourse().getId();
+        Long batchId = entry.getBatch().getId();
+        return courseBatches.computeIfAbsent(courseId, k -> new LinkedHashMap<>())
+                .computeIfAbsent(batchId, k -> new CourseBatch(courseId, batchId));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<TimetableEntry> cell(Map<Long, List<TimetableEntry>[]> grids, Long ownerId, int slot) {
+        List<TimetableEntry>[] cells = grids.computeIfAbsent(ownerId, k -> new List[SLOTS]);
+        if (cells[slot] == null) {
+            cells[slot] = new ArrayList<>(2);
+        }
+        return cells[slot];
+    }
+
+    private static int slotOf(TimetableEntry entry) {
+        return TimetableOccupancy.slotIndex(entry.getTimeSlot().getDay(), entry.getTimeSlot().getPeriodNumber());
+    }
+
+    // Number of occupied neighbours of a slot within the same day
+    private static int adjacentPeriods(long mask, int slot) {
+        int count = 0;
+        if (slot % PERIODS != 0 && (mask & (1L << (slot - 1))) != 0) {
+            count++;
+        }
+        if (slot % PERIODS != PERIODS - 1 && (mask & (1L << (slot + 1))) != 0) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Lab days and theory periods of one course taught to one batch
+     */
+    private static final class CourseBatch {
+        private final Long courseId;
+        private final Long batchId;
+        private final int[] labEntriesPerDay = new int[WEEK_DAYS];
+        private final int[] theoryCount = new int[SLOTS];
+        private long theoryMask;
+
+        private CourseBatch(Long courseId, Long batchId) {
+            this.courseId = courseId;
+            this.batchId = batchId;
+        }
+
+        private TimetableEntry entryAt(int slot, Map<Long, List<TimetableEntry>[]> batchSlots) {
+            for (TimetableEntry entry : batchSlots.get(batchId)[slot]) {
+                if (entry.getCourse().getId().equals(courseId)) {
+                    return entry;
+                }
+            }
+            return null;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.cms.service.timetable;
+
+import com.cms.entities.TimetableEntry;
+import com.cms.repository.TimetableEntryRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bulk write path for generated timetables.
+ * Old rows are removed with one set-based DELETE and new rows are sent as JDBC batches, which the
+ * MySQL driver rewrites into multi-row INSERTs (rewriteBatchedStatements). The identity keys the
+ * database assigns are read back from the batch, so callers get entries with ids as saveAll gave them.
+ */
+@Component
+public class TimetableEntryWriter {
+    private static final Logger logger = LoggerFactory.getLogger(TimetableEntryWriter.class);
+
+    private static final String INSERT_ENTRY_SQL =
+            "INSERT INTO timetable_entries (faculty_id, course_id, batch_id, time_slot_id, academic_year, semester) VALUES (?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private TimetableEntryRepository timetableEntryRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${timetable.persistence.batch-size:1000}")
+    private int batchSize;
+
+    /**
+     * Delete every entry of the given faculty and insert the new entries in their place
+     */
+    @Transactional
+    public void replace(Collection<Long> facultyIds, List<TimetableEntry> entries) {
+        long start = System.nanoTime();
+        int deleted = facultyIds.isEmpty() ? 0 : timetableEntryRepository.deleteByFacultyIdIn(facultyIds);
+        insertAll(entries);
+        logger.debug("Replaced {} timetable entries with {} for {} faculty in {} ms", deleted, entries.size(),
+                facultyIds.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Insert entries in batches of timetable.persistence.batch-size and set their generated ids
+     */
+    @Transactional
+    public void insertAll(List<TimetableEntry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(INSERT_ENTRY_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                int size = Math.max(1, batchSize);
+                for (int from = 0; from < entries.size(); from += size) {
+                    List<TimetableEntry> chunk = entries.subList(from, Math.min(entries.size(), from + size));
+                    for (TimetableEntry entry : chunk) {
+                        ps.setLong(1, entry.getFaculty().getId());
+                        ps.setLong(2, entry.getCourse().getId());
+                        ps.setLong(3, entry.getBatch().getId());
+                        ps.setLong(4, entry.getTimeSlot().getId());
+                        ps.setString(5, entry.getAcademicYear());
+                        ps.setString(6, entry.getSemester());
+                        ps.addBatch();
+                    }
+                    ps.executeBatch();
+
+                    // Keys come back in insert order, one per row of the chunk
+                    try (ResultSet keys = ps.getGeneratedKeys()) {
+                        for (int i = 0; i < chunk.size() && keys.next(); i++) {
+                            chunk.get(i).setId(keys.getLong(1));
+                        }
+                    }
+                }
+            }
+            return null;
+        });
+    }
+}
@@ -0,0 +1,205 @@
+package com.cms.service.timetable;
+
+import com.cms.entities.TimetableEntry;
+
+import java.time.DayOfWeek;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory busy/free grid for faculty, batches and course-batch pairs.
+ * Each owner gets a 6x8 (day x period) bitmask backed by per-slot counters,
+ * so double bookings that occur during repair can be released safely.
+ */
+public class TimetableOccupancy {
+
+    public static final int DAYS = 6;
+    public static final int PERIODS = 8;
+    public static final int SLOTS = DAYS * PERIODS;
+
+    private final Map<Long, Grid> facultyGrids;
+    private final Map<Long, Grid> batchGrids;
+    private final Map<Long, Map<Long, Grid>> courseBatchGrids;
+    // Optional validator kept in step with every entry placed or released; not carried over by copy()
+    private IncrementalTimetableValidator validator;
+
+    public TimetableOccupancy() {
+        this.facultyGrids = new HashMap<>();
+        this.batchGrids = new HashMap<>();
+        this.courseBatchGrids = new HashMap<>();
+    }
+
+    private TimetableOccupancy(TimetableOccupancy source) {
+        this.facultyGrids = copyGrids(source.facultyGrids);
+        this.batchGrids = copyGrids(source.batchGrids);
+        this.courseBatchGrids = new HashMap<>();
+        for (Map.Entry<Long, Map<Long, Grid>> entry : source.courseBatchGrids.entrySet()) {
+            courseBatchGrids.put(entry.getKey(), copyGrids(entry.getValue()));
+        }
+    }
+
+    /**
+     * Build a grid from (faculty id, batch id, course id, day, period) projection rows
+     */
+    public static TimetableOccupancy fromSlotRows(List<Object[]> rows) {
+        TimetableOccupancy occupancy = new TimetableOccupancy();
+        for (Object[] row : rows) {
+            occupancy.place((Long) row[0], (Long) row[1], (Long) row[2], (DayOfWeek) row[3], (Integer) row[4]);
+        }
+        return occupancy;
+    }
+
+    /**
+     * Independent copy, used to give each generation attempt its own view of the persisted grid
+     */
+    public TimetableOccupancy copy() {
+        return new TimetableOccupancy(this);
+    }
+
+    /**
+     * Forward every later place/release of an entry to the given validator
+     */
+    public void track(IncrementalTimetableValidator validator) {
+        this.validator = validator;
+    }
+
+    /**
+     * Map a (day, period) pair to a bit index, or -1 for Sundays, breaks and out-of-range periods
+     */
+    public static int slotIndex(DayOfWeek day, int period) {
+        if (day == null || day == DayOfWeek.SUNDAY || period < 1 || period > PERIODS) {
+            return -1;
+        }
+        return (day.getValue() - 1) * PERIODS + (period - 1);
+    }
+
+    public void place(TimetableEntry entry) {
+        if (validator != null) {
+            validator.add(entry);
+        }
+        place(entry.getFaculty().getId(), entry.getBatch().getId(), entry.getCourse().getId(),
+                entry.getTimeSlot().getDay(), entry.getTimeSlot().getPeriodNumber());
+    }
+
+    public void place(Long facultyId, Long batchId, Long courseId, DayOfWeek day, int period) {
+        int slot = slotIndex(day, period);
+        if (slot < 0) {
+            return;
+        }
+        facultyGrids.computeIfAbsent(facultyId, k -> new Grid()).increment(slot);
+        batchGrids.computeIfAbsent(batchId, k -> new Grid()).increment(slot);
+        courseBatchGrids.computeIfAbsent(courseId, k -> new HashMap<>())
+                .computeIfAbsent(batchId, k -> new Grid()).increment(slot);
+    }
+
+    public void placeAll(Collection<TimetableEntry> entries) {
+        for (TimetableEntry entry : entries) {
+            place(entry);
+        }
+    }
+
+    public void release(TimetableEntry entry) {
+        if (validator != null) {
+            validator.remove(entry);
+        }
+        int slot = slotIndex(entry.getTimeSlot().getDay(), entry.getTimeSlot().getPeriodNumber());
+        if (slot < 0) {
+            return;
+        }
+        decrement(facultyGrids.get(entry.getFaculty().getId()), slot);
+        decrement(batchGrids.get(entry.getBatch().getId()), slot);
+        Map<Long, Grid> byBatch = courseBatchGrids.get(entry.getCourse().getId());
+        if (byBatch != null) {
+            decrement(byBatch.get(entry.getBatch().getId()), slot);
+        }
+    }
+
+    public void releaseAll(Collection<TimetableEntry> entries) {
+        for (TimetableEntry entry : entries) {
+            release(entry);
+        }
+    }
+
+    public boolean isFacultyBusy(Long facultyId, DayOfWeek day, int period) {
+        return isSet(facultyGrids.get(facultyId), slotIndex(day, period));
+    }
+
+    public boolean isBatchBusy(Long batchId, DayOfWeek day, int period) {
+        return isSet(batchGrids.get(batchId), slotIndex(day, period));
+    }
+
+    public boolean hasCourseBatch(Long courseId, Long batchId, DayOfWeek day, int period) {
+        Map<Long, Grid> byBatch = courseBatchGrids.get(courseId);
+        return byBatch != null && isSet(byBatch.get(batchId), slotIndex(day, period));
+    }
+
+    public long facultyMask(Long facultyId) {
+        Grid grid = facultyGrids.get(facultyId);
+        return grid == null ? 0L : grid.mask;
+    }
+
+    public long batchMask(Long batchId) {
+        Grid grid = batchGrids.get(batchId);
+        return grid == null ? 0L : grid.mask;
+    }
+
+    public long courseBatchMask(Long courseId, Long batchId) {
+        Map<Long, Grid> byBatch = courseBatchGrids.get(courseId);
+        Grid grid = byBatch == null ? null : byBatch.get(batchId);
+        return grid == null ? 0L : grid.mask;
+    }
+
+    private static boolean isSet(Grid grid, int slot) {
+        return grid != null && slot >= 0 && (grid.mask & (1L << slot)) != 0;
+    }
+
+    private static void decrement(Grid grid, int slot) {
+        if (grid != null) {
+            grid.decrement(slot);
+        }
+    }
+
+    private static Map<Long, Grid> copyGrids(Map<Long, Grid> source) {
+        Map<Long, Grid> copy = new HashMap<>(source.size() * 2);
+        for (Map.Entry<Long, Grid> entry : source.entrySet()) {
+            copy.put(entry.getKey(), entry.getValue().copy());
+        }
+        return copy;
+    }
+
+    /**
+     * Bitmask of occupied slots plus a counter per slot
+     */
+    private static final class Grid {
+        private long mask;
+        private final byte[] counts;
+
+        private Grid() {
+            this.counts = new byte[SLOTS];
+        }
+
+        private Grid(Grid source) {
+            this.mask = source.mask;
+            this.counts = source.counts.clone();
+        }
+
+        private Grid copy() {
+            return new Grid(this);
+        }
+
+        private void increment(int slot) {
+            if (counts[slot] < Byte.MAX_VALUE) {
+                counts[slot]++;
+            }
+            mask |= 1L << slot;
+        }
+
+        private void decrement(int slot) {
+            if (counts[slot] > 0 && --counts[slot] == 0) {
+                mask &= ~(1L << slot);
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.cms.service.timetable;
+
+import com.cms.entities.Faculty;
+import com.cms.entities.FacultyCourse;
+import com.cms.entities.TimeSlot;
+import com.cms.entities.TimetableEntry;
+
+import java.util.List;
+
+/**
+ * Engine that places one faculty's courses into the weekly grid.
+ * The occupancy holds everything that is already fixed and is not modified by the solver.
+ */
+public interface TimetableSolver {
+
+    /**
+     * Name used to select the engine through configuration or the generation request
+     */
+    String getName();
+
+    List<TimetableEntry> solve(Faculty faculty, List<FacultyCourse> facultyCourses, List<TimeSlot> timeSlots,
+                               TimetableOccupancy occupancy, String academicYear, String semester);
+}
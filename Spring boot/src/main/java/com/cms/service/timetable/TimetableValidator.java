@@ -0,0 +1,171 @@
+package com.cms.service.timetable;
+
+import com.cms.entities.Course;
+import com.cms.entities.TimetableEntry;
+import com.cms.service.TimetableService;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Full timetable check over dense, primitive-keyed indexes.
+ * Faculty, batches and course-batch pairs are numbered once per call and every rule is
+ * evaluated with flat arrays, so no keys are built and nothing is boxed per entry.
+ */
+public final class TimetableValidator {
+
+    private static final int SLOTS = TimetableOccupancy.SLOTS;
+    private static final int PERIODS = TimetableOccupancy.PERIODS;
+    private static final int WEEK_DAYS = 7;
+
+    private TimetableValidator() {
+    }
+
+    /**
+     * Lab limits first, then faculty and batch double bookings in entry order, then consecutive theory periods
+     */
+    public static List<TimetableViolation> validate(List<TimetableEntry> entries) {
+        int n = entries.size();
+        List<TimetableViolation> violations = new ArrayList<>();
+        if (n == 0) {
+            return violations;
+        }
+
+        LongIndex facultyIndex = new LongIndex(n);
+        LongIndex batchIndex = new LongIndex(n);
+        LongIndex courseBatchIndex = new LongIndex(n);
+        LongIndex courseIndex = new LongIndex(n);
+        int[] faculty = new int[n];
+        int[] batch = new int[n];
+        int[] courseBatch = new int[n];
+        int[] slot = new int[n];
+
+        for (int i = 0; i < n; i++) {
+            TimetableEntry entry = entries.get(i);
+            faculty[i] = facultyIndex.indexOf(entry.getFaculty().getId());
+            batch[i] = batchIndex.indexOf(entry.getBatch().getId());
+            long course = courseIndex.indexOf(entry.getCourse().getId());
+            courseBatch[i] = courseBatchIndex.indexOf((course << 32) | batch[i]);
+            slot[i] = TimetableOccupancy.slotIndex(entry.getTimeSlot().getDay(), entry.getTimeSlot().getPeriodNumber());
+        }
+
+        // Distinct lab courses per batch and day
+        TimetableEntry[] batchEntry = new TimetableEntry[batchIndex.size()];
+        int[] labDays = new int[courseBatchIndex.size()];
+        int[] labsPerBatchDay = new int[batchIndex.size() * WEEK_DAYS];
+        for (int i = 0; i < n; i++) {
+            TimetableEntry entry = entries.get(i);
+            if (batchEntry[batch[i]] == null) {
+                batchEntry[batch[i]] = entry;
+            }
+            if (entry.getCourse().getType() == Course.CourseType.LAB) {
+                int day = entry.getTimeSlot().getDay().getValue() - 1;
+                if ((labDays[courseBatch[i]] & (1 << day)) == 0) {
+                    labDays[courseBatch[i]] |= 1 << day;
+                    labsPerBatchDay[batch[i] * WEEK_DAYS + day]++;
+                }
+            }
+        }
+        for (int b = 0; b < batchEntry.length; b++) {
+            for (int day = 0; day < WEEK_DAYS; day++) {
+                int labs = labsPerBatchDay[b * WEEK_DAYS + day];
+                if (labs > TimetableService.MAX_LABS_PER_DAY) {
+                    violations.add(TimetableViolation.labLimitExceeded(batchEntry[b], DayOfWeek.of(day + 1), labs));
+                }
+            }
+        }
+
+        // Faculty teaching twice in one slot
+        TimetableEntry[] facultySlot = new TimetableEntry[facultyIndex.size() * SLOTS];
+        for (int i = 0; i < n; i++) {
+            if (slot[i] >= 0) {
+                int key = faculty[i] * SLOTS + slot[i];
+                if (facultySlot[key] == null) {
+                    facultySlot[key] = entries.get(i);
+                } else {
+                    violations.add(TimetableViolation.facultyDoubleBooked(entries.get(i), facultySlot[key]));
+                }
+            }
+        }
+
+        // Batch attending two classes in one slot
+        TimetableEntry[] batchSlot = new TimetableEntry[batchIndex.size() * SLOTS];
+        for (int i = 0; i < n; i++) {
+            if (slot[i] >= 0) {
+                int key = batch[i] * SLOTS + slot[i];
+                if (batchSlot[key] == null) {
+                    batchSlot[key] = entries.get(i);
+                } else {
+                    violations.add(TimetableViolation.batchDoubleBooked(entries.get(i), batchSlot[key]));
+                }
+            }
+        }
+
+        // Theory course meeting the same batch in two adjacent periods of one day
+        long[] theoryMask = new long[courseBatchIndex.size()];
+        TimetableEntry[] theoryEntry = new TimetableEntry[courseBatchIndex.size()];
+        for (int i = 0; i < n; i++) {
+            TimetableEntry entry = entries.get(i);
+            if (slot[i] >= 0 && entry.getCourse().getType() == Course.CourseType.ACADEMIC) {
+                theoryMask[courseBatch[i]] |= 1L << slot[i];
+                if (theoryEntry[courseBatch[i]] == null) {
+                    theoryEntry[courseBatch[i]] = entry;
+                }
+            }
+        }
+        for (int cb = 0; cb < theoryMask.length; cb++) {
+            long pairs = theoryMask[cb] & (theoryMask[cb] >>> 1);
+            while (pairs != 0) {
+                int first = Long.numberOfTrailingZeros(pairs);
+                pairs &= pairs - 1;
+                if (first % PERIODS != PERIODS - 1) {
+                    violations.add(TimetableViolation.consecutiveTheory(theoryEntry[cb],
+                            DayOfWeek.of(first / PERIODS + 1), first % PERIODS + 1));
+                }
+            }
+        }
+
+        return violations;
+    }
+
+    /**
+     * Open-addressing map from long keys to dense indexes 0..size-1
+     */
+    private static final class LongIndex {
+        private long[] keys;
+        private int[] values;
+        private int size;
+
+        private LongIndex(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(4, expected) * 2 - 1) << 1;
+            keys = new long[capacity];
+            values = new int[capacity];
+            Arrays.fill(values, -1);
+        }
+
+        private int indexOf(long key) {
+            int mask = keys.length - 1;
+            int i = mix(key) & mask;
+            while (values[i] >= 0) {
+                if (keys[i] == key) {
+                    return values[i];
+                }
+                i = (i + 1) & mask;
+            }
+            keys[i] = key;
+            values[i] = size;
+            return size++;
+        }
+
+        private int size() {
+            return size;
+        }
+
+        private static int mix(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
+    }
+}
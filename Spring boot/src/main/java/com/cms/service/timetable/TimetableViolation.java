@@ -0,0 +1,125 @@
+package com.cms.service.timetable;
+
+import com.cms.entities.TimetableEntry;
+import com.cms.service.TimetableService;
+
+import java.time.DayOfWeek;
+
+/**
+ * One broken timetable rule. Holds the entries involved instead of a rendered message,
+ * so repair code can act on it directly; getMessage() is only needed for logs and API output.
+ */
+public class TimetableViolation {
+
+    public enum Type {
+        LAB_LIMIT_EXCEEDED,
+        FACULTY_DOUBLE_BOOKED,
+        BATCH_DOUBLE_BOOKED,
+        CONSECUTIVE_THEORY
+    }
+
+    private final Type type;
+    private final TimetableEntry entry;
+    private final TimetableEntry conflictingEntry;
+    private final DayOfWeek day;
+    private final int period;
+    private final int labCount;
+
+    private TimetableViolation(Type type, TimetableEntry entry, TimetableEntry conflictingEntry,
+                               DayOfWeek day, int period, int labCount) {
+        this.type = type;
+        this.entry = entry;
+        this.conflictingEntry = conflictingEntry;
+        this.day = day;
+        this.period = period;
+        this.labCount = labCount;
+    }
+
+    /**
+     * A batch has more distinct lab courses on one day than allowed; entry is any entry of that batch
+     */
+    static TimetableViolation labLimitExceeded(TimetableEntry batchEntry, DayOfWeek day, int labCount) {
+        return new TimetableViolation(Type.LAB_LIMIT_EXCEEDED, batchEntry, null, day, 0, labCount);
+    }
+
+    /**
+     * entry was placed in a slot the same faculty already teaches in (held by conflictingEntry)
+     */
+    static TimetableViolation facultyDoubleBooked(TimetableEntry entry, TimetableEntry conflictingEntry) {
+        return new TimetableViolation(Type.FACULTY_DOUBLE_BOOKED, entry, conflictingEntry,
+                entry.getTimeSlot().getDay(), entry.getTimeSlot().getPeriodNumber(), 0);
+    }
+
+    /**
+     * entry was placed in a slot the same batch already attends (held by conflictingEntry)
+     */
+    static TimetableViolation batchDoubleBooked(TimetableEntry entry, TimetableEntry conflictingEntry) {
+        return new TimetableViolation(Type.BATCH_DOUBLE_BOOKED, entry, conflictingEntry,
+                entry.getTimeSlot().getDay(), entry.getTimeSlot().getPeriodNumber(), 0);
+    }
+
+    /**
+     * A theory course meets the same batch in period and period + 1
+     */
+    static TimetableViolation consecutiveTheory(TimetableEntry entry, DayOfWeek day, int period) {
+        return new TimetableViolation(Type.CONSECUTIVE_THEORY, entry, null, day, period, 0);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public TimetableEntry getEntry() {
+        return entry;
+    }
+
+    public TimetableEntry getConflictingEntry() {
+        return conflictingEntry;
+    }
+
+    public Long getFacultyId() {
+        return entry.getFaculty().getId();
+    }
+
+    public Long getBatchId() {
+        return entry.getBatch().getId();
+    }
+
+    public Long getCourseId() {
+        return entry.getCourse().getId();
+    }
+
+    public DayOfWeek getDay() {
+        return day;
+    }
+
+    public int getPeriod() {
+        return period;
+    }
+
+    public int getLabCount() {
+        return labCount;
+    }
+
+    public String getMessage() {
+        switch (type) {
+            case LAB_LIMIT_EXCEEDED:
+                return String.format("Batch %s has %d labs on %s (max allowed: %d)",
+                        entry.getBatch().getBatchName(), labCount, day, TimetableService.MAX_LABS_PER_DAY);
+            case FACULTY_DOUBLE_BOOKED:
+                return String.format("Faculty %s is scheduled twice on %s period %d",
+                        entry.getFaculty().getName(), day, period);
+            case BATCH_DOUBLE_BOOKED:
+                return String.format("Batch %s is scheduled twice on %s period %d",
+                        entry.getBatch().getBatchName(), day, period);
+            default:
+                return String.format("Course %s for batch %s has consecutive periods on %s (%d and %d)",
+                        entry.getCourse().getCode(), entry.getBatch().getBatchName(), day, period, period + 1);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return getMessage();
+    }
+}
@@ -0,0 +1,129 @@
+package com.cms.utils;
+
+import io.jsonwebtoken.Claims;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Verified claims of recently seen tokens, so a token's signature is checked once rather than on
+ * every request and every claim lookup.
+ * Entries are keyed by the SHA-256 of the token and dropped when the token expires. Within a web
+ * request the claims are also kept as a request attribute, which saves even the hashing for the
+ * filter, validateToken and extractFacultyId calls of the same request.
+ */
+@Component
+public class JwtClaimsCache {
+
+    private static final String REQUEST_ATTRIBUTE = JwtClaimsCache.class.getName() + ".claims";
+
+    @Value("${jwt.claims-cache.max-size:10000}")
+    private int maxSize;
+
+    private final Map<String, CachedClaims> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Claims of token, running parser (which verifies the signature) only on a miss
+     */
+    public Claims get(String token, Function<String, Claims> parser) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null && request.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof RequestClaims held
+                && held.token.equals(token) && !expired(held.claims, System.currentTimeMillis())) {
+            return held.claims;
+        }
+
+        String key = hash(token);
+        long now = System.currentTimeMillis();
+        CachedClaims cached = entries.get(key);
+        Claims claims;
+        if (cached != null && cached.expiresAt > now) {
+            claims = cached.claims;
+        } else {
+            if (cached != null) {
+                entries.remove(key, cached);
+            }
+            claims = parser.apply(token);
+            put(key, claims, now);
+        }
+
+        if (request != null) {
+            request.setAttribute(REQUEST_ATTRIBUTE, new RequestClaims(token, claims), RequestAttributes.SCOPE_REQUEST);
+        }
+        return claims;
+    }
+
+    /**
+     * Forget every cached token, e.g. after the signing secret changed
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    private void put(String key, Claims claims, long now) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null) {
+            // Without exp there is nothing to bound the entry's lifetime by
+            return;
+        }
+        if (entries.size() >= Math.max(1, maxSize)) {
+            evict(now);
+        }
+        entries.put(key, new CachedClaims(claims, expiration.getTime()));
+    }
+
+    // Drop expired entries first; if the map is still full, drop arbitrary ones down to 90%
+    private void evict(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt <= now);
+        int target = Math.max(1, maxSize) * 9 / 10;
+        Iterator<String> keys = entries.keySet().iterator();
+        while (entries.size() > target && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private static boolean expired(Claims claims, long now) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.getTime() <= now;
+    }
+
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static final class CachedClaims {
+        private final Claims claims;
+        private final long expiresAt;
+
+        private CachedClaims(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    private static final class RequestClaims {
+        private final String token;
+        private final Claims claims;
+
+        private RequestClaims(String token, Claims claims) {
+            this.token = token;
+            this.claims = claims;
+        }
+    }
+}
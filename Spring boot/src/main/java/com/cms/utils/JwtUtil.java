@@ -1,8 +1,11 @@
 package com.cms.utils;
 
+import com.cms.entities.User;
+import com.cms.service.jwt.CmsUserDetails;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
@@ -15,12 +18,22 @@ import java.util.function.Function;
 @Component
 public class JwtUtil {
 
+    // Claims of self-contained tokens, enough to authenticate a request without loading the user
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_USER_ID = "userId";
+    public static final String CLAIM_STUDENT_ID = "studentId";
+    public static final String CLAIM_FACULTY_ID = "facultyId";
+    public static final String CLAIM_CREDENTIAL_VERSION = "credentialVersion";
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    @Autowired
+    private JwtClaimsCache claimsCache;
+
     // Extract username (subject) from token
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -31,14 +44,23 @@ public class JwtUtil {
         return extractClaim(token, Claims::getExpiration);
     }
 
+    // Extract all verified claims from the token
+    public Claims extractClaims(String token) {
+        return extractAllClaims(token);
+    }
+
     // Extract any claim from the token
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
         final Claims claims = extractAllClaims(token);
         return claimsResolver.apply(claims);
     }
 
-    // Parse claims from the token
+    // Parse claims from the token; the signature is verified once per token and cached
     private Claims extractAllClaims(String token) {
+        return claimsCache.get(token, this::parseClaims);
+    }
+
+    private Claims parseClaims(String token) {
         return Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
     }
 
@@ -60,7 +82,28 @@ public class JwtUtil {
         return createToken(claims, userDetails.getUsername());
     }
 
-    // Create the token with claims and expiration
+    // Generate a self-contained token carrying the role, ids and credential version of the user
+    public String generateToken(User user, Long studentId, Long facultyId) {
+        Map<String, Object> claims = new HashMap<>();
+        claims.put(CLAIM_ROLE, user.getUserRole().name());
+        claims.put(CLAIM_USER_ID, user.getId());
+        if (studentId != null) {
+            claims.put(CLAIM_STUDENT_ID, studentId);
+        }
+        if (facultyId != null) {
+            claims.put(CLAIM_FACULTY_ID, facultyId);
+        }
+        claims.put(CLAIM_CREDENTIAL_VERSION, user.getCredentialVersion() != null ? user.getCredentialVersion() : 0L);
+        return createToken(claims, user.getEmail());
+    }
+
+    // Whether the token carries everything needed to authenticate without a user lookup
+    public boolean isSelfContained(Claims claims) {
+        return claims.get(CLAIM_ROLE) != null && claims.get(CLAIM_USER_ID) != null
+                && claims.get(CLAIM_CREDENTIAL_VERSION) != null;
+    }
+
+        // Create the token with claims and expiration
     private String createToken(Map<String, Object> claims, String subject) {
         return Jwts.builder()
                 .setClaims(claims)
@@ -71,16 +114,21 @@ public class JwtUtil {
                 .compact();
     }
 
-    // Validate the token based on the username and expiration
+    // Validate the token based on the username, expiration and, when both carry one, the credential version
     public Boolean validateToken(String token, UserDetails userDetails) {
         final String username = extractUsername(token);
+        Object version = extractClaim(token, claims -> claims.get(CLAIM_CREDENTIAL_VERSION));
+        if (version != null && userDetails instanceof CmsUserDetails cmsUserDetails
+                && ((Number) version).longValue() < cmsUserDetails.getCredentialVersion()) {
+            return false;
+        }
         return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
     }
 
     // Extract facultyId from the token
     public Long extractFacultyId(String token) {
         try {
-            Claims claims = Jwts.parser().setSigningKey(secret).parseClaimsJws(token).getBody();
+            Claims claims = extractAllClaims(token);
             Object facultyId = claims.get("facultyId");
             if (facultyId != null) {
                 return Long.parseLong(facultyId.toString());  // Safely parse facultyId
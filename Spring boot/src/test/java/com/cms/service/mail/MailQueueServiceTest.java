@@ -0,0 +1,198 @@
+package com.cms.service.mail;
+
+import com.cms.entities.OutboundEmail;
+import com.cms.entities.OutboundEmail.MailStatus;
+import com.cms.repository.OutboundEmailRepository;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * MailQueueService.deliver against a real SMTP server; the outbound_emails table is mocked.
+ */
+class MailQueueServiceTest {
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP);
+
+    private static final int MAX_ATTEMPTS = 5;
+    private static final long BACKOFF_SECONDS = 30;
+
+    private OutboundEmailRepository outboundEmailRepository;
+    private CountingMailSender mailSender;
+    private MailQueueService mailQueueService;
+
+    @BeforeEach
+    void setUp() {
+        outboundEmailRepository = mock(OutboundEmailRepository.class);
+        when(outboundEmailRepository.claim(anyLong(), any())).thenReturn(1);
+
+        mailSender = new CountingMailSender();
+        mailSender.setHost("localhost");
+        mailSender.setPort(ServerSetupTest.SMTP.getPort());
+
+        mailQueueService = new MailQueueService();
+        ReflectionTestUtils.setField(mailQueueService, "outboundEmailRepository", outboundEmailRepository);
+        ReflectionTestUtils.setField(mailQueueService, "mailSender", mailSender);
+        ReflectionTestUtils.setField(mailQueueService, "maxAttempts", MAX_ATTEMPTS);
+        ReflectionTestUtils.setField(mailQueueService, "backoffSeconds", BACKOFF_SECONDS);
+        ReflectionTestUtils.setField(mailQueueService, "maxBackoffSeconds", 3600L);
+        ReflectionTestUtils.setField(mailQueueService, "sendBatchSize", 50);
+        rateLimit(0);
+    }
+
+    @Test
+    void sendsBatchOverOneConnection() throws Exception {
+        List<OutboundEmail> emails = new ArrayList<>();
+        for (long id = 1; id <= 5; id++) {
+            emails.add(storedEmail(id, "student" + id + "@cms.test", 0));
+        }
+
+        List<Long> ids = deliver(emails);
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(5);
+        assertThat(mailSender.connections.get()).isEqualTo(1);
+        verify(outboundEmailRepository).markAllSent(eq(ids), any());
+        verify(outboundEmailRepository, never()).markFailed(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void retriesMessageRejectedWithinBatch() throws Exception {
+        // No recipients, so the server is never asked to take the second message
+        List<OutboundEmail> emails = List.of(
+                storedEmail(1L, "first@cms.test", 0),
+                storedEmail(2L, null, 0),
+                storedEmail(3L, "third@cms.test", 0));
+
+        LocalDateTime before = LocalDateTime.now();
+        deliver(emails);
+
+        assertThat(greenMail.getReceivedMessages()).hasSize(2);
+        assertThat(mailSender.connections.get()).isEqualTo(1);
+        verify(outboundEmailRepository).markAllSent(eq(List.of(1L, 3L)), any());
+        verify(outboundEmailRepository).markFailed(eq(2L), eq(MailStatus.PENDING),
+                argThat(next -> !next.isBefore(before.plusSeconds(BACKOFF_SECONDS))), anyString());
+    }
+
+    @Test
+    void retriesWholeBatchWhenServerIsUnreachable() throws Exception {
+        List<OutboundEmail> emails = List.of(
+                storedEmail(1L, "first@cms.test", 0),
+                storedEmail(2L, "second@cms.test", 2));
+        greenMail.stop();
+
+        LocalDateTime before = LocalDateTime.now();
+        deliver(emails);
+
+        verify(outboundEmailRepository, never()).markAllSent(any(), any());
+        verify(outboundEmailRepository).markFailed(eq(1L), eq(MailStatus.PENDING),
+                argThat(next -> !next.isBefore(before.plusSeconds(BACKOFF_SECONDS))), any());
+        // Third attempt, so the backoff has doubled twice
+        verify(outboundEmailRepository).markFailed(eq(2L), eq(MailStatus.PENDING),
+                argThat(next -> !next.isBefore(before.plusSeconds(BACKOFF_SECONDS * 4))), any());
+    }
+
+    @Test
+    void givesUpAfterLastAttempt() throws Exception {
+        deliver(List.of(storedEmail(1L, null, MAX_ATTEMPTS - 1)));
+
+        verify(outboundEmailRepository).markFailed(eq(1L), eq(MailStatus.DEAD), any(), anyString());
+    }
+
+    @Test
+    void pacesBatchesToRateLimit() throws Exception {
+        rateLimit(10);
+        // A batch never carries more than one second of quota
+        assertThat((Integer) ReflectionTestUtils.invokeMethod(mailQueueService, "batchSize")).isEqualTo(10);
+
+        long start = System.nanoTime();
+        for (long batch = 0; batch < 3; batch++) {
+            List<OutboundEmail> emails = new ArrayList<>();
+            for (long i = 1; i <= 5; i++) {
+                long id = batch * 5 + i;
+                emails.add(storedEmail(id, "student" + id + "@cms.test", 0));
+            }
+            deliver(emails);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        // 15 messages at 10 per second: the second batch waits 0.5 s and the third 1 s
+        assertThat(greenMail.getReceivedMessages()).hasSize(15);
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(950);
+        assertThat(mailSender.connections.get()).isEqualTo(3);
+    }
+
+    private void rateLimit(double permitsPerSecond) {
+        ReflectionTestUtils.setField(mailQueueService, "rateLimitPerSecond", permitsPerSecond);
+        ReflectionTestUtils.setField(mailQueueService, "rateLimiter", new SendRateLimiter(permitsPerSecond));
+    }
+
+    private List<Long> deliver(List<OutboundEmail> emails) {
+        List<Long> ids = emails.stream().map(OutboundEmail::getId).toList();
+        when(outboundEmailRepository.findAllById(ids)).thenReturn(emails);
+        ReflectionTestUtils.invokeMethod(mailQueueService, "deliver", ids);
+        return ids;
+    }
+
+    // The row enqueue would have stored for a message to the given address
+    private OutboundEmail storedEmail(Long id, String to, int attempts) throws Exception {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, "UTF-8");
+        helper.setFrom("noreply@cms.test");
+        if (to != null) {
+            helper.setTo(to);
+        }
+        helper.setSubject("Queued email " + id);
+        helper.setText("Body of email " + id);
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        message.writeTo(content);
+
+        OutboundEmail email = new OutboundEmail();
+        email.setId(id);
+        email.setRecipient(to != null ? to : "");
+        email.setSubject("Queued email " + id);
+        email.setMimeContent(content.toByteArray());
+        email.setStatus(MailStatus.SENDING);
+        email.setAttempts(attempts);
+        return email;
+    }
+
+    /**
+     * Counts SMTP connections, one per send call
+     */
+    private static class CountingMailSender extends JavaMailSenderImpl {
+        private final AtomicInteger connections = new AtomicInteger();
+
+        @Override
+        protected Transport connectTransport() throws MessagingException {
+            connections.incrementAndGet();
+            return super.connectTransport();
+        }
+    }
+}
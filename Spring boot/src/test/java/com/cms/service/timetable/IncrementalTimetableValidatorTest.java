@@ -0,0 +1,151 @@
+package com.cms.service.timetable;
+
+import com.cms.entities.Batch;
+import com.cms.entities.Course;
+import com.cms.entities.Faculty;
+import com.cms.entities.TimeSlot;
+import com.cms.entities.TimetableEntry;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * IncrementalTimetableValidator against full TimetableValidator rescans over randomized edit sequences.
+ */
+class IncrementalTimetableValidatorTest {
+
+    private static final int SEEDS = 20;
+    private static final int OPERATIONS = 1500;
+
+    private final List<Faculty> faculty = new ArrayList<>();
+    private final List<Batch> batches = new ArrayList<>();
+    private final List<Course> courses = new ArrayList<>();
+    private final List<TimeSlot> timeSlots = new ArrayList<>();
+    private long nextEntryId = 1;
+
+    IncrementalTimetableValidatorTest() {
+        for (long id = 1; id <= 4; id++) {
+            Faculty member = new Faculty();
+            member.setId(id);
+            member.setName("Faculty " + id);
+            faculty.add(member);
+        }
+        for (long id = 1; id <= 3; id++) {
+            Batch batch = new Batch();
+            batch.setId(id);
+            batch.setBatchName("Batch " + id);
+            batches.add(batch);
+        }
+        // Enough labs to break the per-day limit, theory courses for consecutive periods and one activity
+        Course.CourseType[] types = {
+                Course.CourseType.LAB, Course.CourseType.LAB, Course.CourseType.LAB, Course.CourseType.LAB,
+                Course.CourseType.ACADEMIC, Course.CourseType.ACADEMIC, Course.CourseType.ACADEMIC,
+                Course.CourseType.NON_ACADEMIC
+        };
+        for (int i = 0; i < types.length; i++) {
+            Course course = new Course();
+            course.setId((long) i + 1);
+            course.setCode("C" + (i + 1));
+            course.setType(types[i]);
+            courses.add(course);
+        }
+        // Every day including Sunday, with period 0 standing in for breaks, which never occupy a slot
+        long slotId = 1;
+        for (DayOfWeek day : DayOfWeek.values()) {
+            for (int period = 0; period <= TimetableOccupancy.PERIODS; period++) {
+                TimeSlot slot = new TimeSlot(day, period, LocalTime.of(9, 0), LocalTime.of(9, 50), period == 0);
+                slot.setId(slotId++);
+                timeSlots.add(slot);
+            }
+        }
+    }
+
+    @Test
+    void matchesFullRescanAfterEveryOperation() {
+        for (long seed = 1; seed <= SEEDS; seed++) {
+            Random random = new Random(seed);
+
+            // Same insertion order on both sides, so double bookings name the same pair of entries
+            List<TimetableEntry> current = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                current.add(randomEntry(random));
+            }
+            IncrementalTimetableValidator validator = new IncrementalTimetableValidator(current);
+            assertMatches(validator, current, seed, -1);
+
+            for (int op = 0; op < OPERATIONS; op++) {
+                int before = TimetableValidator.validate(current).size();
+                int delta;
+                int choice = random.nextInt(10);
+                if (choice < 4 || current.isEmpty()) {
+                    TimetableEntry entry = randomEntry(random);
+                    delta = validator.add(entry);
+                    current.add(entry);
+                } else if (choice < 7) {
+                    TimetableEntry entry = current.remove(random.nextInt(current.size()));
+                    delta = validator.remove(entry);
+                } else if (choice < 9) {
+                    TimetableEntry from = current.remove(random.nextInt(current.size()));
+                    TimetableEntry to = entry(from.getFaculty(), from.getCourse(), from.getBatch(), randomSlot(random));
+                    delta = validator.move(from, to);
+                    current.add(to);
+                } else {
+                    // Adding a tracked entry or removing an untracked one changes nothing
+                    TimetableEntry tracked = current.get(random.nextInt(current.size()));
+                    delta = validator.add(tracked) + validator.remove(randomEntry(random));
+                }
+
+                assertThat(delta).as("delta, seed %d op %d", seed, op)
+                        .isEqualTo(TimetableValidator.validate(current).size() - before);
+                assertMatches(validator, current, seed, op);
+            }
+        }
+    }
+
+    private void assertMatches(IncrementalTimetableValidator validator, List<TimetableEntry> entries, long seed, int op) {
+        List<String> expected = keys(TimetableValidator.validate(entries));
+        List<String> actual = keys(validator.violations());
+        assertThat(actual).as("violations, seed %d op %d", seed, op).containsExactlyInAnyOrderElementsOf(expected);
+        assertThat(validator.violationCount()).as("count, seed %d op %d", seed, op).isEqualTo(expected.size());
+    }
+
+    // Lab limits and consecutive theory may name any entry of the batch or course, so only their identity is compared
+    private static List<String> keys(List<TimetableViolation> violations) {
+        List<String> keys = new ArrayList<>(violations.size());
+        for (TimetableViolation violation : violations) {
+            switch (violation.getType()) {
+                case LAB_LIMIT_EXCEEDED -> keys.add(violation.getType() + " batch " + violation.getBatchId()
+                        + " " + violation.getDay() + " labs " + violation.getLabCount());
+                case CONSECUTIVE_THEORY -> keys.add(violation.getType() + " course " + violation.getCourseId()
+                        + " batch " + violation.getBatchId() + " " + violation.getDay() + " " + violation.getPeriod());
+                default -> keys.add(violation.getType() + " entry " + violation.getEntry().getId()
+                        + " with " + violation.getConflictingEntry().getId());
+            }
+        }
+        return keys;
+    }
+
+    private TimetableEntry randomEntry(Random random) {
+        return entry(faculty.get(random.nextInt(faculty.size())), courses.get(random.nextInt(courses.size())),
+                batches.get(random.nextInt(batches.size())), randomSlot(random));
+    }
+
+    // Mostly Monday and Tuesday so that clashes, lab pile-ups and adjacent periods are common
+    private TimeSlot randomSlot(Random random) {
+        int perDay = TimetableOccupancy.PERIODS + 1;
+        int day = random.nextInt(4) == 0 ? random.nextInt(7) : random.nextInt(2);
+        return timeSlots.get(day * perDay + random.nextInt(perDay));
+    }
+
+    private TimetableEntry entry(Faculty member, Course course, Batch batch, TimeSlot slot) {
+        TimetableEntry entry = new TimetableEntry(member, course, batch, slot, "2025-2026", "ODD");
+        entry.setId(nextEntryId++);
+        return entry;
+    }
+}